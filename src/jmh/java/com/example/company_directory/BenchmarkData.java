@@ -0,0 +1,181 @@
+package com.example.company_directory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.example.company_directory.dto.ImportRowDto;
+import com.example.company_directory.entity.Company;
+import com.example.company_directory.util.ZipMasterTable;
+
+/**
+ * ベンチマーク用のデータ生成。
+ * 乱数の種を固定し、同じ引数なら毎回同じデータになるようにする（コミット間で結果を比較するため）。
+ */
+public final class BenchmarkData {
+
+    public static final long SEED = 20240401L;
+
+    // 郵便番号マスタに登録する件数（100-0000 から連番）
+    public static final int ZIP_COUNT = 10_000;
+
+    private static final String[] LEGAL_FORMS = { "株式会社", "有限会社", "合同会社", "(株)", "㈱", "" };
+    private static final String[] WORDS = {
+            "山田", "鈴木", "東京", "大阪", "北海", "中央", "日本", "第一", "新星", "未来",
+            "テック", "システム", "ソリューションズ", "商事", "産業", "物産", "工業", "建設", "電機", "食品",
+            "ABC", "Global", "Net", "Link", "Data" };
+    private static final String[] TOWNS = { "丸の内", "大手町", "神田", "有楽町", "内幸町" };
+
+    private BenchmarkData() {
+    }
+
+    /** 登録済み企業（企業IDは 1 から連番） */
+    public static List<Company> companies(int count) {
+        Random random = new Random(SEED);
+        List<Company> companies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Company c = new Company();
+            c.setCompanyId(i + 1);
+            c.setCompanyName(companyName(i));
+            int zip = random.nextInt(ZIP_COUNT);
+            c.setZipCode(zipCode(zip));
+            c.setAddress(address(zip, random));
+            c.setRegistrationDate(LocalDate.of(2000, 1, 1).plusDays(random.nextInt(9000)));
+            c.setRemarks(random.nextInt(4) == 0 ? "備考" + i : null);
+            c.setIsDeleted(false);
+            companies.add(c);
+        }
+        return companies;
+    }
+
+    /**
+     * インポート行。
+     * 新規 7割・更新 3割（企業IDは 1..existingCount）、エラー行 約2%、
+     * 登録済み企業名の表記ゆれ（法人格・全角半角・空白の違い）約5%、ファイル内の同名 約1%を含む。
+     */
+    public static List<ImportRowDto> importRows(int count, int existingCount) {
+        Random random = new Random(SEED + 1);
+        List<ImportRowDto> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ImportRowDto row = new ImportRowDto();
+            row.setRowNum(i + 2);
+
+            int kind = random.nextInt(100);
+            if (kind < 30 && existingCount > 0) {
+                row.setCompanyId(String.valueOf(1 + random.nextInt(existingCount)));
+            } else {
+                row.setCompanyId("");
+            }
+
+            String name;
+            if (kind >= 30 && kind < 35 && existingCount > 0) {
+                // 登録済み企業名の表記ゆれ
+                name = variant(companyName(random.nextInt(existingCount)), random);
+            } else if (kind == 35 && i > 0) {
+                name = rows.get(random.nextInt(i)).getCompanyName();
+            } else {
+                name = companyName(existingCount + i);
+            }
+            row.setCompanyName(name);
+
+            int zip = random.nextInt(ZIP_COUNT);
+            row.setZipCode(kind >= 98 ? "1000-001" : zipCode(zip));
+            row.setAddress(address(zip, random));
+            row.setRegistrationDate(date(random));
+            row.setRemarks(random.nextInt(4) == 0 ? "備考" + i : "");
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /** 郵便番号マスタ（ZIP_COUNT 件） */
+    public static ZipMasterTable zipTable() {
+        ZipMasterTable.Builder builder = new ZipMasterTable.Builder();
+        for (int i = 0; i < ZIP_COUNT; i++) {
+            builder.add(zipCode(i).replace("-", ""), "東京都", "千代田区" + (i % 50), TOWNS[i % TOWNS.length]);
+        }
+        return builder.build();
+    }
+
+    /** 入力形式の混ざった登録日（不正な値を約5%含む） */
+    public static String[] dateInputs(int count) {
+        Random random = new Random(SEED + 2);
+        String[] inputs = new String[count];
+        for (int i = 0; i < count; i++) {
+            inputs[i] = random.nextInt(20) == 0 ? "2023/13/45" : date(random);
+        }
+        return inputs;
+    }
+
+    /** 全角数字・全角ハイフンを含む郵便番号 */
+    public static String[] zipInputs(int count) {
+        Random random = new Random(SEED + 3);
+        String[] inputs = new String[count];
+        for (int i = 0; i < count; i++) {
+            String zip = zipCode(random.nextInt(ZIP_COUNT));
+            switch (random.nextInt(3)) {
+                case 0 -> inputs[i] = zip;
+                case 1 -> inputs[i] = zip.replace("-", "ー");
+                default -> inputs[i] = toFullWidth(zip).replace("-", "－");
+            }
+        }
+        return inputs;
+    }
+
+    /** 通し番号ごとに決まる企業名（登録済み企業の表記ゆれを作るため、乱数の進み方によらない） */
+    private static String companyName(int seq) {
+        Random random = new Random(SEED ^ seq);
+        return LEGAL_FORMS[random.nextInt(LEGAL_FORMS.length)]
+                + WORDS[random.nextInt(WORDS.length)] + WORDS[random.nextInt(WORDS.length)] + seq;
+    }
+
+    /** 企業名の表記ゆれ（法人格の付け替え・全角化・空白） */
+    private static String variant(String name, Random random) {
+        String base = name;
+        for (String form : LEGAL_FORMS) {
+            if (!form.isEmpty() && base.startsWith(form)) {
+                base = base.substring(form.length());
+                break;
+            }
+        }
+        return switch (random.nextInt(3)) {
+            case 0 -> "(株)" + toFullWidth(base);
+            case 1 -> base + " 株式会社";
+            default -> "株式会社 " + base;
+        };
+    }
+
+    private static String zipCode(int index) {
+        int code = 1_000_000 + index;
+        String digits = Integer.toString(code);
+        return digits.substring(0, 3) + "-" + digits.substring(3);
+    }
+
+    private static String address(int zipIndex, Random random) {
+        return "千代田区" + (zipIndex % 50) + "東京都" + TOWNS[zipIndex % TOWNS.length]
+                + (1 + random.nextInt(9)) + "-" + (1 + random.nextInt(30));
+    }
+
+    private static String date(Random random) {
+        LocalDate d = LocalDate.of(2000, 1, 1).plusDays(random.nextInt(9000));
+        return switch (random.nextInt(4)) {
+            case 0 -> d.toString();
+            case 1 -> d.getYear() + "/" + d.getMonthValue() + "/" + d.getDayOfMonth();
+            case 2 -> String.format("%d年%02d月%02d日", d.getYear(), d.getMonthValue(), d.getDayOfMonth());
+            default -> d.getMonthValue() + "/" + d.getDayOfMonth() + "/" + d.getYear();
+        };
+    }
+
+    private static String toFullWidth(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (char c : s.toCharArray()) {
+            if (c >= '0' && c <= '9' || c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z') {
+                sb.append((char) (c - '!' + '！'));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
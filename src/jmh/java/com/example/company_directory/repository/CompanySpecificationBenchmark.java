@@ -0,0 +1,102 @@
+package com.example.company_directory.repository;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.company_directory.entity.Company;
+import com.example.company_directory.form.CompanySearchForm;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * 検索条件（CompanySpecification.search）の組み立て。
+ * JPA の CriteriaBuilder などは何もしないプロキシに置き換え、Specification の合成と条件の組み立てにかかる時間だけを測る。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CompanySpecificationBenchmark {
+
+    private Root<Company> root;
+    private CriteriaQuery<?> query;
+    private CriteriaBuilder cb;
+
+    private CompanySearchForm keywordOnly;
+    private CompanySearchForm allFields;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        root = stub(Root.class);
+        query = stub(CriteriaQuery.class);
+        cb = stub(CriteriaBuilder.class);
+
+        keywordOnly = new CompanySearchForm();
+        keywordOnly.setKeyword("東京");
+
+        allFields = new CompanySearchForm();
+        allFields.setKeyword("東京");
+        allFields.setCompanyId(123);
+        allFields.setCompanyName("商事");
+        allFields.setAddress("千代田区");
+        allFields.setZipCode("100-");
+        allFields.setDateFrom(LocalDate.of(2020, 1, 1));
+        allFields.setDateTo(LocalDate.of(2024, 12, 31));
+    }
+
+    @Benchmark
+    public Predicate noCondition() {
+        return CompanySpecification.search(null).toPredicate(root, query, cb);
+    }
+
+    @Benchmark
+    public Predicate keywordOnly() {
+        return CompanySpecification.search(keywordOnly).toPredicate(root, query, cb);
+    }
+
+    @Benchmark
+    public Predicate allFields() {
+        return CompanySpecification.search(allFields).toPredicate(root, query, cb);
+    }
+
+    /** インターフェースを返すメソッドは同じく何もしないプロキシを返す */
+    private static <T> T stub(Class<T> type) {
+        InvocationHandler handler = new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, java.lang.reflect.Method method, Object[] args) {
+                switch (method.getName()) {
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    case "toString":
+                        return type.getSimpleName();
+                    default:
+                        break;
+                }
+                Class<?> returnType = method.getReturnType();
+                if (returnType == boolean.class) {
+                    return false;
+                }
+                if (returnType.isInterface()) {
+                    return Proxy.newProxyInstance(returnType.getClassLoader(), new Class<?>[] { returnType }, this);
+                }
+                return null;
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler));
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.company_directory.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.company_directory.BenchmarkData;
+import com.example.company_directory.dto.ImportResultDto;
+import com.example.company_directory.dto.ImportRowDto;
+import com.example.company_directory.entity.Company;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * インポート検証（読み込み後の行に対する一括照会・ルール実行・集計）。
+ * DB参照はメモリ上のデータで置き換え、SQLによる検証（sql-validation-threshold）は使わない。
+ * 並列検証は本番と同じ閾値（5000行以上）で働く。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ImportValidationBenchmark {
+
+    // 登録済み企業の件数
+    private static final int EXISTING = 100_000;
+
+    @Param({ "1000", "10000", "100000" })
+    public int rows;
+
+    private ExcelImportService service;
+    private List<ImportRowDto> importRows;
+
+    @Setup
+    public void setUp() {
+        List<Company> companies = BenchmarkData.companies(EXISTING);
+        ExistingCompanyNameIndex index = InMemoryRepositories.existingCompanyNameIndex(companies);
+        index.current();
+        ImportNearDuplicateDetector detector = new ImportNearDuplicateDetector(index, true, 0.8);
+        service = new ExcelImportService(
+                InMemoryRepositories.companyRepository(companies),
+                InMemoryRepositories.companyBulkRepository(companies),
+                InMemoryRepositories.zipMasterIndex(BenchmarkData.zipTable()),
+                null,
+                new ImportRulePipeline(new SimpleMeterRegistry()),
+                detector,
+                5000, 500, "upsert", 50_000, Integer.MAX_VALUE);
+        importRows = BenchmarkData.importRows(rows, EXISTING);
+    }
+
+    /** 検証は行に結果を上書きするだけなので、同じ行を繰り返し使っても結果は変わらない */
+    @Benchmark
+    public ImportResultDto validate() {
+        return service.validate(importRows);
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.company_directory.service;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.example.company_directory.entity.Company;
+import com.example.company_directory.repository.CompanyBulkRepository;
+import com.example.company_directory.repository.CompanyRepository;
+import com.example.company_directory.util.ContentFingerprint;
+import com.example.company_directory.util.ZipMasterTable;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * ベンチマーク用に、インポート検証が使うDB参照をメモリ上のデータで置き換える。
+ * 検証で呼ばれるメソッドだけを実装し、それ以外は UnsupportedOperationException とする。
+ */
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    /** 一括存在チェック（findExistingIds / findExistingCompanyNames / findExistingAddresses）のみ */
+    static CompanyRepository companyRepository(List<Company> companies) {
+        Set<Integer> ids = new HashSet<>();
+        Set<String> names = new HashSet<>();
+        Set<String> addresses = new HashSet<>();
+        for (Company c : companies) {
+            ids.add(c.getCompanyId());
+            names.add(c.getCompanyName());
+            addresses.add(c.getAddress());
+        }
+        return (CompanyRepository) Proxy.newProxyInstance(CompanyRepository.class.getClassLoader(),
+                new Class<?>[] { CompanyRepository.class }, (proxy, method, args) -> switch (method.getName()) {
+                    case "findExistingIds" -> retain((Collection<?>) args[0], ids);
+                    case "findExistingCompanyNames" -> retain((Collection<?>) args[0], names);
+                    case "findExistingAddresses" -> retain((Collection<?>) args[0], addresses);
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /** フィンガープリント照会と企業名の読み込み（streamActiveNames）、版数（常に 0）のみ */
+    static CompanyBulkRepository companyBulkRepository(List<Company> companies) {
+        Map<Integer, CompanyBulkRepository.StoredFingerprint> fingerprints = new HashMap<>(companies.size() * 2);
+        for (Company c : companies) {
+            fingerprints.put(c.getCompanyId(), new CompanyBulkRepository.StoredFingerprint(
+                    ContentFingerprint.of(c.getCompanyName(), c.getAddress(), c.getZipCode(), c.getRemarks()),
+                    c.getRegistrationDate()));
+        }
+        return new CompanyBulkRepository(null, null) {
+            @Override
+            public Map<Integer, StoredFingerprint> findFingerprints(Collection<Integer> ids) {
+                Map<Integer, StoredFingerprint> result = new HashMap<>(ids.size() * 2);
+                for (Integer id : ids) {
+                    StoredFingerprint fp = fingerprints.get(id);
+                    if (fp != null) {
+                        result.put(id, fp);
+                    }
+                }
+                return result;
+            }
+
+            @Override
+            public long currentDataVersion() {
+                return 0;
+            }
+
+            @Override
+            public void streamActiveNames(int fetchSize, RowCallbackHandler handler) {
+                Company[] current = new Company[1];
+                ResultSet rs = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                        new Class<?>[] { ResultSet.class }, (proxy, method, args) -> switch (method.getName()) {
+                            case "getInt" -> current[0].getCompanyId();
+                            case "getString" -> current[0].getCompanyName();
+                            default -> throw new UnsupportedOperationException(method.getName());
+                        });
+                try {
+                    for (Company c : companies) {
+                        current[0] = c;
+                        handler.processRow(rs);
+                    }
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+    }
+
+    /** 登録済み企業名の索引（初回の current() で companies から作成し、以降は作り直さない） */
+    static ExistingCompanyNameIndex existingCompanyNameIndex(List<Company> companies) {
+        return new ExistingCompanyNameIndex(companyBulkRepository(companies), new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        });
+    }
+
+    /** 郵便番号マスタの表を固定で返す */
+    static ZipMasterIndex zipMasterIndex(ZipMasterTable table) {
+        return new ZipMasterIndex(null, new SimpleMeterRegistry()) {
+            @Override
+            public ZipMasterTable table() {
+                return table;
+            }
+        };
+    }
+
+    private static <T> List<T> retain(Collection<?> values, Set<T> existing) {
+        List<T> result = new ArrayList<>();
+        for (Object v : values) {
+            if (existing.contains(v)) {
+                @SuppressWarnings("unchecked")
+                T t = (T) v;
+                result.add(t);
+            }
+        }
+        return result;
+    }
+}
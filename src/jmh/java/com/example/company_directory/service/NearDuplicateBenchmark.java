@@ -0,0 +1,55 @@
+package com.example.company_directory.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.company_directory.BenchmarkData;
+import com.example.company_directory.dto.ImportRowDto;
+import com.example.company_directory.entity.Company;
+
+/**
+ * 類似企業名の検出（ファイル内 + 登録済み企業の索引との照合）。
+ * 既定はファイル 100,000行 × 登録済み 1,000,000件。1回の実行が長いため1回ごとの時間を測る。
+ * 登録済み企業名の索引は準備時に作成する（検証時に作り直さない状態の時間を測る）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class NearDuplicateBenchmark {
+
+    @Param({ "100000" })
+    public int rows;
+
+    @Param({ "1000000" })
+    public int existing;
+
+    private ImportNearDuplicateDetector detector;
+    private List<ImportRowDto> importRows;
+
+    @Setup
+    public void setUp() {
+        List<Company> companies = BenchmarkData.companies(existing);
+        ExistingCompanyNameIndex index = InMemoryRepositories.existingCompanyNameIndex(companies);
+        index.current();
+        detector = new ImportNearDuplicateDetector(index, true, 0.8);
+        importRows = BenchmarkData.importRows(rows, existing);
+    }
+
+    @Benchmark
+    public ImportNearDuplicates detect() {
+        return detector.detect(importRows);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.company_directory.util;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.example.company_directory.BenchmarkData;
+
+/**
+ * 登録日の解釈。
+ * legacy は DateHelper 導入前の方式（形式ごとに DateTimeFormatter を作り、例外で次の形式を試す）で、比較の基準として残す。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DateParseBenchmark {
+
+    private static final int INPUTS = 10_000;
+
+    private static final String[] LEGACY_PATTERNS = {
+            "yyyy-MM-dd", "yyyy/MM/dd", "yyyy-M-d", "yyyy/M/d", "yyyy年MM月dd日",
+            "M/d/yy", "MM/dd/yy", "M/d/yyyy", "MM/dd/yyyy"
+    };
+
+    private String[] inputs;
+
+    @Setup
+    public void setUp() {
+        inputs = BenchmarkData.dateInputs(INPUTS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INPUTS)
+    public void dateHelper(Blackhole bh) {
+        for (String input : inputs) {
+            bh.consume(DateHelper.parseFlexible(input));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INPUTS)
+    public void legacy(Blackhole bh) {
+        for (String input : inputs) {
+            bh.consume(legacyParse(input));
+        }
+    }
+
+    private static LocalDate legacyParse(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            return null;
+        }
+        String t = text.trim();
+        for (String p : LEGACY_PATTERNS) {
+            try {
+                DateTimeFormatter f = DateTimeFormatter.ofPattern(p);
+                return LocalDate.parse(t, f);
+            } catch (DateTimeParseException ex) {
+                // 次の形式を試す
+            }
+        }
+        try {
+            return LocalDate.parse(t);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.company_directory.util;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.company_directory.BenchmarkData;
+import com.example.company_directory.dto.ImportRowDto;
+import com.example.company_directory.entity.Company;
+
+/**
+ * Excel の読み込み（インポート）と書き出し（エクスポート）。
+ * 読み込み対象は書き出しで作ったブック（No. 列・企業ID列を含む一覧と同じ形式）を使う。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExcelHelperBenchmark {
+
+    @Param({ "1000", "10000", "100000" })
+    public int rows;
+
+    private List<Company> companies;
+    private byte[] workbook;
+
+    @Setup
+    public void setUp() {
+        companies = BenchmarkData.companies(rows);
+        workbook = ExcelHelper.companiesToExcel(companies).readAllBytes();
+    }
+
+    @Benchmark
+    public List<ImportRowDto> parseExcel() {
+        return ExcelHelper.parseExcel(new ByteArrayInputStream(workbook));
+    }
+
+    @Benchmark
+    public int companiesToExcel() {
+        return ExcelHelper.companiesToExcel(companies).available();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.company_directory.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.company_directory.BenchmarkData;
+import com.example.company_directory.entity.Company;
+
+/**
+ * エクスポートの出力形式ごとの書き出し（DB取得後の値の配列 → 出力）。
+ * 出力先は書き込んだバイト数を数えるだけのストリームにし、形式ごとの書き出し処理だけを比べる。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExportWriterBenchmark {
+
+    @Param({ "10000", "100000" })
+    public int rows;
+
+    private List<ExportColumn> columns;
+    private List<Object[]> values;
+
+    @Setup
+    public void setUp() {
+        columns = ExportColumn.select(null);
+        values = new ArrayList<>(rows);
+        for (Company c : BenchmarkData.companies(rows)) {
+            Object[] v = new Object[columns.size()];
+            for (int i = 0; i < v.length; i++) {
+                v[i] = columns.get(i).valueOf(c);
+            }
+            values.add(v);
+        }
+    }
+
+    @Benchmark
+    public long xlsx() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        ExcelHelper.writeRows(columns, values, out);
+        return out.count;
+    }
+
+    @Benchmark
+    public long csv() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        CsvHelper.writeRows(columns, values, out, StandardCharsets.UTF_8);
+        return out.count;
+    }
+
+    @Benchmark
+    public long csvShiftJis() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        CsvHelper.writeRows(columns, values, out, ExportFormat.CSV_SHIFT_JIS.getCharset());
+        return out.count;
+    }
+
+    @Benchmark
+    public long csvGzip() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        GZIPOutputStream gzip = new GZIPOutputStream(out, 64 * 1024);
+        CsvHelper.writeRows(columns, values, gzip, StandardCharsets.UTF_8);
+        gzip.finish();
+        return out.count;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.company_directory.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.example.company_directory.BenchmarkData;
+
+/** 郵便番号の正規化（半角・全角数字・全角ハイフンが混ざった入力） */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ZipCodeBenchmark {
+
+    private static final int INPUTS = 10_000;
+
+    private String[] inputs;
+
+    @Setup
+    public void setUp() {
+        inputs = BenchmarkData.zipInputs(INPUTS);
+    }
+
+    /** 1件あたりの時間 */
+    @Benchmark
+    @OperationsPerInvocation(INPUTS)
+    public void normalizeZipCode(Blackhole bh) {
+        for (String input : inputs) {
+            bh.consume(ExcelHelper.normalizeZipCode(input));
+        }
+    }
+}
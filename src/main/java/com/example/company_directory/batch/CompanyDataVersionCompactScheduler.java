@@ -0,0 +1,31 @@
+package com.example.company_directory.batch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.company_directory.repository.CompanyBulkRepository;
+
+import lombok.RequiredArgsConstructor;
+
+@Component
+@RequiredArgsConstructor
+public class CompanyDataVersionCompactScheduler {
+    private static final Logger log = LoggerFactory.getLogger(CompanyDataVersionCompactScheduler.class);
+    private final CompanyBulkRepository companyBulkRepository;
+
+    /**
+     * 企業データの版数の記録（更新したトランザクションごとに1行）を1行にまとめる（既定は1時間おき）。
+     * 版数の値は変わらないため、作成済みのエクスポートの成果物はそのまま使える。
+     */
+    @Scheduled(fixedDelayString = "${app.export.data-version.compact-interval-ms:3600000}")
+    @Transactional
+    public void compactDataVersion() {
+        int removed = companyBulkRepository.compactDataVersion();
+        if (removed > 1) {
+            log.info("企業データの版数の記録をまとめました: {}行", removed);
+        }
+    }
+}
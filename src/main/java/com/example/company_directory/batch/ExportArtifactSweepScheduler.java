@@ -0,0 +1,29 @@
+package com.example.company_directory.batch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.company_directory.service.ExportArtifactStore;
+
+import lombok.RequiredArgsConstructor;
+
+@Component
+@RequiredArgsConstructor
+public class ExportArtifactSweepScheduler {
+    private static final Logger log = LoggerFactory.getLogger(ExportArtifactSweepScheduler.class);
+    private final ExportArtifactStore exportArtifactStore;
+
+    /**
+     * 保持期限を過ぎたエクスポートの成果物を削除する（既定は5分おき）。
+     * データが変わってキーが変わった古い成果物も、ここで消える。
+     */
+    @Scheduled(fixedDelayString = "${app.export.artifact.sweep-interval-ms:300000}")
+    public void sweepExpiredArtifacts() {
+        int removed = exportArtifactStore.sweepExpired();
+        if (removed > 0) {
+            log.info("期限切れのエクスポート成果物を削除しました: {}件", removed);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.company_directory.batch;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.company_directory.repository.ImportCheckpointRepository;
+import com.example.company_directory.service.ImportSessionStore;
+import com.example.company_directory.service.ImportUploadStore;
+
+import lombok.RequiredArgsConstructor;
+
+@Component
+@RequiredArgsConstructor
+public class ImportUploadSweepScheduler {
+    private static final Logger log = LoggerFactory.getLogger(ImportUploadSweepScheduler.class);
+    private final ImportUploadStore importUploadStore;
+    private final ImportSessionStore importSessionStore;
+    private final ImportCheckpointRepository importCheckpointRepository;
+
+    /**
+     * 保持期限を過ぎたアップロードファイルを削除する（既定は5分おき）。
+     * プレビューのまま放置されたファイルが残り続けないようにする。
+     * ファイルがなければ再開できないため、登録途中で止まった分割コミットのチェックポイントも削除する。
+     */
+    @Scheduled(fixedDelayString = "${app.import.upload.sweep-interval-ms:300000}")
+    @Transactional
+    public void sweepExpiredUploads() {
+        List<String> removed = importUploadStore.sweepExpired();
+        for (String name : removed) {
+            importSessionStore.remove(name);
+        }
+        if (!removed.isEmpty()) {
+            importCheckpointRepository.deleteByTempFileNameIn(removed);
+            log.info("期限切れ・削除済みのアップロードファイルを管理から外しました: {}件", removed.size());
+        }
+    }
+}
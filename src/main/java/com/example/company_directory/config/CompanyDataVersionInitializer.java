@@ -0,0 +1,50 @@
+package com.example.company_directory.config;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 企業データの版数（company_data_changes）の初期化。
+ * companies を変更したトランザクションごとに、トリガーでそのトランザクションIDの行を1行追加する。
+ * 画面・インポート（COPY / upsert）・ゴミ箱の自動削除など、どこから変更しても記録される。
+ *
+ * 版数は読み取る側のスナップショットで見える行の weight の合計（CompanyBulkRepository.currentDataVersion）。
+ * 後のスナップショットほど見えるコミット済みの変更が増えるだけなので、データが変われば必ず値も変わる。
+ * 行はトランザクションごとに別なので、書き込むトランザクションどうしが同じ行のロックを待つことはない
+ * （1行の版数を UPDATE すると、複数の文で companies を更新するトランザクションと画面の更新がデッドロックし得る）。
+ * 増えた行は CompanyDataVersionCompactScheduler が合計を変えずに1行にまとめる
+ * （テーブル作成後に実行するため entityManagerFactory に依存）。
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class CompanyDataVersionInitializer implements InitializingBean {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterPropertiesSet() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS company_data_changes ("
+                + "xid bigint PRIMARY KEY, "
+                + "weight bigint NOT NULL DEFAULT 1)");
+
+        // 同じトランザクションの2文目以降は自分の行と重なるだけで、他のトランザクションとは競合しない
+        jdbcTemplate.execute("CREATE OR REPLACE FUNCTION bump_company_data_version() RETURNS trigger AS $$ "
+                + "BEGIN "
+                + "INSERT INTO company_data_changes (xid) VALUES (txid_current()) ON CONFLICT (xid) DO NOTHING; "
+                + "RETURN NULL; "
+                + "END; $$ LANGUAGE plpgsql");
+        // 行ごとではなく文ごとに1回（一括登録でも追加は1回で済む）
+        jdbcTemplate.execute("DROP TRIGGER IF EXISTS companies_data_version ON companies");
+        jdbcTemplate.execute("CREATE TRIGGER companies_data_version "
+                + "AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON companies "
+                + "FOR EACH STATEMENT EXECUTE FUNCTION bump_company_data_version()");
+
+        // 以前の1行で管理していた版数表（トリガーから参照しなくなったため削除）
+        jdbcTemplate.execute("DROP TABLE IF EXISTS company_data_version");
+    }
+}
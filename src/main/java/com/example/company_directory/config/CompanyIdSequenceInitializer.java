@@ -0,0 +1,45 @@
+package com.example.company_directory.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.company_directory.entity.Company;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 企業IDシーケンス(company_id_seq)の初期化。
+ * 以前は IDENTITY 列で採番していたため、既存データの最大IDより後から採番されるよう
+ * 起動時にシーケンスを進めておく（テーブル作成後に実行するため entityManagerFactory に依存）。
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class CompanyIdSequenceInitializer implements InitializingBean {
+    private static final Logger log = LoggerFactory.getLogger(CompanyIdSequenceInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterPropertiesSet() {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS company_id_seq START WITH 1 INCREMENT BY "
+                + Company.ID_ALLOCATION_SIZE);
+
+        // pooled 方式では nextval の値 v に対して (v - 増分, v] を使うため、
+        // 次の nextval が「最大ID + 増分」以上になるように合わせる
+        Integer maxId = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(company_id), 0) FROM companies", Integer.class);
+        Long lastValue = jdbcTemplate.queryForObject(
+                "SELECT last_value FROM company_id_seq", Long.class);
+
+        if (maxId != null && lastValue != null && lastValue < maxId + Company.ID_ALLOCATION_SIZE) {
+            jdbcTemplate.queryForObject("SELECT setval('company_id_seq', ?, false)", Long.class,
+                    (long) maxId + Company.ID_ALLOCATION_SIZE);
+            log.info("企業IDシーケンスを調整しました: 最大ID = {}", maxId);
+        }
+    }
+}
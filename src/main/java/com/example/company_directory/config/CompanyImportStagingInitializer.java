@@ -0,0 +1,35 @@
+package com.example.company_directory.config;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * COPY による一括登録（CompanyBulkRepository.copyLoad）で使うステージング表の作成。
+ * 取り込みのトランザクション内で作成すると、そのトランザクションがロールバックした場合に表も消えるため、
+ * 起動時に自動コミットで作成しておく。
+ */
+@Component
+@RequiredArgsConstructor
+public class CompanyImportStagingInitializer implements InitializingBean {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterPropertiesSet() {
+        // WALを書かない UNLOGGED 表（中身は取り込み中のトランザクション内でしか使わない）
+        jdbcTemplate.execute("CREATE UNLOGGED TABLE IF NOT EXISTS companies_import_staging ("
+                + "load_id uuid NOT NULL, "
+                + "line_no integer NOT NULL, "
+                + "company_id integer, "
+                + "company_name varchar(100), "
+                + "address varchar(200), "
+                + "zip_code varchar(8), "
+                + "remarks text, "
+                + "registration_date date)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS companies_import_staging_load_id_idx "
+                + "ON companies_import_staging (load_id)");
+    }
+}
@@ -1,14 +1,22 @@
 package com.example.company_directory.controller;
 
-import java.io.InputStream;
-
-import org.springframework.core.io.InputStreamResource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -21,22 +29,30 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import com.example.company_directory.entity.Company;
+import com.example.company_directory.entity.ExportJob;
 import com.example.company_directory.form.CompanyForm;
 import com.example.company_directory.form.CompanySearchForm;
 import com.example.company_directory.form.ExportForm;
 import com.example.company_directory.service.CompanyService;
+import com.example.company_directory.service.ExportJobService;
+import com.example.company_directory.util.ExportFormat;
 
 @Controller
 @RequestMapping("/companies")
 public class CompanyController {
+    private static final Logger log = LoggerFactory.getLogger(CompanyController.class);
 
     private final CompanyService companyService;
+    private final ExportJobService exportJobService;
 
-    public CompanyController(CompanyService companyService) {
+    public CompanyController(CompanyService companyService, ExportJobService exportJobService) {
         this.companyService = companyService;
+        this.exportJobService = exportJobService;
     }
 
     @GetMapping
@@ -175,31 +191,90 @@ public class CompanyController {
         }
     }
 
+    /**
+     * エクスポート（xlsx / CSV、CSV は gzip 圧縮も可）。
+     * ファイルはメモリ上に作らず、レスポンスに直接書き出す（書き出しはリクエストスレッドとは別のスレッドで行う）。
+     */
     @PostMapping("/export")
-    public ResponseEntity<InputStreamResource> export(@ModelAttribute ExportForm form) {
-        try {
-            InputStream inputStream = companyService.exportExcel(form);
-
-            HttpHeaders headers = new HttpHeaders();
-            String filename = (form.getFileName() != null && !form.getFileName().isEmpty())
-                    ? form.getFileName()
-                    : "companies";
-            if (!filename.endsWith(".xlsx")) {
-                filename += ".xlsx";
+    public ResponseEntity<StreamingResponseBody> export(@ModelAttribute ExportForm form) {
+        ExportFormat format = form.toExportFormat();
+        boolean gzip = form.isGzipped();
+
+        HttpHeaders headers = new HttpHeaders();
+        String filename = form.toDownloadFileName();
+
+        // Encode filename for browser compatibility if needed, but for now simple
+        headers.add("Content-Disposition", "attachment; filename=\"" + filename + "\"");
+
+        StreamingResponseBody body = out -> {
+            try {
+                companyService.export(form, out);
+            } catch (IOException | RuntimeException e) {
+                // ヘッダー送信後のためエラー応答は返せない（ダウンロードは途中で終わる）
+                log.error("エクスポート中にエラーが発生しました", e);
+                throw e;
             }
+        };
 
-            // Encode filename for browser compatibility if needed, but for now simple
-            headers.add("Content-Disposition", "attachment; filename=\"" + filename + "\"");
+        return ResponseEntity.ok()
+                .headers(headers)
+                .contentType(MediaType.parseMediaType(format.contentType(gzip)))
+                .body(body);
+    }
 
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .contentType(MediaType.parseMediaType(
-                            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                    .body(new InputStreamResource(inputStream));
-        } catch (Exception e) {
-            e.printStackTrace(); // Log error
-            return ResponseEntity.internalServerError().build();
+    /**
+     * エクスポートジョブの登録（成果物をサーバーで作成し、完了後にダウンロードする）。
+     * 同じ内容の成果物がデータ変更前に作成済みであれば、完了した状態のジョブが返る。
+     */
+    @PostMapping("/export/jobs")
+    @ResponseBody
+    public ResponseEntity<ExportJob> submitExportJob(@ModelAttribute ExportForm form) {
+        ExportJob job = exportJobService.submit(form);
+        if (job.getStatus() == ExportJob.Status.FAILED) {
+            // 実行待ちが上限に達している
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(job);
+        }
+        return ResponseEntity.accepted().body(job);
+    }
+
+    // ジョブの状態（画面からポーリングする）
+    @GetMapping("/export/jobs/{jobId}")
+    @ResponseBody
+    public ResponseEntity<ExportJob> exportJobStatus(@PathVariable("jobId") String jobId) {
+        return exportJobService.findJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * 完了したジョブの成果物のダウンロード。
+     * ETag は成果物のキャッシュキー（データが変わると変わる）で、If-None-Match が一致すれば 304 を返す。
+     */
+    @GetMapping("/export/jobs/{jobId}/download")
+    public ResponseEntity<Resource> downloadExport(@PathVariable("jobId") String jobId) {
+        ExportJob job = exportJobService.findJob(jobId).orElse(null);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (job.getStatus() != ExportJob.Status.SUCCEEDED) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        Path artifact = exportJobService.findArtifact(job).orElse(null);
+        if (artifact == null) {
+            // 保持期限切れで削除済み（再度エクスポートする）
+            return ResponseEntity.status(HttpStatus.GONE).build();
         }
 
+        ExportFormat format = ExportFormat.valueOf(job.getFormat());
+        // If-None-Match の判定は ResponseEntity の ETag を使ってフレームワークが行う
+        return ResponseEntity.ok()
+                .eTag(job.getCacheKey())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(job.getFileName(), StandardCharsets.UTF_8)
+                        .build()
+                        .toString())
+                .contentType(MediaType.parseMediaType(format.contentType(job.isGzip())))
+                .body(new FileSystemResource(artifact));
     }
 }
@@ -2,50 +2,66 @@ package com.example.company_directory.controller;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.Locale;
 
 import org.springframework.core.io.InputStreamResource;
-import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import com.example.company_directory.dto.ImportPreviewDto;
+import com.example.company_directory.dto.ImportPreviewRowDto;
 import com.example.company_directory.dto.ImportResultDto;
+import com.example.company_directory.dto.ImportRowFilter;
 import com.example.company_directory.dto.ImportRowDto;
+import com.example.company_directory.entity.ImportJob;
 import com.example.company_directory.service.ExcelImportService;
+import com.example.company_directory.service.ImportJobService;
+import com.example.company_directory.service.ImportUploadStore;
 import com.example.company_directory.util.ExcelHelper;
+import com.example.company_directory.util.ImportFileType;
 
 @Controller
 @RequestMapping("/companies")
 public class ImportController {
 
+    // プレビュー表1ページの最大件数
+    private static final int MAX_PREVIEW_PAGE_SIZE = 500;
+
     private final ExcelImportService excelImportService;
+    private final ImportJobService importJobService;
+    private final ImportUploadStore importUploadStore;
 
-    public ImportController(ExcelImportService excelImportService) {
+    public ImportController(ExcelImportService excelImportService, ImportJobService importJobService,
+            ImportUploadStore importUploadStore) {
         this.excelImportService = excelImportService;
+        this.importJobService = importJobService;
+        this.importUploadStore = importUploadStore;
     }
 
     @GetMapping("/import")
-    public String upload(@RequestParam(name = "error", required = false) String error, Model model) {
+    public String upload(@RequestParam(name = "error", required = false) String error,
+            @RequestParam(name = "jobId", required = false) String jobId, Model model) {
         if ("session".equals(error)) {
             model.addAttribute("errorMessage", "セッションが切れました。再度ファイルをアップロードしてください。");
         }
+        // 実行中のジョブがあれば進捗を表示する
+        if (jobId != null) {
+            importJobService.findJob(jobId).ifPresent(job -> model.addAttribute("importJob", job));
+        }
         return "companies/import";
     }
 
@@ -58,30 +74,20 @@ public class ImportController {
                 return "companies/import";
             }
             // ファイル名、拡張子が正しくない場合
-            String fileName = file.getOriginalFilename();
-            if (fileName == null || !fileName.endsWith(".xlsx")) {
-                model.addAttribute("errorMessage", "Excelファイル(.xlsx)のみアップロード可能です。");
+            ImportFileType fileType = ImportFileType.fromFileName(file.getOriginalFilename());
+            if (fileType == null) {
+                model.addAttribute("errorMessage",
+                        "Excelファイル(.xlsx)またはCSV/TSVファイル(.csv, .tsv, .csv.gz, .tsv.gz)のみアップロード可能です。");
                 return "companies/import";
             }
 
-            // ファイルを一時フォルダに保存する
-            // ファイル名が被らないようにUUIDを使う
-            String tempFileName = UUID.randomUUID().toString() + ".xlsx";
-            Path tempDir = Paths.get(System.getProperty("java.io.tmpdir")); // OSの一時フォルダ
-            Path tempFilePath = tempDir.resolve(tempFileName);
-
-            // ファイルをコピー配置
-            Files.copy(file.getInputStream(), tempFilePath, StandardCopyOption.REPLACE_EXISTING);
-
-            // Excel を解析して結果を model に詰める（一時ファイルから読み込む）
-            try (InputStream inputStream = Files.newInputStream(tempFilePath)) {
-                ImportResultDto result = excelImportService.importExcel(inputStream);
-                model.addAttribute("importResult", result);
-            }
-            model.addAttribute("tempFileName", tempFileName);
+            // ファイルを一時保存領域に移す
+            // （保存名は UUID + 拡張子。拡張子で検証時の読み取り方法を決める）
+            String tempFileName = importUploadStore.store(file, fileType);
 
-            // 同じ画面に戻してプレビューを表示
-            return "companies/import";
+            // 検証はバックグラウンドで行い、画面は進捗をポーリングする
+            ImportJob job = importJobService.submitValidation(tempFileName);
+            return "redirect:/companies/import?jobId=" + job.getJobId();
         } catch (IOException e) {
             model.addAttribute("errorMessage", "アップロードしたファイルの読み込みに失敗しました。");
             return "companies/import";
@@ -94,81 +100,119 @@ public class ImportController {
         }
     }
 
-    // ★追加: 確定登録実行
-    @PostMapping("/import/execute")
-    public String executeImport(@RequestParam("tempFileName") String tempFileName,
-            @RequestParam(name = "mode", defaultValue = "all") String mode, Model model,
-            RedirectAttributes redirectAttributes) {
-        ImportResultDto result = null;
+    // 検証ジョブ完了後のプレビュー表示
+    @GetMapping("/import/preview")
+    public String preview(@RequestParam("tempFileName") String tempFileName, Model model) {
         try {
-            // 1. 一時ファイルのパスを取得
-            Path tempDir = Paths.get(System.getProperty("java.io.tmpdir"));
-            Path tempFilePath = tempDir.resolve(tempFileName);
-
-            // ファイルが存在するかチェック
-            if (!Files.exists(tempFilePath)) {
+            ImportResultDto result = importJobService.loadResult(tempFileName);
+            if (result == null) {
                 return "redirect:/companies/import?error=session";
             }
+            model.addAttribute("importResult", result);
+            model.addAttribute("tempFileName", tempFileName);
+            // 分割コミットが途中で止まっていれば、再開位置を表示する
+            model.addAttribute("checkpoint", importJobService.findInProgressCheckpoint(tempFileName));
+        } catch (IOException e) {
+            model.addAttribute("errorMessage", "アップロードしたファイルの読み込みに失敗しました。");
+        } catch (RuntimeException e) {
+            model.addAttribute("errorMessage", e.getMessage());
+        }
+        return "companies/import";
+    }
 
-            // 2. 再度解析して、成功データだけを取り出す
-            // (メモリ節約のため、ここで再解析するのが安全です)
-            try (InputStream is = Files.newInputStream(tempFilePath)) {
-                result = excelImportService.importExcel(is);
-            }
-
-            // 2. 登録対象の選定
-            List<ImportRowDto> targetList;
-
-            if ("strict".equals(mode)) {
-                // 正常データのみ（警告なし）
-                targetList = result.getSuccessList();
-            } else {
-                // 正常 + 警告
-                targetList = result.getTotalList().stream()
-                        .filter(row -> !row.isHasError()) // エラー除外
-                        .toList();
-            }
-
-            // 3. DB保存
-            if (targetList.isEmpty()) {
-                model.addAttribute("errorMessage", "登録対象のデータがありません。");
-                model.addAttribute("importResult", result);
-                model.addAttribute("tempFileName", tempFileName);
-                return "companies/import"; // 画面に戻る
-            }
+    // プレビュー表の1ページ分（画面は表示するページだけを取得する）
+    @GetMapping("/import/preview/rows")
+    @ResponseBody
+    public ResponseEntity<ImportPreviewDto> previewRows(@RequestParam("tempFileName") String tempFileName,
+            @RequestParam(name = "filter", defaultValue = "all") String filter,
+            @RequestParam(name = "page", defaultValue = "0") int page,
+            @RequestParam(name = "size", defaultValue = "100") int size) throws IOException {
+        ImportRowFilter rowFilter = ImportRowFilter.fromParam(filter);
+        if (rowFilter == null || page < 0 || size < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        size = Math.min(size, MAX_PREVIEW_PAGE_SIZE);
 
-            excelImportService.saveValidData(targetList);
+        ImportResultDto result = importJobService.loadResult(tempFileName);
+        if (result == null) {
+            return ResponseEntity.notFound().build();
+        }
 
-            // 4. 後始末（一時ファイルを削除）
-            Files.deleteIfExists(tempFilePath);
+        int totalRows = result.count(rowFilter);
+        ImportPreviewDto dto = new ImportPreviewDto();
+        dto.setFilter(rowFilter.name().toLowerCase(Locale.ROOT));
+        dto.setPage(page);
+        dto.setSize(size);
+        dto.setTotalRows(totalRows);
+        dto.setTotalPages((totalRows + size - 1) / size);
+        dto.setRows(result.page(rowFilter, page, size).stream()
+                .map(ImportPreviewRowDto::from)
+                .toList());
+        return ResponseEntity.ok(dto);
+    }
 
-            // ここはモーダルウィンドウで結果表示をする
-            // 5. 完了画面（または一覧）へリダイレクト
-            redirectAttributes.addFlashAttribute("message", targetList.size() + "件のデータを登録しました。");
-            return "redirect:/companies";
+    // 確定登録の確認画面に出す対象行番号（mode: all / strict、target: insert / update / excluded）
+    // ページに埋め込むと大きなファイルでは HTML が肥大化するため、確認画面を開いたときに取得する
+    @GetMapping("/import/preview/row-nums")
+    @ResponseBody
+    public ResponseEntity<List<Integer>> previewRowNums(@RequestParam("tempFileName") String tempFileName,
+            @RequestParam(name = "mode", defaultValue = "all") String mode,
+            @RequestParam("target") String target) throws IOException {
+        ImportResultDto result = importJobService.loadResult(tempFileName);
+        if (result == null) {
+            return ResponseEntity.notFound().build();
+        }
 
-            // 後でエラー処理を追加
-        } catch (IOException e) {
-            model.addAttribute("errorMessage", "ファイルの読み込みに失敗しました。");
+        boolean strict = "strict".equals(mode);
+        List<Integer> rowNums = switch (target) {
+            case "insert" -> strict ? result.getStrictInsertRows() : result.getAllInsertRows();
+            case "update" -> strict ? result.getStrictUpdateRows() : result.getAllUpdateRows();
+            case "excluded" -> strict ? result.getStrictExcludedRows() : result.getAllExcludedRows();
+            default -> null;
+        };
+        if (rowNums == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(rowNums);
+    }
 
-        } catch (DataIntegrityViolationException e) {
-            model.addAttribute("errorMessage",
-                    "データの重複が検出されました。既に登録されているデータがあります。");
+    // ★追加: 確定登録実行（バックグラウンドジョブとして登録し、進捗画面へ）
+    @PostMapping("/import/execute")
+    public String executeImport(@RequestParam("tempFileName") String tempFileName,
+            @RequestParam(name = "mode", defaultValue = "all") String mode) {
+        ImportJob job = importJobService.submitCommit(tempFileName, mode);
+        return "redirect:/companies/import?jobId=" + job.getJobId();
+    }
 
-        } catch (RuntimeException e) {
-            model.addAttribute("errorMessage",
-                    e.getMessage() != null ? e.getMessage() : "データの解析に失敗しました。");
+    // ジョブの状態（画面からポーリングする）
+    @GetMapping("/import/jobs/{jobId}")
+    @ResponseBody
+    public ResponseEntity<ImportJob> jobStatus(@PathVariable("jobId") String jobId) {
+        return importJobService.findJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
 
-        } catch (Exception e) {
-            model.addAttribute("errorMessage", "予期しないエラーが発生しました。");
+    // 確定登録ジョブの完了後、結果メッセージを付けて一覧へ
+    @GetMapping("/import/jobs/{jobId}/complete")
+    public String completeJob(@PathVariable("jobId") String jobId, RedirectAttributes redirectAttributes) {
+        ImportJob job = importJobService.findJob(jobId).orElse(null);
+        if (job == null || job.getStatus() != ImportJob.Status.SUCCEEDED) {
+            return "redirect:/companies/import" + (job != null ? "?jobId=" + jobId : "");
         }
-
-        // 共通の再表示処理
-        if (result != null) {
-            model.addAttribute("importResult", result);
-            model.addAttribute("tempFileName", tempFileName);
+        if (job.getJobType() == ImportJob.JobType.VALIDATE) {
+            return "redirect:/companies/import/preview?tempFileName=" + job.getTempFileName();
         }
-        return "companies/import";
+        redirectAttributes.addFlashAttribute("successMessage",
+                (job.getInsertedCount() + job.getUpdatedCount()) + "件のデータを登録しました。（新規 "
+                        + job.getInsertedCount() + "件 / 更新 " + job.getUpdatedCount() + "件"
+                        + (job.getUnchangedCount() > 0 ? " / 変更なし " + job.getUnchangedCount() + "件" : "")
+                        + (job.getSkippedCount() > 0 ? " / 警告のため対象外 " + job.getSkippedCount() + "件" : "")
+                        + (job.getFailedCount() > 0 ? " / エラー・登録失敗 " + job.getFailedCount() + "件" : "") + "）");
+        if (job.getWarningMessage() != null) {
+            redirectAttributes.addFlashAttribute("errorMessage", job.getWarningMessage());
+        }
+        return "redirect:/companies";
     }
 
     @PostMapping("/import/download")
@@ -176,10 +220,11 @@ public class ImportController {
             @RequestParam("tempFileName") String tempFileName,
             @RequestParam("target") String target) throws IOException {
 
-        // 1. 一時ファイル読み込み＆解析
-        Path tempFilePath = Paths.get(System.getProperty("java.io.tmpdir"), tempFileName);
-        InputStream is = Files.newInputStream(tempFilePath);
-        ImportResultDto result = excelImportService.importExcel(is);
+        // 1. プレビュー時の解析結果を取得（キャッシュから外れていれば再解析）
+        ImportResultDto result = importJobService.loadResult(tempFileName);
+        if (result == null) {
+            return ResponseEntity.notFound().build();
+        }
 
         // 2. ダウンロード対象のフィルタリング
         List<ImportRowDto> exportList = new ArrayList<>();
@@ -187,7 +232,7 @@ public class ImportController {
         if ("error".equals(target) || "both".equals(target)) {
             // エラー分を追加
             exportList.addAll(result.getTotalList().stream()
-                    .filter(row -> row.getErrorMessages() != null && !row.getErrorMessages().isEmpty())
+                    .filter(ImportRowDto::isHasError)
                     .toList());
         }
 
@@ -2,11 +2,14 @@ package com.example.company_directory.controller.api;
 
 import com.example.company_directory.entity.ZipMaster;
 import com.example.company_directory.repository.ZipMasterRepository;
+import com.example.company_directory.service.ZipMasterIndex;
+import com.example.company_directory.util.ZipMasterTable;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController // HTMLではなくJSONを返すコントローラー
 @RequestMapping("/api/zip")
@@ -14,6 +17,7 @@ import java.util.List;
 public class ZipApiController {
 
     private final ZipMasterRepository zipMasterRepository;
+    private final ZipMasterIndex zipMasterIndex;
 
     /**
      * 郵便番号から住所を取得
@@ -24,15 +28,29 @@ public class ZipApiController {
         // ハイフン除去
         String cleanZip = zipCode.replace("-", "");
 
-        ZipMaster master = zipMasterRepository.findByZipCode(cleanZip);
+        // メモリ上のインデックスから検索（DBには問い合わせない）
+        ZipMasterTable table = zipMasterIndex.table();
+        int idx = table.indexOf(cleanZip);
 
-        if (master != null) {
-            return ResponseEntity.ok(master);
+        if (idx >= 0) {
+            return ResponseEntity.ok(table.toZipMaster(idx));
         } else {
             return ResponseEntity.notFound().build();
         }
     }
 
+    /**
+     * 郵便番号インデックスの再読み込み（マスタ更新後に実行）
+     * POST /api/zip/refresh
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<Map<String, Object>> refresh() {
+        ZipMasterTable table = zipMasterIndex.refresh();
+        return ResponseEntity.ok(Map.of(
+                "entries", table.size(),
+                "estimatedBytes", table.estimatedBytes()));
+    }
+
     /**
      * 住所から郵便番号を検索
      * GET /api/zip/search?keyword=丸の内
@@ -0,0 +1,21 @@
+package com.example.company_directory.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class ImportCommitResultDto {
+    private int insertedCount; // 新規登録した件数
+    private int updatedCount;  // 更新した件数
+    private List<ImportErrorDto> failedRows = new ArrayList<>(); // 登録できなかった行（分割コミットのみ）
+
+    public int getTotalCount() {
+        return insertedCount + updatedCount;
+    }
+
+    public int getFailedCount() {
+        return failedRows.size();
+    }
+}
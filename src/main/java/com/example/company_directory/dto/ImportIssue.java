@@ -0,0 +1,120 @@
+package com.example.company_directory.dto;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.company_directory.util.ZipMasterTable;
+
+/**
+ * インポート行の問題1件（種類 + 文言の組み立てに使う引数）。
+ *
+ * 引数のないものは種類ごとに1つのインスタンスを共有し、行ごとには作らない。
+ * 引数もファイル全体で共有しているもの（重複グループの行番号リスト、郵便番号マスタの表）を参照するだけにして、
+ * 行ごとに文字列を持たないようにする。
+ */
+public final class ImportIssue {
+
+    /** 問題のない行で共有する空配列 */
+    public static final ImportIssue[] NONE = new ImportIssue[0];
+
+    private static final Map<ImportIssueCode, ImportIssue> SHARED = new EnumMap<>(ImportIssueCode.class);
+
+    static {
+        for (ImportIssueCode code : ImportIssueCode.values()) {
+            SHARED.put(code, new ImportIssue(code, null));
+        }
+    }
+
+    /** 郵便番号マスタ上の位置（マスタの表は検証時点のものを参照する） */
+    public record ZipRef(ZipMasterTable table, int index) {
+    }
+
+    /** 登録済み企業の企業ID（行番号と違い、表示時に除くものはない） */
+    public record CompanyIds(List<Integer> ids) {
+    }
+
+    private final ImportIssueCode code;
+    private final Object arg;
+
+    private ImportIssue(ImportIssueCode code, Object arg) {
+        this.code = code;
+        this.arg = arg;
+    }
+
+    public static ImportIssue of(ImportIssueCode code) {
+        return SHARED.get(code);
+    }
+
+    /** ファイル内の重複（lines はグループ全体の行番号。表示時に自分の行を除く） */
+    public static ImportIssue duplicate(ImportIssueCode code, List<Integer> lines) {
+        return new ImportIssue(code, lines);
+    }
+
+    /** 登録済み企業の企業IDを文言に含めるもの */
+    public static ImportIssue companyIds(ImportIssueCode code, List<Integer> ids) {
+        return new ImportIssue(code, new CompanyIds(ids));
+    }
+
+    /** 郵便番号マスタの内容を文言に含めるもの */
+    public static ImportIssue zip(ImportIssueCode code, ZipMasterTable table, int index) {
+        return new ImportIssue(code, new ZipRef(table, index));
+    }
+
+    public ImportIssueCode getCode() {
+        return code;
+    }
+
+    /** 表示用の文言を組み立てる */
+    @SuppressWarnings("unchecked")
+    public String message(ImportRowDto row) {
+        if (arg instanceof List<?> lines) {
+            return String.format(code.getTemplate(), joinOtherLines((List<Integer>) lines, row.getRowNum()));
+        }
+        if (arg instanceof CompanyIds companyIds) {
+            return String.format(code.getTemplate(), joinIds(companyIds.ids()));
+        }
+        if (arg instanceof ZipRef ref) {
+            return String.format(code.getTemplate(), row.getZipCode(),
+                    ref.table().city(ref.index()) + ref.table().prefecture(ref.index()),
+                    ref.table().town(ref.index()));
+        }
+        return code.getTemplate();
+    }
+
+    /** 問題の一覧を文言の一覧にする */
+    public static List<String> messages(ImportIssue[] issues, ImportRowDto row) {
+        List<String> messages = new ArrayList<>(issues.length);
+        for (ImportIssue issue : issues) {
+            messages.add(issue.message(row));
+        }
+        return messages;
+    }
+
+    private static String joinIds(List<Integer> ids) {
+        StringBuilder sb = new StringBuilder();
+        for (Integer id : ids) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(id);
+        }
+        return sb.toString();
+    }
+
+    /** 自分以外の行番号を「, 」区切りにする */
+    private static String joinOtherLines(List<Integer> lines, int ownRowNum) {
+        StringBuilder sb = new StringBuilder();
+        for (Integer rn : lines) {
+            if (rn == ownRowNum) {
+                continue;
+            }
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(rn);
+        }
+        return sb.toString();
+    }
+}
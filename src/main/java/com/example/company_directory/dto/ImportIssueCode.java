@@ -0,0 +1,50 @@
+package com.example.company_directory.dto;
+
+/**
+ * インポート検証で見つかった問題の種類。
+ * 行には種類（と必要な引数）だけを持たせ、文言は表示・出力するときに組み立てる。
+ * 文言に引数を埋め込むものは ImportIssue.message で組み立てる。
+ */
+public enum ImportIssueCode {
+
+    // ======== エラー ========
+    REQUIRED_COMPANY_NAME("エラー：必須項目が空欄です：企業名を入力してください。"),
+    REQUIRED_ZIP_CODE("エラー：必須項目が空欄です：郵便番号を入力してください。"),
+    REQUIRED_ADDRESS("エラー：必須項目が空欄です：住所を入力してください。"),
+    COMPANY_ID_NOT_DIGITS("エラー：企業IDが正しい形式ではありません（半角数字のみ）。"),
+    COMPANY_ID_DUPLICATE_IN_FILE("エラー：同一ファイル内で企業IDが重複しています。"),
+    COMPANY_ID_NOT_FOUND("エラー：企業IDが未登録のため更新できません。"),
+    COMPANY_ID_NOT_INTEGER("エラー：企業IDは数値（整数）で入力してください。"),
+    COMPANY_ID_NOT_POSITIVE("エラー：企業IDは1以上の数値を指定してください。"),
+    ZIP_CODE_FORMAT("エラー：郵便番号の形式が不正です（例：123-4567）。"),
+    REGISTRATION_DATE_FORMAT("エラー：データ形式が不正です：日付として認識できません。"),
+    COMPANY_NAME_TOO_LONG("エラー：企業名の文字数が上限（100文字）を超えています。"),
+    ADDRESS_TOO_LONG("エラー：住所の文字数が上限（200文字）を超えています。"),
+    ZIP_CODE_TOO_LONG("エラー：郵便番号の文字数が上限（8文字）を超えています。"),
+    REMARKS_TOO_LONG("エラー：項目の文字数が上限を超えています（備考は1000文字まで）。"),
+
+    // ======== 警告 ========
+    DUPLICATE_NAME_IN_FILE("警告：アップロードデータ内で同名の企業が複数あります。（%s行目）"),
+    DUPLICATE_ADDRESS_IN_FILE("警告：アップロードデータ内で同じ住所が複数あります。（%s行目）"),
+    EXISTING_NAME("警告：同名の企業が既に登録されています。"),
+    EXISTING_ADDRESS("警告：既存企業と住所が一致しています。登録済みデータの可能性があります。"),
+    NEAR_DUPLICATE_NAME_IN_FILE("警告：アップロードデータ内に類似した企業名があります。（%s行目）"),
+    NEAR_DUPLICATE_NAME_EXISTING("警告：類似した企業名が既に登録されています。（企業ID：%s）"),
+    NEAR_DUPLICATE_CHECK_TRUNCATED("警告：似た企業名が多数あるため、類似企業名の確認を一部省略しました。"),
+    FUTURE_REGISTRATION_DATE("警告：登録日が未来の日付になっています。"),
+    SHORT_ADDRESS("警告：住所が極端に短いため、番地などの入力漏れの可能性があります。"),
+    ZIP_CODE_NOT_FOUND("警告：郵便番号が存在しません "),
+    ZIP_CITY_MISMATCH("警告：住所と郵便番号が一致しない可能性があります（郵便番号 %s は %s%s です）。"),
+    ZIP_TOWN_MISMATCH("警告：町名が郵便番号の情報と一致していません。");
+
+    private final String template;
+
+    ImportIssueCode(String template) {
+        this.template = template;
+    }
+
+    /** 文言（引数を埋め込むものは String.format の書式） */
+    public String getTemplate() {
+        return template;
+    }
+}
@@ -1,5 +1,18 @@
 package com.example.company_directory.dto;
 
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * プレビュー表の1ページ分（GET /companies/import/preview/rows の応答）。
+ */
+@Data
 public class ImportPreviewDto {
-    
+    private String filter;      // 絞り込み条件（all / success / warning / error / insert / update / unchanged）
+    private int page;           // ページ番号（0始まり）
+    private int size;           // 1ページの件数
+    private int totalRows;      // 条件に合う行数
+    private int totalPages;
+    private List<ImportPreviewRowDto> rows;
 }
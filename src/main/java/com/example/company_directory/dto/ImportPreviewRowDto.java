@@ -0,0 +1,42 @@
+package com.example.company_directory.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * プレビュー表の1行。エラー・警告の文言はこの時点で組み立てる。
+ */
+@Data
+public class ImportPreviewRowDto {
+    private int rowNum;
+    private String companyId;
+    private String companyName;
+    private String address;
+    private String zipCode;
+    private String registrationDate;
+    private String remarks;
+    private String status;        // success / warning / error
+    private String operationType; // 新規 / 更新 / 変更なし（エラー行は null）
+    private List<String> messages; // エラーがあればエラー、なければ警告
+
+    public static ImportPreviewRowDto from(ImportRowDto row) {
+        ImportPreviewRowDto dto = new ImportPreviewRowDto();
+        dto.setRowNum(row.getRowNum());
+        dto.setCompanyId(row.getCompanyId());
+        dto.setCompanyName(row.getCompanyName());
+        dto.setAddress(row.getAddress());
+        dto.setZipCode(row.getZipCode());
+        dto.setRegistrationDate(row.getRegistrationDate());
+        dto.setRemarks(row.getRemarks());
+        if (row.isHasError()) {
+            dto.setStatus("error");
+            dto.setMessages(row.getErrorMessages());
+        } else {
+            dto.setStatus(row.isHasWarning() ? "warning" : "success");
+            dto.setOperationType(row.isUnchanged() ? "変更なし" : row.getOperationType());
+            dto.setMessages(row.getWarningMessages());
+        }
+        return dto;
+    }
+}
@@ -3,107 +3,120 @@ package com.example.company_directory.dto;
 import java.util.ArrayList;
 import java.util.List;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 @Data
 public class ImportResultDto {
     private List<ImportRowDto> totalList = new ArrayList<>();
     private List<ImportRowDto> successList = new ArrayList<>();
-    private List<ImportErrorDto> errorList = new ArrayList<>();
-    private List<ImportWorningDto> warningList = new ArrayList<>();
     private int totalCount;
     private int successCount;
     private int warningCount;
     private int errorCount;
+    private List<ImportRuleStatDto> ruleStats = new ArrayList<>(); // 検証ルールごとの実行回数・処理時間
+
+    // 行の分類（検証後に indexRows で1回だけ作る。以降の件数・行番号・ページ取得はここから求める）
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private volatile ImportRowIndex rowIndex;
+
+    /** 行の分類を作り直す（totalList を組み立て終えた後に呼ぶ） */
+    public void indexRows() {
+        rowIndex = ImportRowIndex.of(totalList != null ? totalList : new ArrayList<>());
+    }
+
+    public ImportRowIndex rowIndex() {
+        ImportRowIndex index = rowIndex;
+        if (index == null) {
+            // 分類を作る前の結果（念のため）
+            indexRows();
+            index = rowIndex;
+        }
+        return index;
+    }
+
+    /** 条件に合う行の page 番目（0始まり）の size 件 */
+    public List<ImportRowDto> page(ImportRowFilter filter, int page, int size) {
+        return rowIndex().page(filter, page, size);
+    }
+
+    public int count(ImportRowFilter filter) {
+        return rowIndex().count(filter);
+    }
+
+    // --- エラー・警告の一覧（行の問題から都度組み立て、文言は結果に保持しない） ---
+    public List<ImportErrorDto> getErrorList() {
+        return rowIndex().page(ImportRowFilter.ERROR, 0, Integer.MAX_VALUE).stream()
+                .map(row -> new ImportErrorDto(row.getRowNum(), row.getErrorMessages()))
+                .toList();
+    }
+
+    public List<ImportWorningDto> getWarningList() {
+        return rowIndex().page(ImportRowFilter.WARNING, 0, Integer.MAX_VALUE).stream()
+                .map(row -> new ImportWorningDto(row.getRowNum(), row.getWarningMessages()))
+                .toList();
+    }
 
     // --- Strict Mode Helpers (Exclude Warnings) ---
     public int getStrictInsertCount() {
-        if (totalList == null)
-            return 0;
-        return (int) totalList.stream()
-                .filter(row -> row != null && row.isValid() && !row.isUpdate() && !row.isHasWarning())
-                .count();
+        return rowIndex().strictInsertCount();
     }
 
     public List<Integer> getStrictInsertRows() {
-        if (totalList == null)
-            return new ArrayList<>();
-        return totalList.stream()
-                .filter(row -> row != null && row.isValid() && !row.isUpdate() && !row.isHasWarning())
-                .map(ImportRowDto::getRowNum)
-                .toList();
+        return rowIndex().strictInsertRows();
     }
 
     public int getStrictUpdateCount() {
-        if (totalList == null)
-            return 0;
-        return (int) totalList.stream()
-                .filter(row -> row != null && row.isValid() && row.isUpdate() && !row.isHasWarning())
-                .count();
+        return rowIndex().strictUpdateCount();
     }
 
     public List<Integer> getStrictUpdateRows() {
-        if (totalList == null)
-            return new ArrayList<>();
-        return totalList.stream()
-                .filter(row -> row != null && row.isValid() && row.isUpdate() && !row.isHasWarning())
-                .map(ImportRowDto::getRowNum)
-                .toList();
+        return rowIndex().strictUpdateRows();
     }
 
     // --- All Mode Helpers (Include Warnings) ---
     public int getAllInsertCount() {
-        if (totalList == null)
-            return 0;
-        return (int) totalList.stream()
-                .filter(row -> row != null && row.isValid() && !row.isUpdate())
-                .count();
+        return rowIndex().count(ImportRowFilter.INSERT);
     }
 
     public List<Integer> getAllInsertRows() {
-        if (totalList == null)
-            return new ArrayList<>();
-        return totalList.stream()
-                .filter(row -> row != null && row.isValid() && !row.isUpdate())
-                .map(ImportRowDto::getRowNum)
-                .toList();
+        return rowIndex().rowNums(ImportRowFilter.INSERT);
     }
 
     public int getAllUpdateCount() {
-        if (totalList == null)
-            return 0;
-        return (int) totalList.stream()
-                .filter(row -> row != null && row.isValid() && row.isUpdate())
-                .count();
+        return rowIndex().count(ImportRowFilter.UPDATE);
     }
 
     public List<Integer> getAllUpdateRows() {
-        if (totalList == null)
-            return new ArrayList<>();
-        return totalList.stream()
-                .filter(row -> row != null && row.isValid() && row.isUpdate())
-                .map(ImportRowDto::getRowNum)
-                .toList();
+        return rowIndex().rowNums(ImportRowFilter.UPDATE);
+    }
+
+    // --- Unchanged Helpers (DBと内容が同じため登録をスキップする更新行) ---
+    public int getUnchangedCount() {
+        return getAllUnchangedCount();
+    }
+
+    public int getStrictUnchangedCount() {
+        return rowIndex().strictUnchangedCount();
+    }
+
+    public int getAllUnchangedCount() {
+        return rowIndex().count(ImportRowFilter.UNCHANGED);
     }
 
     // --- Excluded Rows Helpers ---
     public List<Integer> getStrictExcludedRows() {
-        if (totalList == null)
-            return new ArrayList<>();
-        return totalList.stream()
-                .filter(row -> row != null && (row.isHasError() || row.isHasWarning()))
-                .map(ImportRowDto::getRowNum)
-                .sorted()
-                .toList();
+        return rowIndex().strictExcludedRows();
     }
 
     public List<Integer> getAllExcludedRows() {
-        if (totalList == null)
-            return new ArrayList<>();
-        return totalList.stream()
-                .filter(row -> row != null && row.isHasError())
-                .map(ImportRowDto::getRowNum)
-                .sorted()
-                .toList();
+        return rowIndex().rowNums(ImportRowFilter.ERROR);
     }
 }
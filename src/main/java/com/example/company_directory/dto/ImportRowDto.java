@@ -1,6 +1,6 @@
 package com.example.company_directory.dto;
 
-import java.util.ArrayList;
+import java.time.LocalDate;
 import java.util.List;
 
 import lombok.Data;
@@ -13,13 +13,16 @@ public class ImportRowDto {
     private String address;
     private String zipCode;
     private String registrationDate;
+    private LocalDate parsedRegistrationDate; // 検証時に解釈した登録日（空欄・解釈できない場合は null）
     private String remarks;
-    private List<String> errorMessages = new ArrayList<>();
-    private List<String> warningMessages = new ArrayList<>();
+    // 問題は種類（コード）で持ち、文言は getErrorMessages / getWarningMessages で必要な時に組み立てる
+    private ImportIssue[] errorIssues = ImportIssue.NONE;
+    private ImportIssue[] warningIssues = ImportIssue.NONE;
     private boolean hasError;
     private boolean hasWarning;
     private boolean isValid = true;
     private boolean isUpdate; // trueなら更新、falseなら新規
+    private boolean unchanged; // 更新行のうちDBと内容が同じもの（確定登録では送らない）
 
     public boolean isUpdate() {
         return isUpdate;
@@ -37,6 +40,16 @@ public class ImportRowDto {
         return hasError;
     }
 
+    /** エラーの文言（呼び出しのたびに組み立てる） */
+    public List<String> getErrorMessages() {
+        return ImportIssue.messages(errorIssues, this);
+    }
+
+    /** 警告の文言（呼び出しのたびに組み立てる） */
+    public List<String> getWarningMessages() {
+        return ImportIssue.messages(warningIssues, this);
+    }
+
     public String getOperationType() {
         return isUpdate ? "更新" : "新規";
     }
@@ -0,0 +1,29 @@
+package com.example.company_directory.dto;
+
+import java.util.Locale;
+
+/**
+ * プレビューで行を絞り込む条件（画面・JSON API の filter パラメータ）。
+ * 新規・更新・変更なしは、登録対象（エラーなし。警告ありを含む）の行の内訳。
+ */
+public enum ImportRowFilter {
+    ALL,       // すべての行
+    SUCCESS,   // 正常（エラー・警告なし）
+    WARNING,   // 警告あり（エラーなし）
+    ERROR,     // エラーあり
+    INSERT,    // 新規登録になる行
+    UPDATE,    // 更新になる行（内容が変わるもの）
+    UNCHANGED; // 更新行のうちDBと内容が同じもの
+
+    /** パラメータ値（小文字）から変換する（空なら ALL、該当なしは null） */
+    public static ImportRowFilter fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return ALL;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
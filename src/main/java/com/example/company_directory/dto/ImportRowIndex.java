@@ -0,0 +1,162 @@
+package com.example.company_directory.dto;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 検証結果の行の分類（行リスト上の位置のビットセット）。
+ * 検証後に1回だけ求め、件数・行番号一覧・ページ取得はこのビットセットから行う。
+ * 作成後は変更しないため、複数のリクエストから同時に参照してよい。
+ */
+public final class ImportRowIndex {
+
+    // ページの先頭へ飛ぶための目印の間隔（立っているビットの個数）
+    private static final int ANCHOR_INTERVAL = 1024;
+
+    private final List<ImportRowDto> rows;
+    private final Map<ImportRowFilter, BitSet> sets = new EnumMap<>(ImportRowFilter.class);
+    // 条件ごとの、k * ANCHOR_INTERVAL 番目（0始まり）に立っているビットの位置
+    private final Map<ImportRowFilter, int[]> anchors = new EnumMap<>(ImportRowFilter.class);
+
+    // 正常データのみ登録（strict）の場合の内訳（警告ありの行を除く）
+    private final BitSet strictInsert;
+    private final BitSet strictUpdate;
+    private final BitSet strictUnchanged;
+    private final BitSet strictExcluded;
+
+    private ImportRowIndex(List<ImportRowDto> rows) {
+        this.rows = rows;
+        int n = rows.size();
+
+        BitSet all = new BitSet(n);
+        BitSet success = new BitSet(n);
+        BitSet warning = new BitSet(n);
+        BitSet error = new BitSet(n);
+        BitSet insert = new BitSet(n);
+        BitSet update = new BitSet(n);
+        BitSet unchanged = new BitSet(n);
+
+        for (int i = 0; i < n; i++) {
+            ImportRowDto row = rows.get(i);
+            if (row == null) {
+                continue;
+            }
+            all.set(i);
+            if (row.isHasError()) {
+                error.set(i);
+            } else if (row.isHasWarning()) {
+                warning.set(i);
+            } else {
+                success.set(i);
+            }
+            if (row.isValid()) {
+                if (!row.isUpdate()) {
+                    insert.set(i);
+                } else if (row.isUnchanged()) {
+                    unchanged.set(i);
+                } else {
+                    update.set(i);
+                }
+            }
+        }
+
+        sets.put(ImportRowFilter.ALL, all);
+        sets.put(ImportRowFilter.SUCCESS, success);
+        sets.put(ImportRowFilter.WARNING, warning);
+        sets.put(ImportRowFilter.ERROR, error);
+        sets.put(ImportRowFilter.INSERT, insert);
+        sets.put(ImportRowFilter.UPDATE, update);
+        sets.put(ImportRowFilter.UNCHANGED, unchanged);
+        sets.forEach((filter, set) -> anchors.put(filter, anchorsOf(set)));
+
+        strictInsert = without(insert, warning);
+        strictUpdate = without(update, warning);
+        strictUnchanged = without(unchanged, warning);
+        strictExcluded = (BitSet) error.clone();
+        strictExcluded.or(warning);
+    }
+
+    public static ImportRowIndex of(List<ImportRowDto> rows) {
+        return new ImportRowIndex(rows);
+    }
+
+    public int count(ImportRowFilter filter) {
+        return sets.get(filter).cardinality();
+    }
+
+    public List<Integer> rowNums(ImportRowFilter filter) {
+        return rowNums(sets.get(filter));
+    }
+
+    public int strictInsertCount() {
+        return strictInsert.cardinality();
+    }
+
+    public List<Integer> strictInsertRows() {
+        return rowNums(strictInsert);
+    }
+
+    public int strictUpdateCount() {
+        return strictUpdate.cardinality();
+    }
+
+    public List<Integer> strictUpdateRows() {
+        return rowNums(strictUpdate);
+    }
+
+    public int strictUnchangedCount() {
+        return strictUnchanged.cardinality();
+    }
+
+    public List<Integer> strictExcludedRows() {
+        return rowNums(strictExcluded);
+    }
+
+    /** 条件に合う行のうち、page 番目（0始まり）の size 件を返す（直前の目印から数えるので後ろのページも先頭から数えない） */
+    public List<ImportRowDto> page(ImportRowFilter filter, int page, int size) {
+        BitSet set = sets.get(filter);
+        long start = (long) page * size;
+        int[] marks = anchors.get(filter);
+        if (start >= (long) marks.length * ANCHOR_INTERVAL) {
+            return new ArrayList<>();
+        }
+        List<ImportRowDto> result = new ArrayList<>(Math.min(size, set.cardinality()));
+        int i = marks[(int) (start / ANCHOR_INTERVAL)];
+        for (int skip = (int) (start % ANCHOR_INTERVAL); skip > 0 && i >= 0; skip--) {
+            i = set.nextSetBit(i + 1);
+        }
+        while (i >= 0 && result.size() < size) {
+            result.add(rows.get(i));
+            i = set.nextSetBit(i + 1);
+        }
+        return result;
+    }
+
+    private List<Integer> rowNums(BitSet set) {
+        List<Integer> result = new ArrayList<>(set.cardinality());
+        for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+            result.add(rows.get(i).getRowNum());
+        }
+        return result;
+    }
+
+    private static int[] anchorsOf(BitSet set) {
+        int[] result = new int[(set.cardinality() + ANCHOR_INTERVAL - 1) / ANCHOR_INTERVAL];
+        int count = 0;
+        for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1), count++) {
+            if (count % ANCHOR_INTERVAL == 0) {
+                result[count / ANCHOR_INTERVAL] = i;
+            }
+        }
+        return result;
+    }
+
+    private static BitSet without(BitSet set, BitSet excluded) {
+        BitSet result = (BitSet) set.clone();
+        result.andNot(excluded);
+        return result;
+    }
+}
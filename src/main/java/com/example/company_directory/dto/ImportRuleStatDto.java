@@ -0,0 +1,19 @@
+package com.example.company_directory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRuleStatDto {
+    private String phase;       // error / warning
+    private String ruleName;    // ルール名
+    private long invocations;   // 実行回数
+    private long totalNanos;    // 累計の処理時間（ナノ秒）
+
+    public long getAverageNanos() {
+        return invocations == 0 ? 0 : totalNanos / invocations;
+    }
+}
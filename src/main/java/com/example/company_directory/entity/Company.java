@@ -10,8 +10,17 @@ import java.time.LocalDateTime;
 @Data // Lombok: Getter/Setterを自動生成
 public class Company {
 
+    /**
+     * company_id_seq の増分（1回の nextval で確保する企業IDの件数）。
+     * シーケンスの作成（CompanyIdSequenceInitializer）とSQLでの一括採番（CompanyBulkRepository）も
+     * この値を使う。ずれると Hibernate の採番と重複するため、個別に値を書かないこと。
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id // 主キー
-    @GeneratedValue(strategy = GenerationType.IDENTITY) // Auto Increment (自動採番)
+    // シーケンスで採番（ID_ALLOCATION_SIZE 件分をまとめて確保するため、一括登録時にINSERTをバッチ化できる）
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "company_id_seq")
+    @SequenceGenerator(name = "company_id_seq", sequenceName = "company_id_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Integer companyId;
 
     @Column(nullable = false, length = 100) // NOT NULL, 最大100文字
@@ -0,0 +1,56 @@
+package com.example.company_directory.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * エクスポートのバックグラウンドジョブ。
+ * 画面はこのレコードをポーリングし、完了したら成果物（cacheKey のファイル）をダウンロードする。
+ */
+@Entity
+@Table(name = "export_jobs", indexes = @Index(name = "idx_export_jobs_cache_key", columnList = "cacheKey"))
+@Data
+public class ExportJob {
+
+    public enum Status {
+        QUEUED,    // 実行待ち（同時実行数の上限に達している）
+        RUNNING,
+        SUCCEEDED,
+        FAILED
+    }
+
+    @Id
+    @Column(length = 36) // UUID
+    private String jobId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Status status;
+
+    // 成果物のキー（対象・検索条件・列・並び順・形式・データの版数の SHA-256。ETag にも使う）
+    @Column(nullable = false, length = 64)
+    private String cacheKey;
+
+    @Column(nullable = false, length = 16)
+    private String format; // ExportFormat の名前
+
+    private boolean gzip;
+
+    @Column(nullable = false, length = 255)
+    private String fileName; // ダウンロード時のファイル名（拡張子付き）
+
+    private boolean cached;   // 作成済みの成果物をそのまま使った
+    private long fileSize;    // 成果物のサイズ（バイト）
+
+    @Column(length = 500)
+    private String errorMessage;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,58 @@
+package com.example.company_directory.entity;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * 分割コミット（app.import.commit-mode=chunked）の進み具合。
+ * アップロード単位（一時ファイル名）で1件。チャンクのコミットと同じトランザクションで更新するため、
+ * 途中で失敗しても lastRowNum までは確実に登録済みで、次回はその次の行から再開できる。
+ */
+@Entity
+@Table(name = "import_checkpoints")
+@Data
+public class ImportCheckpoint {
+
+    public enum Status {
+        IN_PROGRESS,
+        COMPLETED
+    }
+
+    @Id
+    @Column(length = 64)
+    private String tempFileName;
+
+    @Column(length = 10)
+    private String mode; // 確定登録の対象（all / strict）
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 12)
+    private Status status;
+
+    private int lastRowNum;    // 処理済みの最後のExcel行番号（0 = 未着手）
+    private int insertedCount; // 新規登録した件数（累計）
+    private int updatedCount;  // 更新した件数（累計）
+    private int failedCount;   // 登録できなかった件数（累計）
+
+    // 登録できなかった行（他の行の登録は続ける）
+    @ElementCollection
+    @CollectionTable(name = "import_checkpoint_failures", joinColumns = @JoinColumn(name = "temp_file_name"))
+    @OrderColumn(name = "seq")
+    private List<FailedRow> failedRows = new ArrayList<>();
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Embeddable
+    @Data
+    public static class FailedRow {
+        private int rowNum;
+
+        @Column(length = 500)
+        private String message;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.company_directory.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * インポートのバックグラウンドジョブ（検証・確定登録）。
+ * 画面はこのレコードをポーリングして進捗を表示する。
+ */
+@Entity
+@Table(name = "import_jobs", indexes = @Index(name = "idx_import_jobs_temp_file_name", columnList = "tempFileName"))
+@Data
+public class ImportJob {
+
+    public enum JobType {
+        VALIDATE, // アップロードしたファイルの検証
+        COMMIT    // 検証済みデータの確定登録
+    }
+
+    public enum Status {
+        QUEUED,    // 実行待ち（同時実行数の上限に達している）
+        RUNNING,
+        SUCCEEDED,
+        FAILED
+    }
+
+    @Id
+    @Column(length = 36) // UUID
+    private String jobId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private JobType jobType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Status status;
+
+    @Column(nullable = false, length = 64)
+    private String tempFileName;
+
+    @Column(length = 10)
+    private String mode; // 確定登録の対象（all / strict）
+
+    private int totalRows;     // 対象の行数（検証は読み込み完了時に確定）
+    private int processedRows; // 処理済みの行数
+    private int insertedCount; // 新規登録した件数
+    private int updatedCount;  // 更新した件数
+    @Column(nullable = false, columnDefinition = "integer not null default 0")
+    private int unchangedCount; // DBと内容が同じため登録を省いた更新行の件数
+    @Column(nullable = false, columnDefinition = "integer not null default 0")
+    private int skippedCount;  // 警告があるため登録しなかった件数（strict のみ）
+    private int failedCount;   // エラーのため対象外になった件数と、登録できなかった件数の合計
+
+    @Column(length = 500)
+    private String errorMessage;
+
+    @Column(length = 500)
+    private String warningMessage; // 完了したが一部の行を登録できなかった場合の内容
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+}
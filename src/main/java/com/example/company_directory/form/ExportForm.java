@@ -1,6 +1,9 @@
 package com.example.company_directory.form;
 
 import java.util.List;
+
+import com.example.company_directory.util.ExportFormat;
+
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
@@ -15,4 +18,25 @@ public class ExportForm extends CompanySearchForm {
     // Sort options
     private String sortBy = "companyId"; // Default
     private String sortOrder = "ASC"; // Default
+
+    // 出力形式（xlsx / csv）と CSV の文字コード（UTF-8 / Shift_JIS）、CSV を gzip 圧縮するか
+    private String format = "xlsx";
+    private String encoding = "UTF-8";
+    private boolean gzip;
+
+    public ExportFormat toExportFormat() {
+        return ExportFormat.of(format, encoding);
+    }
+
+    /** gzip 圧縮して出力するか（xlsx は既に圧縮されているため CSV のみ） */
+    public boolean isGzipped() {
+        return gzip && toExportFormat().isCsv();
+    }
+
+    /** ダウンロード時のファイル名（未入力なら companies。出力形式の拡張子がなければ付ける） */
+    public String toDownloadFileName() {
+        String name = (fileName != null && !fileName.isEmpty()) ? fileName : "companies";
+        String suffix = toExportFormat().suffix(isGzipped());
+        return name.endsWith(suffix) ? name : name + suffix;
+    }
 }
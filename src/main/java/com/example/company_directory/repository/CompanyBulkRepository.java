@@ -0,0 +1,308 @@
+package com.example.company_directory.repository;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import com.example.company_directory.entity.Company;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * companies テーブルへの一括書き込みと、インポート用の一括照会（JPAを経由しないSQL）。
+ * PostgreSQL 固有の構文を使う。
+ */
+@Repository
+@RequiredArgsConstructor
+public class CompanyBulkRepository {
+
+    // upsert の1文あたりの最大行数（PostgreSQL のバインド変数は1文 65535 個まで。1行あたり6個）
+    private static final int MAX_ROWS_PER_STATEMENT = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+
+    /** 既存行の内容フィンガープリント（ContentFingerprint と同じ計算）と登録日 */
+    public record StoredFingerprint(String contentHash, LocalDate registrationDate) {
+    }
+
+    /**
+     * 複数行をまとめて INSERT ... ON CONFLICT で登録・更新する。
+     *
+     * - companyId が null の行は company_id_seq から確保したブロックで採番して新規登録（assignNewIds）
+     * - companyId が既存の行は内容を更新（削除フラグは変更しない）
+     * - registrationDate が null の行は、既存なら元の登録日、新規なら本日
+     * - バインド変数の上限を超えないよう、MAX_ROWS_PER_STATEMENT 行ごとに文を分けて送る
+     *
+     * @return [新規件数, 更新件数]
+     */
+    public int[] upsert(List<Company> companies) {
+        assignNewIds(companies);
+
+        int[] counts = { 0, 0 };
+        for (int from = 0; from < companies.size(); from += MAX_ROWS_PER_STATEMENT) {
+            int[] c = upsertStatement(
+                    companies.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, companies.size())));
+            counts[0] += c[0];
+            counts[1] += c[1];
+        }
+        return counts;
+    }
+
+    /**
+     * companyId が null の行に、company_id_seq から確保したブロックの企業IDを行順に設定する。
+     * 確保したIDはトランザクションをロールバックしても戻らないため、やり直す可能性がある場合は
+     * 先にこのメソッドで採番しておき、やり直しのたびに確保し直さないようにする。
+     */
+    public void assignNewIds(List<Company> companies) {
+        int newCount = 0;
+        for (Company c : companies) {
+            if (c.getCompanyId() == null) {
+                newCount++;
+            }
+        }
+        if (newCount == 0) {
+            return;
+        }
+        int[] newIds = expandIds(reserveIdBlocks(newCount), newCount);
+        int n = 0;
+        for (Company c : companies) {
+            if (c.getCompanyId() == null) {
+                c.setCompanyId(newIds[n++]);
+            }
+        }
+    }
+
+    /** 企業IDが確定済みの行を、1回の INSERT ... ON CONFLICT で登録・更新する */
+    private int[] upsertStatement(List<Company> companies) {
+        StringBuilder sql = new StringBuilder();
+        sql.append("INSERT INTO companies ")
+                .append("(company_id, company_name, address, zip_code, remarks, registration_date, is_deleted) ")
+                .append("SELECT v.company_id, ")
+                .append("v.company_name, v.address, v.zip_code, v.remarks, ")
+                .append("COALESCE(v.registration_date, ")
+                .append("(SELECT c.registration_date FROM companies c WHERE c.company_id = v.company_id), ")
+                .append("CURRENT_DATE), false ")
+                .append("FROM (VALUES ");
+
+        List<Object> args = new ArrayList<>(companies.size() * 6);
+        for (int i = 0; i < companies.size(); i++) {
+            Company c = companies.get(i);
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(?::integer, ?::varchar, ?::varchar, ?::varchar, ?::text, ?::date)");
+            args.add(c.getCompanyId());
+            args.add(c.getCompanyName());
+            args.add(c.getAddress());
+            args.add(c.getZipCode());
+            args.add(c.getRemarks());
+            args.add(c.getRegistrationDate());
+        }
+
+        sql.append(") AS v(company_id, company_name, address, zip_code, remarks, registration_date) ")
+                .append("ON CONFLICT (company_id) DO UPDATE SET ")
+                .append("company_name = EXCLUDED.company_name, ")
+                .append("address = EXCLUDED.address, ")
+                .append("zip_code = EXCLUDED.zip_code, ")
+                .append("remarks = EXCLUDED.remarks, ")
+                .append("registration_date = EXCLUDED.registration_date ")
+                // xmax = 0 なら新規に挿入された行
+                .append("RETURNING (xmax = 0) AS inserted");
+
+        List<Boolean> inserted = jdbcTemplate.query(sql.toString(), (rs, rowNum) -> rs.getBoolean(1),
+                args.toArray());
+
+        int insertCount = 0;
+        for (Boolean b : inserted) {
+            if (Boolean.TRUE.equals(b)) {
+                insertCount++;
+            }
+        }
+        return new int[] { insertCount, inserted.size() - insertCount };
+    }
+
+    /**
+     * 大量データ用の一括登録。
+     * COPY でステージング表（UNLOGGED）に流し込み、INSERT ... SELECT ... ON CONFLICT で
+     * companies にまとめて反映する。採番・登録日の扱いは upsert と同じ。
+     * 呼び出し側のトランザクション内で実行すること（ステージング行も同じトランザクションで削除する）。
+     * ステージング表は起動時に CompanyImportStagingInitializer が作成する。
+     *
+     * @return [新規件数, 更新件数]
+     */
+    public int[] copyLoad(Iterable<Company> companies) {
+        // 同時に複数の取り込みが走っても混ざらないよう、取り込みごとのIDで区別する
+        String loadId = UUID.randomUUID().toString();
+        String copySql = "COPY companies_import_staging "
+                + "(load_id, line_no, company_id, company_name, address, zip_code, remarks, registration_date) "
+                + "FROM STDIN WITH (FORMAT csv)";
+
+        PgCopyWriter.copy(dataSource, jdbcTemplate, copySql, writer -> {
+            int lineNo = 0;
+            for (Company c : companies) {
+                writer.value(loadId).value(lineNo++).value(c.getCompanyId())
+                        .text(c.getCompanyName()).text(c.getAddress()).text(c.getZipCode())
+                        .text(c.getRemarks()).value(c.getRegistrationDate());
+                writer.endRow();
+            }
+        });
+
+        // 新規行の企業IDを、確保したブロックから行番号順に割り当てる（ブロックの最大値だけを送り、SQL側で展開する）
+        Integer newCount = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM companies_import_staging "
+                + "WHERE load_id = ?::uuid AND company_id IS NULL", Integer.class, loadId);
+        if (newCount != null && newCount > 0) {
+            List<Long> highs = reserveIdBlocks(newCount);
+            jdbcTemplate.update("WITH targets AS ("
+                    + "SELECT line_no, row_number() OVER (ORDER BY line_no) AS rn "
+                    + "FROM companies_import_staging WHERE load_id = ?::uuid AND company_id IS NULL), "
+                    + "ids AS ("
+                    + "SELECT id, row_number() OVER (ORDER BY id) AS rn "
+                    + "FROM unnest(?) AS b(high), "
+                    + "generate_series(GREATEST(1, b.high - " + (Company.ID_ALLOCATION_SIZE - 1) + "), b.high) AS id) "
+                    + "UPDATE companies_import_staging s SET company_id = ids.id "
+                    + "FROM targets JOIN ids USING (rn) "
+                    + "WHERE s.load_id = ?::uuid AND s.line_no = targets.line_no",
+                    ps -> {
+                        ps.setString(1, loadId);
+                        ps.setArray(2, ps.getConnection().createArrayOf("bigint", highs.toArray()));
+                        ps.setString(3, loadId);
+                    });
+        }
+
+        // ステージング表から companies へ集合演算で反映
+        Map<String, Object> counts = jdbcTemplate.queryForMap(
+                "WITH merged AS ("
+                        + "INSERT INTO companies "
+                        + "(company_id, company_name, address, zip_code, remarks, registration_date, is_deleted) "
+                        + "SELECT s.company_id, "
+                        + "s.company_name, s.address, s.zip_code, s.remarks, "
+                        + "COALESCE(s.registration_date, "
+                        + "(SELECT c.registration_date FROM companies c WHERE c.company_id = s.company_id), "
+                        + "CURRENT_DATE), false "
+                        + "FROM companies_import_staging s WHERE s.load_id = ?::uuid ORDER BY s.line_no "
+                        + "ON CONFLICT (company_id) DO UPDATE SET "
+                        + "company_name = EXCLUDED.company_name, "
+                        + "address = EXCLUDED.address, "
+                        + "zip_code = EXCLUDED.zip_code, "
+                        + "remarks = EXCLUDED.remarks, "
+                        + "registration_date = EXCLUDED.registration_date "
+                        + "RETURNING (xmax = 0) AS inserted) "
+                        + "SELECT COUNT(*) FILTER (WHERE inserted) AS inserted_count, "
+                        + "COUNT(*) FILTER (WHERE NOT inserted) AS updated_count FROM merged",
+                loadId);
+
+        jdbcTemplate.update("DELETE FROM companies_import_staging WHERE load_id = ?::uuid", loadId);
+
+        return new int[] {
+                ((Number) counts.get("inserted_count")).intValue(),
+                ((Number) counts.get("updated_count")).intValue() };
+    }
+
+    /**
+     * 企業IDごとの内容フィンガープリントを1回のクエリで取得する（存在しないIDは結果に含まれない）。
+     * 内容のハッシュは DB 側で計算し、各行の値そのものは転送しない。
+     */
+    public Map<Integer, StoredFingerprint> findFingerprints(Collection<Integer> ids) {
+        Map<Integer, StoredFingerprint> result = new HashMap<>(ids.size() * 2);
+        if (ids.isEmpty()) {
+            return result;
+        }
+        jdbcTemplate.query("SELECT company_id, "
+                + "md5(concat_ws(chr(31), company_name, address, zip_code, COALESCE(remarks, ''))), "
+                + "registration_date "
+                + "FROM companies WHERE company_id = ANY (?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("integer", ids.toArray())),
+                (RowCallbackHandler) rs -> result.put(rs.getInt(1),
+                        new StoredFingerprint(rs.getString(2), rs.getObject(3, LocalDate.class))));
+        return result;
+    }
+
+    /**
+     * 削除されていない企業の企業IDと企業名を1行ずつ handler に渡す（類似企業名の照合用）。
+     * 全件をメモリに載せないよう fetchSize 件ずつ取得する（PostgreSQL ではトランザクション内で呼ぶこと）。
+     */
+    public void streamActiveNames(int fetchSize, RowCallbackHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT company_id, company_name FROM companies WHERE is_deleted = false");
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, handler);
+    }
+
+    /**
+     * 企業データの版数（companies を変更したトランザクションがコミットされるたびに増える。
+     * CompanyDataVersionInitializer を参照）。
+     * エクスポートの内容と揃えるには、同じ REPEATABLE READ のトランザクション内で読むこと。
+     */
+    public long currentDataVersion() {
+        Long version = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(weight), 0) FROM company_data_changes", Long.class);
+        return version != null ? version : 0;
+    }
+
+    /**
+     * 版数の記録を、合計を変えずに1行にまとめる（削除した行の weight の合計を、このトランザクションIDの行として追加する）。
+     * 書き込み中のトランザクションの行は見えないため対象にならない。
+     *
+     * @return まとめた行数
+     */
+    public int compactDataVersion() {
+        Integer removed = jdbcTemplate.queryForObject("WITH removed AS ("
+                + "DELETE FROM company_data_changes RETURNING weight), "
+                + "merged AS ("
+                + "INSERT INTO company_data_changes (xid, weight) "
+                + "SELECT txid_current(), SUM(weight) FROM removed HAVING COUNT(*) > 0) "
+                + "SELECT COUNT(*) FROM removed", Integer.class);
+        return removed != null ? removed : 0;
+    }
+
+    /**
+     * 新規行 count 件分の企業IDのブロックを確保し、各ブロックの最大値を返す。
+     * company_id_seq は Hibernate の pooled 方式に合わせて Company.ID_ALLOCATION_SIZE ずつ進むため、
+     * nextval の値 v ごとに (v - ID_ALLOCATION_SIZE, v] をまとめて使う
+     * （行ごとに nextval を呼ぶと、1行でブロック1つ分のIDを消費してしまう）。
+     * 最初の値 1 のブロックは 1 件分しかないため、足りなければ追加で確保する。
+     */
+    private List<Long> reserveIdBlocks(int count) {
+        List<Long> highs = new ArrayList<>();
+        long capacity = 0;
+        while (capacity < count) {
+            int blocks = (int) ((count - capacity + Company.ID_ALLOCATION_SIZE - 1) / Company.ID_ALLOCATION_SIZE);
+            for (Long high : jdbcTemplate.queryForList(
+                    "SELECT nextval('company_id_seq') FROM generate_series(1, ?)", Long.class, blocks)) {
+                highs.add(high);
+                capacity += high - firstIdOf(high) + 1;
+            }
+        }
+        return highs;
+    }
+
+    /** 確保したブロックを先頭から展開し、count 件の企業IDにする */
+    private static int[] expandIds(List<Long> highs, int count) {
+        int[] ids = new int[count];
+        int n = 0;
+        for (long high : highs) {
+            for (long id = firstIdOf(high); id <= high && n < count; id++) {
+                ids[n++] = (int) id;
+            }
+        }
+        return ids;
+    }
+
+    private static long firstIdOf(long high) {
+        return Math.max(1, high - Company.ID_ALLOCATION_SIZE + 1);
+    }
+}
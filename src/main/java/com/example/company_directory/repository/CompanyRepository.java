@@ -1,8 +1,8 @@
 package com.example.company_directory.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
@@ -12,20 +12,28 @@ import org.springframework.data.repository.query.Param;
 
 import com.example.company_directory.entity.Company;
 
-public interface CompanyRepository extends JpaRepository<Company, Integer>, JpaSpecificationExecutor<Company> {
+public interface CompanyRepository extends JpaRepository<Company, Integer>, JpaSpecificationExecutor<Company>,
+        CompanyRepositoryCustom {
 
     List<Company> findAllByIsDeletedFalse();
 
     List<Company> findAllByIsDeletedTrueOrderByDeletedAtDesc();
 
-    @Query("SELECT c.companyId FROM Company c")
-    Set<String> findAllIds();
-
     // 企業名で検索（存在チェック用）
     boolean existsByCompanyName(String companyName);
 
     boolean existsByAddress(String address);
 
+    // --- インポート検証用の一括存在チェック（IN句の件数は呼び出し側で分割する） ---
+    @Query("SELECT c.companyId FROM Company c WHERE c.companyId IN :ids")
+    List<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+
+    @Query("SELECT DISTINCT c.companyName FROM Company c WHERE c.companyName IN :names")
+    List<String> findExistingCompanyNames(@Param("names") Collection<String> names);
+
+    @Query("SELECT DISTINCT c.address FROM Company c WHERE c.address IN :addresses")
+    List<String> findExistingAddresses(@Param("addresses") Collection<String> addresses);
+
     @Modifying
     @Query("DELETE FROM Company c WHERE c.isDeleted = true AND c.deletedAt < :threshold")
     int deleteByIsDeletedTrueAndDeletedAtBefore(@Param("threshold") LocalDateTime threshold);
@@ -0,0 +1,21 @@
+package com.example.company_directory.repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.example.company_directory.entity.Company;
+
+/** CompanyRepository に追加する、Spring Data の派生クエリでは表せない照会 */
+public interface CompanyRepositoryCustom {
+
+    /**
+     * 条件に合う企業の指定した属性だけを1件ずつ返す（エクスポート用）。
+     * 各要素は attributes と同じ並びの値の配列で、エンティティは作らない。
+     * fetchSize 件ずつカーソルで取得するため、件数によらず使用メモリはほぼ一定。
+     * 読み取り専用トランザクション内で呼び出し、使い終わったら Stream を閉じること。
+     */
+    Stream<Object[]> streamColumns(Specification<Company> spec, Sort sort, List<String> attributes, int fetchSize);
+}
@@ -0,0 +1,58 @@
+package com.example.company_directory.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import com.example.company_directory.entity.Company;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+class CompanyRepositoryCustomImpl implements CompanyRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<Object[]> streamColumns(Specification<Company> spec, Sort sort, List<String> attributes,
+            int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        // 列が1つでも配列で受け取れるよう Tuple で取得する
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Company> root = query.from(Company.class);
+
+        // 指定した列だけを SELECT する
+        List<Selection<?>> selections = new ArrayList<>(attributes.size());
+        for (String attribute : attributes) {
+            selections.add(root.get(attribute));
+        }
+        query.multiselect(selections);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        // findAll(spec, sort) と同じく、指定した並び順を条件側の並び順より優先する
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .map(Tuple::toArray);
+    }
+}
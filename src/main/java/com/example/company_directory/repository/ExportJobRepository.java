@@ -0,0 +1,23 @@
+package com.example.company_directory.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.company_directory.entity.ExportJob;
+
+@Repository
+public interface ExportJobRepository extends JpaRepository<ExportJob, String> {
+
+    // 再起動などで中断されたジョブを失敗扱いにする
+    @Modifying
+    @Query("UPDATE ExportJob j SET j.status = com.example.company_directory.entity.ExportJob.Status.FAILED, "
+            + "j.errorMessage = :message, j.finishedAt = :now WHERE j.status IN :statuses")
+    int failAll(@Param("statuses") Collection<ExportJob.Status> statuses, @Param("message") String message,
+            @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,15 @@
+package com.example.company_directory.repository;
+
+import java.util.Collection;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.company_directory.entity.ImportCheckpoint;
+
+@Repository
+public interface ImportCheckpointRepository extends JpaRepository<ImportCheckpoint, String> {
+
+    // 失敗行（要素コレクション）も消すため、1件ずつ読み込んで削除する
+    void deleteByTempFileNameIn(Collection<String> tempFileNames);
+}
@@ -0,0 +1,33 @@
+package com.example.company_directory.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.company_directory.entity.ImportJob;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, String> {
+
+    // 処理済み行数だけを更新する（実行中のジョブから頻繁に呼ばれるため、エンティティを読み込まない）
+    @Modifying
+    @Query("UPDATE ImportJob j SET j.processedRows = :processedRows WHERE j.jobId = :jobId")
+    int updateProgress(@Param("jobId") String jobId, @Param("processedRows") int processedRows);
+
+    // 一時ファイルに対する指定した種類・状態のジョブ（確定登録の二重実行の防止に使う）
+    Optional<ImportJob> findFirstByTempFileNameAndJobTypeAndStatusIn(String tempFileName, ImportJob.JobType jobType,
+            Collection<ImportJob.Status> statuses);
+
+    // 再起動などで中断されたジョブを失敗扱いにする
+    @Modifying
+    @Query("UPDATE ImportJob j SET j.status = com.example.company_directory.entity.ImportJob.Status.FAILED, "
+            + "j.errorMessage = :message, j.finishedAt = :now WHERE j.status IN :statuses")
+    int failAll(@Param("statuses") Collection<ImportJob.Status> statuses, @Param("message") String message,
+            @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,148 @@
+package com.example.company_directory.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import com.example.company_directory.util.ZipMasterTable;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * インポート検証用の一時表(import_validation_rows)への登録と、一時表に対する照合クエリ。
+ * 一時表は ON COMMIT DROP のため、登録から照合までを1つのトランザクション内で呼び出すこと。
+ */
+@Repository
+@RequiredArgsConstructor
+public class ImportValidationRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+
+    /** 一時表に登録する1行分（照合に使うキーは呼び出し側で正規化済みの値を渡す） */
+    public record StagedRow(
+            int lineNo,         // 行リスト上の位置（0始まり）
+            int rowNum,         // Excel上の行番号
+            String companyId,   // 企業ID（空欄なら null）
+            Integer companyIdInt, // 数値に変換できた企業ID
+            boolean newRow,     // 企業IDなし（新規）の行か
+            String nameKey,     // 企業名（前後空白除去、空なら null）
+            String companyName, // 企業名（入力そのまま）
+            String addressKey,  // 住所（前後空白除去、空なら null）
+            String address,     // 住所（入力そのまま）
+            String cleanZip) {  // 郵便番号（ハイフン除去、住所照合の対象外なら null）
+    }
+
+    /** 一時表を作り直して COPY で登録し、統計情報を更新する */
+    public void stage(Iterable<StagedRow> rows) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS import_validation_rows");
+        jdbcTemplate.execute("CREATE TEMP TABLE import_validation_rows ("
+                + "line_no integer NOT NULL, "
+                + "row_num integer NOT NULL, "
+                + "company_id text, "
+                + "company_id_int integer, "
+                + "is_new boolean NOT NULL, "
+                + "name_key text, "
+                + "company_name text, "
+                + "address_key text, "
+                + "address text, "
+                + "clean_zip text) ON COMMIT DROP");
+
+        PgCopyWriter.copy(dataSource, jdbcTemplate,
+                "COPY import_validation_rows (line_no, row_num, company_id, company_id_int, is_new, "
+                        + "name_key, company_name, address_key, address, clean_zip) "
+                        + "FROM STDIN WITH (FORMAT csv)",
+                writer -> {
+                    for (StagedRow r : rows) {
+                        writer.value(r.lineNo()).value(r.rowNum())
+                                .text(r.companyId()).value(r.companyIdInt()).value(r.newRow())
+                                .text(r.nameKey()).text(r.companyName())
+                                .text(r.addressKey()).text(r.address())
+                                .text(r.cleanZip());
+                        writer.endRow();
+                    }
+                });
+
+        // 結合方法を正しく選べるよう、登録直後に統計情報を取る
+        jdbcTemplate.execute("ANALYZE import_validation_rows");
+    }
+
+    /** ファイル内で企業IDが重複している行（最初に出た行は除く）の位置を通知する */
+    public void forEachDuplicateIdLine(IntConsumer consumer) {
+        jdbcTemplate.query("SELECT line_no FROM ("
+                + "SELECT line_no, row_number() OVER (PARTITION BY company_id ORDER BY line_no) AS seq "
+                + "FROM import_validation_rows WHERE company_id IS NOT NULL) t "
+                + "WHERE seq > 1",
+                (RowCallbackHandler) rs -> consumer.accept(rs.getInt(1)));
+    }
+
+    /** ファイル内で同じ企業名が複数行にある企業名 → 行番号（ファイル順） */
+    public Map<String, List<Integer>> findDuplicateNameGroups() {
+        return findGroups("name_key");
+    }
+
+    /** ファイル内で同じ住所が複数行にある住所 → 行番号（ファイル順） */
+    public Map<String, List<Integer>> findDuplicateAddressGroups() {
+        return findGroups("address_key");
+    }
+
+    private Map<String, List<Integer>> findGroups(String keyColumn) {
+        Map<String, List<Integer>> groups = new HashMap<>();
+        jdbcTemplate.query("SELECT " + keyColumn + ", array_agg(row_num ORDER BY line_no) "
+                + "FROM import_validation_rows WHERE " + keyColumn + " IS NOT NULL "
+                + "GROUP BY " + keyColumn + " HAVING count(*) > 1",
+                (RowCallbackHandler) rs -> {
+                    Integer[] rowNums = (Integer[]) rs.getArray(2).getArray();
+                    groups.put(rs.getString(1), new ArrayList<>(Arrays.asList(rowNums)));
+                });
+        return groups;
+    }
+
+    /** ファイル内の企業IDのうち companies に存在するもの */
+    public Set<Integer> findExistingIds() {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT c.company_id FROM companies c "
+                        + "WHERE c.company_id IN (SELECT v.company_id_int FROM import_validation_rows v)",
+                Integer.class));
+    }
+
+    /** 新規行の企業名のうち companies に存在するもの */
+    public Set<String> findExistingNames() {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT DISTINCT v.company_name FROM import_validation_rows v "
+                        + "WHERE v.is_new AND v.name_key IS NOT NULL "
+                        + "AND EXISTS (SELECT 1 FROM companies c WHERE c.company_name = v.company_name)",
+                String.class));
+    }
+
+    /** 新規行の住所のうち companies に存在するもの */
+    public Set<String> findExistingAddresses() {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT DISTINCT v.address FROM import_validation_rows v "
+                        + "WHERE v.is_new AND v.address_key IS NOT NULL "
+                        + "AND EXISTS (SELECT 1 FROM companies c WHERE c.address = v.address)",
+                String.class));
+    }
+
+    /** ファイル内の郵便番号に該当する郵便番号マスタだけの表 */
+    public ZipMasterTable findZipMasters() {
+        ZipMasterTable.Builder builder = new ZipMasterTable.Builder();
+        jdbcTemplate.query("SELECT z.zip_code, z.prefecture, z.city, z.town FROM zip_master z "
+                + "WHERE z.zip_code IN (SELECT DISTINCT v.clean_zip FROM import_validation_rows v "
+                + "WHERE v.clean_zip IS NOT NULL) ORDER BY z.zip_code",
+                (RowCallbackHandler) rs -> builder.add(
+                        rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4)));
+        return builder.build();
+    }
+}
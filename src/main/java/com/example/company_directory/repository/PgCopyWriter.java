@@ -0,0 +1,112 @@
+package com.example.company_directory.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+/**
+ * PostgreSQL の COPY ... FROM STDIN WITH (FORMAT csv) に行を送るための書き込み口。
+ * 一定サイズごとにまとめて送信するため、全行分の文字列を保持することはない。
+ */
+class PgCopyWriter {
+
+    // 送信バッファ（文字数）
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @FunctionalInterface
+    interface Body {
+        void write(PgCopyWriter writer) throws SQLException;
+    }
+
+    private final CopyIn copyIn;
+    private final StringBuilder buf = new StringBuilder(BUFFER_SIZE + 1024);
+    private boolean firstColumn = true;
+
+    private PgCopyWriter(CopyIn copyIn) {
+        this.copyIn = copyIn;
+    }
+
+    /**
+     * トランザクションに紐づいた接続で COPY を実行する。
+     *
+     * @return 取り込んだ行数
+     */
+    static long copy(DataSource dataSource, JdbcTemplate jdbcTemplate, String copySql, Body body) {
+        Connection conn = DataSourceUtils.getConnection(dataSource);
+        try {
+            CopyIn copyIn = conn.unwrap(PGConnection.class).getCopyAPI().copyIn(copySql);
+            try {
+                PgCopyWriter writer = new PgCopyWriter(copyIn);
+                body.write(writer);
+                writer.flush();
+                return copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        } catch (SQLException e) {
+            throw jdbcTemplate.getExceptionTranslator().translate("COPY", copySql, e);
+        } finally {
+            DataSourceUtils.releaseConnection(conn, dataSource);
+        }
+    }
+
+    /** 文字列の列（null は空欄 = NULL、それ以外は必ず引用符で囲む） */
+    PgCopyWriter text(String value) {
+        separator();
+        if (value == null) {
+            return this;
+        }
+        buf.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch == '"') {
+                buf.append('"');
+            }
+            buf.append(ch);
+        }
+        buf.append('"');
+        return this;
+    }
+
+    /** 数値・日付・真偽値などの列（toString の結果をそのまま送る。null は NULL） */
+    PgCopyWriter value(Object value) {
+        separator();
+        if (value != null) {
+            buf.append(value);
+        }
+        return this;
+    }
+
+    void endRow() throws SQLException {
+        buf.append('\n');
+        firstColumn = true;
+        if (buf.length() >= BUFFER_SIZE) {
+            flush();
+        }
+    }
+
+    private void separator() {
+        if (!firstColumn) {
+            buf.append(',');
+        }
+        firstColumn = false;
+    }
+
+    private void flush() throws SQLException {
+        if (buf.length() == 0) {
+            return;
+        }
+        byte[] bytes = buf.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buf.setLength(0);
+    }
+}
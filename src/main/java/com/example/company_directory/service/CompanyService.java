@@ -1,14 +1,19 @@
 package com.example.company_directory.service;
 
-import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.company_directory.entity.Company;
 import com.example.company_directory.form.CompanyForm;
@@ -16,17 +21,25 @@ import com.example.company_directory.form.CompanySearchForm;
 import com.example.company_directory.form.ExportForm;
 import com.example.company_directory.repository.CompanyRepository;
 import com.example.company_directory.repository.CompanySpecification;
+import com.example.company_directory.util.CsvHelper;
 import com.example.company_directory.util.ExcelHelper;
-import java.util.ArrayList;
+import com.example.company_directory.util.ExportColumn;
+import com.example.company_directory.util.ExportFormat;
 import java.util.Arrays;
 import org.springframework.data.domain.Sort;
 
 @Service
 public class CompanyService {
+    // CSV を gzip 圧縮する際のバッファサイズ
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
     private final CompanyRepository companyRepository;
+    private final int exportFetchSize;
 
-    public CompanyService(CompanyRepository companyRepository) {
+    public CompanyService(CompanyRepository companyRepository,
+            @Value("${app.export.fetch-size:1000}") int exportFetchSize) {
         this.companyRepository = companyRepository;
+        this.exportFetchSize = exportFetchSize;
     }
 
     public List<Company> getAllCompanies() {
@@ -92,49 +105,83 @@ public class CompanyService {
 
     }
 
-    public ByteArrayInputStream exportExcel(ExportForm form) {
-        List<Company> companies;
+    /**
+     * エクスポート（form の出力形式で out に直接書き出す。out は閉じない）。
+     * 企業は一覧として読み込まず、選択された列だけを DBから exportFetchSize 件ずつ読みながら書き出す。
+     * 対象・並び順・列の扱いは出力形式によらず同じ。
+     */
+    @Transactional(readOnly = true)
+    public void export(ExportForm form, OutputStream out) throws IOException {
+        Specification<Company> spec;
 
         String scope = form.getScope() != null ? form.getScope() : "ALL";
-
-        // Sorting logic
-        String sortBy = form.getSortBy() != null ? form.getSortBy() : "companyId";
-        String sortOrder = form.getSortOrder() != null ? form.getSortOrder() : "ASC";
-
-        // Validate sort field to prevent injection/errors (simple allow-list)
-        List<String> allowedSorts = Arrays.asList("companyId", "companyName", "address", "zipCode", "registrationDate");
-        if (!allowedSorts.contains(sortBy)) {
-            sortBy = "companyId";
-        }
-
-        Sort sort = Sort.by(Sort.Direction.fromString(sortOrder.toUpperCase()), sortBy);
+        Sort sort = exportSort(form);
 
         switch (scope) {
             case "SELECTION":
-                if (form.getSelectedIds() != null && !form.getSelectedIds().isEmpty()) {
-                    // Filter by IDs AND apply sort
-                    Specification<Company> idSpec = (root, query, cb) -> root.get("companyId")
-                            .in(form.getSelectedIds());
-                    companies = companyRepository.findAll(idSpec, sort);
-                } else {
-                    companies = new ArrayList<>();
+                if (form.getSelectedIds() == null || form.getSelectedIds().isEmpty()) {
+                    // 選択なし（ヘッダーのみ出力）
+                    spec = null;
+                    break;
                 }
+                // Filter by IDs AND apply sort
+                spec = (root, query, cb) -> root.get("companyId").in(form.getSelectedIds());
                 break;
             case "SEARCH":
                 // Use search specification (unpaged) with sort
-                Specification<Company> spec = CompanySpecification.search(form);
-                companies = companyRepository.findAll(spec, sort);
+                spec = CompanySpecification.search(form);
                 break;
             case "ALL":
             default:
                 // Active companies only with sort
                 // Using specification to combine isDeleted=false with sort
-                Specification<Company> activeSpec = (root, query, cb) -> cb.isFalse(root.get("isDeleted"));
-                companies = companyRepository.findAll(activeSpec, sort);
+                spec = (root, query, cb) -> cb.isFalse(root.get("isDeleted"));
                 break;
         }
 
-        return ExcelHelper.companiesToExcel(companies, form.getColumns());
+        // 選択された列だけを取得する（列が1つもない場合も行数は要るため企業IDだけ取得し、出力はしない）
+        List<ExportColumn> columns = ExportColumn.select(form.getColumns());
+        List<String> attributes = columns.isEmpty()
+                ? List.of(ExportColumn.COMPANY_ID.getKey())
+                : columns.stream().map(ExportColumn::getKey).toList();
+
+        try (Stream<Object[]> rows = spec == null
+                ? Stream.empty()
+                : companyRepository.streamColumns(spec, sort, attributes, exportFetchSize)) {
+            writeRows(form, columns, rows::iterator, out);
+        }
+    }
+
+    /** エクスポートの並び順（エクスポートジョブのキャッシュキーにも使う） */
+    static Sort exportSort(ExportForm form) {
+        // Sorting logic
+        String sortBy = form.getSortBy() != null ? form.getSortBy() : "companyId";
+        String sortOrder = form.getSortOrder() != null ? form.getSortOrder() : "ASC";
+
+        // Validate sort field to prevent injection/errors (simple allow-list)
+        List<String> allowedSorts = Arrays.asList("companyId", "companyName", "address", "zipCode", "registrationDate");
+        if (!allowedSorts.contains(sortBy)) {
+            sortBy = "companyId";
+        }
+
+        return Sort.by(Sort.Direction.fromString(sortOrder.toUpperCase()), sortBy);
+    }
+
+    private static void writeRows(ExportForm form, List<ExportColumn> columns, Iterable<Object[]> rows,
+            OutputStream out) throws IOException {
+        ExportFormat format = form.toExportFormat();
+        if (!format.isCsv()) {
+            ExcelHelper.writeRows(columns, rows, out);
+            return;
+        }
+        if (!form.isGzipped()) {
+            CsvHelper.writeRows(columns, rows, out, format.getCharset());
+            return;
+        }
+        // 書きながら圧縮する（finish で圧縮の終わりまで書き出す。out は閉じない）
+        GZIPOutputStream gzip = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+        CsvHelper.writeRows(columns, rows, gzip, format.getCharset());
+        gzip.finish();
     }
 
     public Page<Company> searchCompanies(CompanySearchForm form, Pageable pageable) {
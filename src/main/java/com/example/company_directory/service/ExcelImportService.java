@@ -2,118 +2,171 @@ package com.example.company_directory.service;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.IntStream;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
-import com.example.company_directory.dto.ImportErrorDto;
+import com.example.company_directory.dto.ImportCommitResultDto;
 import com.example.company_directory.dto.ImportResultDto;
 import com.example.company_directory.dto.ImportRowDto;
-import com.example.company_directory.dto.ImportWorningDto;
+import com.example.company_directory.dto.ImportIssue;
 import com.example.company_directory.entity.Company;
-import com.example.company_directory.entity.ZipMaster;
+import com.example.company_directory.repository.CompanyBulkRepository;
 import com.example.company_directory.repository.CompanyRepository;
-import com.example.company_directory.repository.ZipMasterRepository;
+import com.example.company_directory.util.ContentFingerprint;
+import com.example.company_directory.util.DateHelper;
 import com.example.company_directory.util.ExcelHelper;
+import com.example.company_directory.util.ImportFileType;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 
 @Service
 public class ExcelImportService {
 
+    // IN 句1回あたりの件数
+    private static final int PREFETCH_CHUNK_SIZE = 1000;
+    // 並列検証で1タスクが受け持つ行数
+    private static final int PARALLEL_CHUNK_SIZE = 2000;
+    // フィンガープリント照会1回あたりの企業ID数
+    private static final int FINGERPRINT_CHUNK_SIZE = 10_000;
+
     private final CompanyRepository companyRepository;
-    private ZipMasterRepository zipMasterRepository;
+    private final CompanyBulkRepository companyBulkRepository;
+    private final ZipMasterIndex zipMasterIndex;
+    private final int parallelThreshold;
+    private final int flushSize;
+    private final String commitMode;
+    private final int bulkLoadThreshold;
+    private final int sqlValidationThreshold;
+    private final ImportSqlValidator importSqlValidator;
+    private final ImportRulePipeline importRulePipeline;
+    private final ImportNearDuplicateDetector importNearDuplicateDetector;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     // コンストラクタインジェクション
-    public ExcelImportService(CompanyRepository companyRepository, ZipMasterRepository zipMasterRepository) {
+    public ExcelImportService(CompanyRepository companyRepository, CompanyBulkRepository companyBulkRepository,
+            ZipMasterIndex zipMasterIndex, ImportSqlValidator importSqlValidator, ImportRulePipeline importRulePipeline,
+            ImportNearDuplicateDetector importNearDuplicateDetector,
+            @Value("${app.import.parallel-threshold:5000}") int parallelThreshold,
+            @Value("${app.import.flush-size:500}") int flushSize,
+            @Value("${app.import.commit-mode:upsert}") String commitMode,
+            @Value("${app.import.bulk-load-threshold:50000}") int bulkLoadThreshold,
+            @Value("${app.import.sql-validation-threshold:100000}") int sqlValidationThreshold) {
         this.companyRepository = companyRepository;
-        this.zipMasterRepository = zipMasterRepository;
+        this.companyBulkRepository = companyBulkRepository;
+        this.zipMasterIndex = zipMasterIndex;
+        this.parallelThreshold = parallelThreshold;
+        this.flushSize = flushSize;
+        this.commitMode = commitMode;
+        this.bulkLoadThreshold = bulkLoadThreshold;
+        this.sqlValidationThreshold = sqlValidationThreshold;
+        this.importSqlValidator = importSqlValidator;
+        this.importRulePipeline = importRulePipeline;
+        this.importNearDuplicateDetector = importNearDuplicateDetector;
     }
 
     // Excel検証結果を返す
     // ファイル構造チェック→データエラーチェック→データ警告チェック
     public ImportResultDto importExcel(InputStream inputStream) {
+        return importExcel(inputStream, ImportProgressListener.NONE);
+    }
+
+    /** 検証（読み込んだ行数を flushSize 行ごとに listener へ通知する） */
+    public ImportResultDto importExcel(InputStream inputStream, ImportProgressListener listener) {
+        return importFile(inputStream, ImportFileType.XLSX, listener);
+    }
 
-        List<ImportRowDto> rows = ExcelHelper.parseExcel(inputStream);
+    /** 検証（xlsx / CSV / TSV。読み込み以降の検証・集計は形式によらず同じ） */
+    public ImportResultDto importFile(InputStream inputStream, ImportFileType fileType,
+            ImportProgressListener listener) {
+        return validate(readRows(consumer -> fileType.parse(inputStream, consumer), listener));
+    }
+
+    /** 検証（保存済みの xlsx ファイル。ストリームを先頭から展開せず、必要なエントリだけを読む） */
+    public ImportResultDto importExcelFile(Path file, ImportProgressListener listener) {
+        return validate(readRows(consumer -> ExcelHelper.parseExcel(file.toFile(), consumer), listener));
+    }
 
+    /** parser が通知する行を集める（flushSize 行ごとに listener へ通知する） */
+    private List<ImportRowDto> readRows(Consumer<Consumer<ImportRowDto>> parser, ImportProgressListener listener) {
+        List<ImportRowDto> rows = new ArrayList<>();
+        parser.accept(row -> {
+            rows.add(row);
+            if (rows.size() % flushSize == 0) {
+                listener.onProgress(rows.size());
+            }
+        });
+        return rows;
+    }
+
+    /** 読み込んだ行の検証と集計（行には検証結果を設定する） */
+    ImportResultDto validate(List<ImportRowDto> rows) {
         ImportResultDto result = new ImportResultDto();
 
-        // --- Excel 内の同名企業 / 同住所チェック用 ---
-        Map<String, List<Integer>> nameToRows = new HashMap<>();
-        Map<String, List<Integer>> addressToRows = new HashMap<>();
+        // --- 行をまたぐチェックとDB参照は先に一括で求めておく（以降の行ごとの検証は互いに独立） ---
+        ImportCrossRowFacts facts;
+        ImportPrefetch prefetch;
+        if (rows.size() >= sqlValidationThreshold) {
+            // 大きなファイルは一時表に登録し、重複・DB照合をSQLの集合演算で求める
+            ImportSqlValidator.Result sqlResult = importSqlValidator.analyze(rows);
+            facts = sqlResult.getFacts();
+            prefetch = sqlResult.getPrefetch();
+        } else {
+            facts = collectCrossRowFacts(rows);
+            // DB参照はここでまとめて取得し、以降の行ごとの検証はメモリ上で行う
+            prefetch = prefetch(rows);
+        }
 
-        // まず全件スキャンしてカウント
-        for (ImportRowDto r : rows) {
-            String name = normalizeString(r.getCompanyName());
-            String addr = normalizeString(r.getAddress());
+        // 表記ゆれを除くと似ている企業名（ファイル内・登録済み）
+        ImportNearDuplicates nearDuplicates = importNearDuplicateDetector.detect(rows);
 
-            if (name != null && !name.isEmpty()) {
-                nameToRows.computeIfAbsent(name, k -> new ArrayList<>()).add(r.getRowNum());
-            }
-            if (addr != null && !addr.isEmpty()) {
-                addressToRows.computeIfAbsent(addr, k -> new ArrayList<>()).add(r.getRowNum());
-            }
+        // --- 行ごとの検証（件数が多い場合は並列） ---
+        ImportRule.Context context = new ImportRule.Context(facts, prefetch, nearDuplicates);
+        ImportRulePipeline.Stats stats = importRulePipeline.newStats();
+        if (rows.size() >= parallelThreshold) {
+            ForkJoinPool.commonPool().invoke(new ValidateTask(rows, context, stats, 0, rows.size()));
+        } else {
+            validateRange(rows, context, stats, 0, rows.size());
         }
+        result.setRuleStats(importRulePipeline.publish(stats));
 
-        Set<String> excelCompanyIdSet = new HashSet<>();
-        Set<String> dbCompanyIdSet = companyRepository.findAllIds();
+        // --- 更新行のうち、DBと内容が同じ行（登録しても変わらない行）を判定 ---
+        markUnchanged(rows);
 
+        // --- 集計（ファイルの行順で行うため、並列でも結果は逐次処理と同じ） ---
         int success = 0;
         int worning = 0;
         int error = 0;
 
         for (ImportRowDto row : rows) {
-            List<String> errs = validateRow(row, excelCompanyIdSet, dbCompanyIdSet);
-
             result.getTotalList().add(row);
 
-            if (errs.isEmpty()) {
-
-                // 3. ★追加: 新規・更新の判定
-                if (row.getCompanyId() != null && !row.getCompanyId().isBlank()) {
-                    try {
-                        Integer id = Integer.parseInt(row.getCompanyId());
-                        // DBにIDが存在すれば「更新」、なければ「新規(ID指定)」
-                        boolean exists = companyRepository.existsById(id);
-                        row.setUpdate(exists);
-                    } catch (NumberFormatException e) {
-                        // IDが数値でない場合はバリデーションで弾かれているはずだが念のため
-                        row.setUpdate(false);
-                    }
-                } else {
-                    // IDなしなら「新規(自動採番)」
-                    row.setUpdate(false);
-                }
-
-                row.setValid(true);
-
-                List<String> warns = checkWarning(row, nameToRows, addressToRows);
-
-                if (warns.isEmpty()) {
-                    result.getSuccessList().add(row);
-                    success++;
-                } else {
-                    row.setWarningMessages(warns);
-                    row.setHasWarning(true);
-                    result.getWarningList().add(new ImportWorningDto(row.getRowNum(), warns));
-                    worning++;
-                }
-            } else {
-                row.setErrorMessages(errs);
-                row.setHasError(true);
-                row.setValid(false);
-                result.getErrorList().add(new ImportErrorDto(row.getRowNum(), errs));
+            if (row.isHasError()) {
                 error++;
+            } else if (row.isHasWarning()) {
+                worning++;
+            } else {
+                result.getSuccessList().add(row);
+                success++;
             }
         }
 
@@ -121,194 +174,202 @@ public class ExcelImportService {
         result.setSuccessCount(success);
         result.setWarningCount(worning);
         result.setErrorCount(error);
+        result.indexRows();
 
         return result;
     }
 
-    private boolean isBlank(String s) {
-        return s == null || s.trim().isEmpty();
-    }
-
-    // 行データのエラーチェック
-    private List<String> validateRow(ImportRowDto row, Set<String> excelCompanyIdSet, Set<String> dbCompanyIdSet) {
-        List<String> errors = new ArrayList<>();
+    /** ファイル内の同名・同住所・企業ID重複を集計する（ImportSqlValidator と同じ結果になること） */
+    ImportCrossRowFacts collectCrossRowFacts(List<ImportRowDto> rows) {
+        ImportCrossRowFacts facts = new ImportCrossRowFacts(rows.size());
+        Set<String> excelCompanyIdSet = new HashSet<>();
 
-        // -------- 1. 必須チェック --------
-        if (isBlank(row.getCompanyName())) {
-            errors.add("エラー：必須項目が空欄です：企業名を入力してください。");
-        }
-        if (isBlank(row.getZipCode())) {
-            errors.add("エラー：必須項目が空欄です：郵便番号を入力してください。");
-        }
-        if (isBlank(row.getAddress())) {
-            errors.add("エラー：必須項目が空欄です：住所を入力してください。");
-        }
+        // まず全件スキャンしてカウント
+        for (int i = 0; i < rows.size(); i++) {
+            ImportRowDto r = rows.get(i);
+            String name = normalizeString(r.getCompanyName());
+            String addr = normalizeString(r.getAddress());
 
-        // -------- 2. 企業ID 形式チェック --------
-        if (row.getCompanyId() != null && !isBlank(row.getCompanyId())) {
-            // 半角数字のみ
-            if (!row.getCompanyId().matches("\\d+")) {
-                errors.add("エラー：企業IDが正しい形式ではありません（半角数字のみ）。");
+            if (name != null && !name.isEmpty()) {
+                facts.getNameToRows().computeIfAbsent(name, k -> new ArrayList<>()).add(r.getRowNum());
             }
-
-            // Excel内で重複しているか？
-            if (excelCompanyIdSet.contains(row.getCompanyId())) {
-                errors.add("エラー：同一ファイル内で企業IDが重複しています。");
-            } else {
-                excelCompanyIdSet.add(row.getCompanyId());
+            if (addr != null && !addr.isEmpty()) {
+                facts.getAddressToRows().computeIfAbsent(addr, k -> new ArrayList<>()).add(r.getRowNum());
             }
 
-            // DB上に存在しないID（更新モードの場合）
-            if (!dbCompanyIdSet.contains(row.getCompanyId())) {
-                errors.add("エラー：企業IDが未登録のため更新できません。");
+            // 最初に出た行は重複扱いにしない
+            if (!isBlank(r.getCompanyId()) && !excelCompanyIdSet.add(r.getCompanyId())) {
+                facts.markDuplicateId(i);
             }
+        }
+        return facts;
+    }
 
-            try {
-                // 数値変換できるか、Integerの最大値を超えていないかチェック
-                int id = Integer.parseInt(row.getCompanyId());
-
-                // (オプション) IDは1以上であるべき
-                if (id < 1) {
-                    errors.add("エラー：企業IDは1以上の数値を指定してください。");
-                }
-            } catch (NumberFormatException e) {
-                errors.add("エラー：企業IDは数値（整数）で入力してください。");
+    /** 更新行のうち、DBの既存行と内容が同じものに unchanged を立てる */
+    private void markUnchanged(List<ImportRowDto> rows) {
+        List<ImportRowDto> updates = new ArrayList<>();
+        for (ImportRowDto row : rows) {
+            if (row.isValid() && row.isUpdate()) {
+                updates.add(row);
             }
         }
+        compareFingerprints(updates);
+    }
 
-        // -------- 3. 郵便番号形式 --------
-        if (!isBlank(row.getZipCode())) {
-            if (!row.getZipCode().matches("\\d{3}-\\d{4}")) {
-                errors.add("エラー：郵便番号の形式が不正です（例：123-4567）。");
+    /**
+     * 検証時に unchanged とした行を、確定登録の直前にDBと照合し直す。
+     * 検証結果はキャッシュされるため、その間に既存行が編集されていれば unchanged を外して登録対象に戻す。
+     */
+    public void recheckUnchanged(List<ImportRowDto> rows) {
+        List<ImportRowDto> unchanged = new ArrayList<>();
+        for (ImportRowDto row : rows) {
+            if (row.isUnchanged()) {
+                unchanged.add(row);
             }
         }
+        compareFingerprints(unchanged);
+    }
 
-        // -------- 5. 日付形式チェック --------
-        if (!isBlank(row.getRegistrationDate())) {
-            if (!isValidDate(row.getRegistrationDate())) {
-                errors.add("エラー：データ形式が不正です：日付として認識できません。");
+    /**
+     * 更新行の内容フィンガープリントをDBの既存行と比べ、同じなら unchanged を立て、違えば外す。
+     * 登録日は空欄なら既存の登録日が残るため比較せず、入力がある場合のみ一致を条件にする。
+     */
+    private void compareFingerprints(List<ImportRowDto> updates) {
+        for (int from = 0; from < updates.size(); from += FINGERPRINT_CHUNK_SIZE) {
+            List<ImportRowDto> chunk = updates.subList(from, Math.min(from + FINGERPRINT_CHUNK_SIZE, updates.size()));
+            Set<Integer> ids = new HashSet<>(chunk.size() * 2);
+            for (ImportRowDto row : chunk) {
+                ids.add(Integer.parseInt(row.getCompanyId()));
             }
-        }
+            Map<Integer, CompanyBulkRepository.StoredFingerprint> stored = companyBulkRepository.findFingerprints(ids);
 
-        // -------- 6. 文字数オーバー --------
-        // 企業名
-        if (!isBlank(row.getCompanyName()) && row.getCompanyName().length() > 100) {
-            errors.add("エラー：企業名の文字数が上限（100文字）を超えています。");
+            for (ImportRowDto row : chunk) {
+                CompanyBulkRepository.StoredFingerprint fp = stored.get(Integer.parseInt(row.getCompanyId()));
+                if (fp == null) {
+                    row.setUnchanged(false);
+                    continue;
+                }
+                LocalDate date = resolveRegistrationDate(row);
+                boolean same = fp.contentHash().equals(ContentFingerprint.of(
+                        row.getCompanyName(), row.getAddress(), row.getZipCode(), row.getRemarks()))
+                        && (date == null || date.equals(fp.registrationDate()));
+                row.setUnchanged(same);
+            }
         }
+    }
 
-        // 住所
-        if (!isBlank(row.getAddress()) && row.getAddress().length() > 200) {
-            errors.add("エラー：住所の文字数が上限（200文字）を超えています。");
-        }
+    /** rows の [from, to) を検証して、結果を各行に設定する */
+    private void validateRange(List<ImportRowDto> rows, ImportRule.Context context, ImportRulePipeline.Stats stats,
+            int from, int to) {
+        for (int i = from; i < to; i++) {
+            ImportRowDto row = rows.get(i);
+            ImportIssue[] errs = importRulePipeline.checkErrors(row, i, context, stats);
 
-        // 郵便番号
-        if (!isBlank(row.getZipCode()) && row.getZipCode().length() > 8) {
-            errors.add("エラー：郵便番号の文字数が上限（8文字）を超えています。");
-        }
+            if (errs.length == 0) {
 
-        // 備考
-        if (!isBlank(row.getRemarks()) && row.getRemarks().length() > 1000) {
-            errors.add("エラー：項目の文字数が上限を超えています（備考は1000文字まで）。");
-        }
+                // 3. ★追加: 新規・更新の判定
+                if (row.getCompanyId() != null && !row.getCompanyId().isBlank()) {
+                    // DBにIDが存在すれば「更新」、なければ「新規(ID指定)」
+                    // (IDが数値でない場合はバリデーションで弾かれているはずだが念のため false)
+                    row.setUpdate(context.prefetch().existsId(row.getCompanyId()));
+                } else {
+                    // IDなしなら「新規(自動採番)」
+                    row.setUpdate(false);
+                }
 
-        return errors;
-    }
+                row.setValid(true);
 
-    private boolean isValidDate(String dateStr) {
-        return parseFlexibleDate(dateStr) != null;
-    }
+                ImportIssue[] warns = importRulePipeline.checkWarnings(row, i, context, stats);
 
-    private LocalDate parseFlexibleDate(String text) {
-        if (isBlank(text))
-            return null;
-        String t = text.trim();
-        // try some common patterns in order:
-        String[] patterns = {
-                "yyyy-MM-dd", "yyyy/MM/dd", "yyyy-M-d", "yyyy/M/d", "yyyy年MM月dd日",
-                "M/d/yy", "MM/dd/yy", "M/d/yyyy", "MM/dd/yyyy"
-        };
-        for (String p : patterns) {
-            try {
-                DateTimeFormatter f = DateTimeFormatter.ofPattern(p);
-                return LocalDate.parse(t, f);
-            } catch (DateTimeParseException ex) {
-                // try next
+                if (warns.length > 0) {
+                    row.setWarningIssues(warns);
+                    row.setHasWarning(true);
+                }
+            } else {
+                row.setErrorIssues(errs);
+                row.setHasError(true);
+                row.setValid(false);
             }
         }
-        // If it's an ISO-like already, try LocalDate.parse
-        try {
-            return LocalDate.parse(t);
-        } catch (Exception e) {
-            return null;
-        }
     }
 
-    // 行データの警告チェック
-    private List<String> checkWarning(ImportRowDto row, Map<String, List<Integer>> excelNameToRows,
-            Map<String, List<Integer>> excelAddressToRows) {
-        List<String> warnings = new ArrayList<>();
-
-        String name = normalizeString(row.getCompanyName());
-        String addr = normalizeString(row.getAddress());
-
-        // 正式な企業名かと存在する企業名なのかチェックをする処理を後で追加
-
-        // 1) Excel内：同名企業（自分以外の行がある場合）
-        if (name != null && !name.isEmpty()) {
-            List<Integer> lines = excelNameToRows.getOrDefault(name, Collections.emptyList());
-            // 自分の行をのぞいたリストを作る
-            List<Integer> otherLines = lines.stream()
-                    .filter(rn -> rn != row.getRowNum())
-                    .collect(Collectors.toList());
-            if (!otherLines.isEmpty()) {
-                warnings.add("警告：" + buildDuplicateMessage("アップロードデータ内で同名の企業が複数あります。", otherLines));
-            }
+    /** 行を一定件数ごとに分割して並列に検証するタスク */
+    private class ValidateTask extends RecursiveAction {
+        private final List<ImportRowDto> rows;
+        private final ImportRule.Context context;
+        private final ImportRulePipeline.Stats stats;
+        private final int from;
+        private final int to;
+
+        ValidateTask(List<ImportRowDto> rows, ImportRule.Context context, ImportRulePipeline.Stats stats, int from,
+                int to) {
+            this.rows = rows;
+            this.context = context;
+            this.stats = stats;
+            this.from = from;
+            this.to = to;
         }
 
-        // 2) Excel内：同住所（自分以外）
-        if (addr != null && !addr.isEmpty()) {
-            List<Integer> lines = excelAddressToRows.getOrDefault(addr, Collections.emptyList());
-            List<Integer> otherLines = lines.stream()
-                    .filter(rn -> rn != row.getRowNum())
-                    .collect(Collectors.toList());
-            if (!otherLines.isEmpty()) {
-                warnings.add("警告：" + buildDuplicateMessage("アップロードデータ内で同じ住所が複数あります。", otherLines));
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_CHUNK_SIZE) {
+                validateRange(rows, context, stats, from, to);
+                return;
             }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ValidateTask(rows, context, stats, from, mid),
+                    new ValidateTask(rows, context, stats, mid, to));
         }
+    }
 
-        // 3) DBとのチェック（既存同名）
-        if ((row.getCompanyId() == null || row.getCompanyId().isEmpty())
-                && name != null && !name.isEmpty()) {
-            if (companyRepository.existsByCompanyName(row.getCompanyName())) {
-                warnings.add("警告：同名の企業が既に登録されています。");
-            }
-        }
+    /**
+     * ファイル内の企業ID・企業名・住所を重複なく集め、
+     * 件数ごとに分割した IN 句でまとめて問い合わせる。
+     * クエリ回数は行数ではなくチャンク数に比例する。
+     */
+    ImportPrefetch prefetch(List<ImportRowDto> rows) {
+        Set<Integer> ids = new HashSet<>();
+        Set<String> names = new HashSet<>();
+        Set<String> addresses = new HashSet<>();
 
-        // 4) 新規かつ DB で住所一致
-        if ((row.getCompanyId() == null || row.getCompanyId().isEmpty())
-                && addr != null && !addr.isEmpty()) {
-            if (companyRepository.existsByAddress(row.getAddress())) {
-                warnings.add("警告：既存企業と住所が一致しています。登録済みデータの可能性があります。");
+        for (ImportRowDto row : rows) {
+            boolean hasId = !isBlank(row.getCompanyId());
+            if (hasId) {
+                try {
+                    ids.add(Integer.parseInt(row.getCompanyId()));
+                } catch (NumberFormatException e) {
+                    // 形式エラーはバリデーションで検出する
+                }
+            } else {
+                // DBの同名・同住所チェックは新規行のみが対象
+                if (normalizeString(row.getCompanyName()) != null) {
+                    names.add(row.getCompanyName());
+                }
+                if (normalizeString(row.getAddress()) != null) {
+                    addresses.add(row.getAddress());
+                }
             }
         }
 
-        // 5) 登録日が未来日か（文字列もしくは既に ISO 日付文字列）
-        if (!isBlank(row.getRegistrationDate())) {
-            LocalDate d = parseFlexibleDate(row.getRegistrationDate());
-            if (d != null && d.isAfter(LocalDate.now())) {
-                warnings.add("警告：登録日が未来の日付になっています。");
-            }
-        }
+        return new ImportPrefetch(
+                new HashSet<>(findInChunks(ids, companyRepository::findExistingIds)),
+                new HashSet<>(findInChunks(names, companyRepository::findExistingCompanyNames)),
+                new HashSet<>(findInChunks(addresses, companyRepository::findExistingAddresses)),
+                zipMasterIndex.table());
+    }
 
-        // 6) 住所が極端に短い
-        if (!isBlank(row.getAddress()) && row.getAddress().length() <= 5) {
-            warnings.add("警告：住所が極端に短いため、番地などの入力漏れの可能性があります。");
+    private static <T, R> List<R> findInChunks(Collection<T> values, Function<List<T>, List<R>> query) {
+        List<R> results = new ArrayList<>();
+        List<T> all = new ArrayList<>(values);
+        for (int from = 0; from < all.size(); from += PREFETCH_CHUNK_SIZE) {
+            int to = Math.min(from + PREFETCH_CHUNK_SIZE, all.size());
+            results.addAll(query.apply(all.subList(from, to)));
         }
+        return results;
+    }
 
-        // 7) 郵便番号と住所の不整合
-        checkAddressConsistency(row, warnings);
-
-        return warnings;
+    private boolean isBlank(String s) {
+        return s == null || s.trim().isEmpty();
     }
 
     private String normalizeString(String s) {
@@ -318,77 +379,172 @@ public class ExcelImportService {
         return t.isEmpty() ? null : t;
     }
 
-    private String buildDuplicateMessage(String base, List<Integer> lines) {
-        String joined = lines.stream()
-                .map(Object::toString)
-                .collect(Collectors.joining(", "));
-        return base + "（" + joined + "行目）";
+    /**
+     * 確定登録（設定 app.import.commit-mode で方式を切り替える）
+     * - upsert : INSERT ... ON CONFLICT で新規・更新を1回で登録（既定）
+     * - jpa    : エンティティを読み込んで保存
+     * 件数が app.import.bulk-load-threshold 以上の場合は方式に関わらず COPY で一括登録する。
+     * （chunked はチャンクごとにトランザクションを分けるため ImportChunkedCommitService で行う）
+     */
+    @Transactional
+    public ImportCommitResultDto commit(List<ImportRowDto> targetList) {
+        return commit(targetList, ImportProgressListener.NONE);
     }
 
-    // 住所チェックロジック
-    private void checkAddressConsistency(ImportRowDto row, List<String> warnings) {
-        String inputZip = row.getZipCode();
-        String inputAddress = row.getAddress();
+    /** 確定登録（登録済みの行数を listener へ通知する） */
+    @Transactional
+    public ImportCommitResultDto commit(List<ImportRowDto> targetList, ImportProgressListener listener) {
+        if (targetList.size() >= bulkLoadThreshold) {
+            return bulkLoadValidData(targetList, listener);
+        }
+        if ("jpa".equals(commitMode)) {
+            saveValidData(targetList, listener);
+
+            ImportCommitResultDto result = new ImportCommitResultDto();
+            int updated = (int) targetList.stream().filter(ImportRowDto::isUpdate).count();
+            result.setUpdatedCount(updated);
+            result.setInsertedCount(targetList.size() - updated);
+            return result;
+        }
+        return upsertValidData(targetList, listener);
+    }
 
-        if (isBlank(inputZip) || isBlank(inputAddress))
-            return;
+    /**
+     * 確定登録（upsert方式）
+     * flushSize 件ずつ複数行の INSERT ... ON CONFLICT (company_id) DO UPDATE を送る。
+     * 既存行の読み込みやダーティチェックを行わないため、更新も1往復で済む。
+     */
+    @Transactional
+    public ImportCommitResultDto upsertValidData(List<ImportRowDto> targetList) {
+        return upsertValidData(targetList, ImportProgressListener.NONE);
+    }
 
-        // 1. 郵便番号の正規化（ハイフン除去）
-        String cleanZip = inputZip.replace("-", "");
+    @Transactional
+    public ImportCommitResultDto upsertValidData(List<ImportRowDto> targetList, ImportProgressListener listener) {
+        ImportCommitResultDto result = new ImportCommitResultDto();
 
-        // 2. マスタ検索
-        ZipMaster master = zipMasterRepository.findByZipCode(cleanZip);
+        for (int from = 0; from < targetList.size(); from += flushSize) {
+            List<ImportRowDto> chunk = targetList.subList(from, Math.min(from + flushSize, targetList.size()));
 
-        // マスタにない郵便番号の場合はスキップ（または「郵便番号が存在しません」と警告）
-        if (master == null) {
-            warnings.add("警告：郵便番号が存在しません ");
-            return;
-        }
+            List<Company> companies = new ArrayList<>(chunk.size());
+            for (ImportRowDto row : chunk) {
+                companies.add(toCompanyValues(row));
+            }
 
-        // --- ① 市区町村まで ---
-        String expectedBase = master.getCity() + master.getPrefecture();
-        String masterTown = master.getTown();
-        if (!inputAddress.startsWith(expectedBase)) {
-            warnings.add(String.format(
-                    "警告：住所と郵便番号が一致しない可能性があります（郵便番号 %s は %s%s です）。",
-                    inputZip, expectedBase, masterTown));
-            return; // 市区町村ズレは強めなのでここで止める
+            int[] counts = companyBulkRepository.upsert(companies);
+            result.setInsertedCount(result.getInsertedCount() + counts[0]);
+            result.setUpdatedCount(result.getUpdatedCount() + counts[1]);
+            listener.onProgress(from + chunk.size());
         }
+        return result;
+    }
 
-        // 4. 町名チェック（町名が書かれている場合のみ）
-        if (!isBlank(masterTown)) {
+    /**
+     * 確定登録（COPY方式）
+     * 全件を COPY でステージング表に送り、1回の INSERT ... SELECT で反映する。
+     * 行は送信時に1件ずつ変換するため、変換後のデータを全件保持することはない。
+     */
+    @Transactional
+    public ImportCommitResultDto bulkLoadValidData(List<ImportRowDto> targetList) {
+        return bulkLoadValidData(targetList, ImportProgressListener.NONE);
+    }
 
-            // 入力住所に「町名っぽい情報」が含まれているか
-            boolean townWritten = inputAddress.contains("町")
-                    || inputAddress.contains("丁目")
-                    || inputAddress.contains(masterTown);
+    @Transactional
+    public ImportCommitResultDto bulkLoadValidData(List<ImportRowDto> targetList, ImportProgressListener listener) {
+        // 進捗は COPY で送信した行数（反映の INSERT ... SELECT は1回なので途中経過はない）
+        Iterable<Company> companies = () -> IntStream.range(0, targetList.size())
+                .mapToObj(i -> {
+                    if (i > 0 && i % flushSize == 0) {
+                        listener.onProgress(i);
+                    }
+                    return toCompanyValues(targetList.get(i));
+                })
+                .iterator();
+        int[] counts = companyBulkRepository.copyLoad(companies);
+        listener.onProgress(targetList.size());
+
+        ImportCommitResultDto result = new ImportCommitResultDto();
+        result.setInsertedCount(counts[0]);
+        result.setUpdatedCount(counts[1]);
+        return result;
+    }
 
-            // 町名が書かれているのに、マスタ町名と一致しない場合だけ警告
-            if (townWritten && !inputAddress.contains(masterTown)) {
-                warnings.add("警告：町名が郵便番号の情報と一致していません。");
-            }
+    /** SQLでの一括登録用に、行の値をエンティティ（非管理）に詰め替える（分割コミットからも使う） */
+    Company toCompanyValues(ImportRowDto row) {
+        Company company = new Company();
+        if (row.getCompanyId() != null && !row.getCompanyId().isBlank()) {
+            company.setCompanyId(Integer.parseInt(row.getCompanyId()));
         }
+        company.setCompanyName(row.getCompanyName());
+        company.setAddress(row.getAddress());
+        company.setZipCode(row.getZipCode());
+        company.setRemarks(row.getRemarks());
+        // 空欄なら null（既存は元の登録日、新規は本日になる）
+        company.setRegistrationDate(resolveRegistrationDate(row));
+        return company;
+    }
 
-        // 丁目と番地チェックを余裕があれば追加
+    /** Excelの登録日を日付に変換（空欄なら null、解釈できなければ本日） */
+    private LocalDate resolveRegistrationDate(ImportRowDto row) {
+        if (!StringUtils.hasText(row.getRegistrationDate())) {
+            return null;
+        }
+        // 検証時に解釈済みの日付を使う（未検証の行のみここで解釈する）
+        LocalDate date = row.getParsedRegistrationDate();
+        if (date == null) {
+            date = DateHelper.parseFlexible(row.getRegistrationDate());
+        }
+        return date != null ? date : LocalDate.now();
     }
 
     /**
      * ★追加: 確定登録処理
      * 有効なデータだけをDBに保存する
+     *
+     * flushSize 件ごとに、更新対象をまとめて取得 → 詰め替え → flush/clear する。
+     * INSERT/UPDATE は JDBC バッチで送られ、永続化コンテキストも一定サイズに保たれる。
      */
     @Transactional // トランザクション制御（途中で失敗したら全部ロールバック）
     public void saveValidData(List<ImportRowDto> successList) {
+        saveValidData(successList, ImportProgressListener.NONE);
+    }
+
+    @Transactional
+    public void saveValidData(List<ImportRowDto> successList, ImportProgressListener listener) {
+
+        for (int from = 0; from < successList.size(); from += flushSize) {
+            List<ImportRowDto> chunk = successList.subList(from, Math.min(from + flushSize, successList.size()));
+            saveChunk(chunk);
+
+            // バッチを送信し、管理中のエンティティを解放する
+            entityManager.flush();
+            entityManager.clear();
+            listener.onProgress(from + chunk.size());
+        }
+    }
+
+    private void saveChunk(List<ImportRowDto> chunk) {
 
-        // 日付フォーマットの定義 (Excelの入力形式に合わせる)
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy/MM/dd");
+        // 更新対象はまとめて取得する
+        Set<Integer> updateIds = new HashSet<>();
+        for (ImportRowDto row : chunk) {
+            if (row.getCompanyId() != null && !row.getCompanyId().isBlank()) {
+                updateIds.add(Integer.parseInt(row.getCompanyId()));
+            }
+        }
+        Map<Integer, Company> existing = new HashMap<>();
+        for (Company c : companyRepository.findAllById(updateIds)) {
+            existing.put(c.getCompanyId(), c);
+        }
 
-        for (ImportRowDto row : successList) {
+        for (ImportRowDto row : chunk) {
             Company company;
 
             // IDがある場合は「更新」、ない場合は「新規」
-            if (row.getCompanyId() != null && !row.getCompanyId().isBlank()) {
+            boolean isNew = row.getCompanyId() == null || row.getCompanyId().isBlank();
+            if (!isNew) {
                 Integer id = Integer.parseInt(row.getCompanyId());
-                company = companyRepository.findById(id).orElse(null);
+                company = existing.get(id);
                 if (company == null)
                     continue;
             } else {
@@ -403,13 +559,8 @@ public class ExcelImportService {
             company.setRemarks(row.getRemarks());
 
             if (StringUtils.hasText(row.getRegistrationDate())) {
-                try {
-                    // Excelに値がある場合
-                    LocalDate date = LocalDate.parse(row.getRegistrationDate(), formatter);
-                    company.setRegistrationDate(date);
-                } catch (DateTimeParseException e) {
-                    company.setRegistrationDate(LocalDate.now());
-                }
+                // Excelに値がある場合（upsert・COPY と同じ解釈）
+                company.setRegistrationDate(resolveRegistrationDate(row));
             } else {
                 // Excelが空欄の場合
                 if (company.getRegistrationDate() == null) {
@@ -418,7 +569,10 @@ public class ExcelImportService {
                 }
             }
 
-            companyRepository.save(company);
+            // 更新対象は管理状態なので flush 時に UPDATE される
+            if (isNew) {
+                companyRepository.save(company);
+            }
         }
     }
 
@@ -0,0 +1,209 @@
+package com.example.company_directory.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.company_directory.repository.CompanyBulkRepository;
+import com.example.company_directory.util.CompanyNameMatcher;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * 登録済み企業名の索引（類似企業名の検出用）。
+ *
+ * 削除されていない企業の比較用キーと CompanyNameMatcher.bandKeys の値を、データの版数
+ * （CompanyBulkRepository.currentDataVersion）とともに保持する。検証のたびに全件を読まないようにするため、
+ * - 初回だけは作成を待つ
+ * - 版数が変わっていれば作成済みの索引をそのまま使い、裏で作り直す
+ *   （類似企業名は確認を促す警告なので、直前の変更が反映される前の索引で検証しても支障はない）
+ */
+@Component
+public class ExistingCompanyNameIndex {
+    private static final Logger log = LoggerFactory.getLogger(ExistingCompanyNameIndex.class);
+
+    // 登録済み企業名を読み込む単位
+    private static final int FETCH_SIZE = 10_000;
+    // 帯の値の上位ビットと索引内の位置（下位24ビット）を1つの long に詰めて並べる
+    private static final int POSITION_BITS = 24;
+    private static final long POSITION_MASK = (1L << POSITION_BITS) - 1;
+    private static final int MAX_COMPANIES = 1 << POSITION_BITS;
+
+    private final CompanyBulkRepository companyBulkRepository;
+    // 版数と企業名が同じ時点のものになるよう REPEATABLE READ で読む（検証中のトランザクションとは分ける）
+    private final TransactionTemplate snapshotTx;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("company-name-index").factory());
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile Snapshot snapshot;
+
+    public ExistingCompanyNameIndex(CompanyBulkRepository companyBulkRepository,
+            PlatformTransactionManager transactionManager) {
+        this.companyBulkRepository = companyBulkRepository;
+        this.snapshotTx = new TransactionTemplate(transactionManager);
+        this.snapshotTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.snapshotTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTx.setReadOnly(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /** 現在の索引（データが変わっていれば裏で作り直しを始め、作り直しが終わるまでは作成済みの索引を返す） */
+    public Snapshot current() {
+        Snapshot s = snapshot;
+        if (s == null) {
+            synchronized (this) {
+                s = snapshot;
+                if (s == null) {
+                    s = build();
+                    snapshot = s;
+                }
+            }
+            return s;
+        }
+        if (s.version != companyBulkRepository.currentDataVersion()) {
+            refreshAsync();
+        }
+        return s;
+    }
+
+    private void refreshAsync() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                snapshot = build();
+            } catch (RuntimeException e) {
+                log.warn("登録済み企業名の索引の作成に失敗しました", e);
+            } finally {
+                rebuilding.set(false);
+            }
+        });
+    }
+
+    private Snapshot build() {
+        return snapshotTx.execute(status -> {
+            long start = System.currentTimeMillis();
+            long version = companyBulkRepository.currentDataVersion();
+            Builder builder = new Builder();
+            companyBulkRepository.streamActiveNames(FETCH_SIZE, rs -> builder.add(rs.getInt(1), rs.getString(2)));
+            Snapshot s = builder.build(version);
+            log.info("登録済み企業名の索引を作成しました: {}件, 版数 {}, {}ms",
+                    s.size(), version, System.currentTimeMillis() - start);
+            return s;
+        });
+    }
+
+    /** 作成済みの索引（変更しない） */
+    public static final class Snapshot {
+        private final long version;
+        private final int[] companyIds;
+        private final String[] keys;
+        // 前後空白を除いた企業名（同名の企業は同名警告の対象なので類似の候補から除く）
+        private final String[] names;
+        // 帯の値の上位ビット | 位置（昇順）
+        private final long[] entries;
+
+        private Snapshot(long version, int[] companyIds, String[] keys, String[] names, long[] entries) {
+            this.version = version;
+            this.companyIds = companyIds;
+            this.keys = keys;
+            this.names = names;
+            this.entries = entries;
+        }
+
+        public int size() {
+            return companyIds.length;
+        }
+
+        /** 帯の値が一致する企業の位置（索引内の番号） */
+        public int[] positions(long band) {
+            long prefix = band & ~POSITION_MASK;
+            int from = Arrays.binarySearch(entries, prefix);
+            if (from < 0) {
+                from = -from - 1;
+            }
+            int to = from;
+            while (to < entries.length && (entries[to] & ~POSITION_MASK) == prefix) {
+                to++;
+            }
+            int[] positions = new int[to - from];
+            for (int i = from; i < to; i++) {
+                positions[i - from] = (int) (entries[i] & POSITION_MASK);
+            }
+            return positions;
+        }
+
+        public int companyId(int position) {
+            return companyIds[position];
+        }
+
+        public String key(int position) {
+            return keys[position];
+        }
+
+        /** 前後空白を除いた企業名が name と同じか */
+        public boolean sameName(int position, String name) {
+            return names[position].equals(name);
+        }
+    }
+
+    /** 索引の作成（読み込んだ順に追加し、最後に帯の値で並べる） */
+    private static final class Builder {
+        private final List<String> keys = new ArrayList<>();
+        private final List<String> names = new ArrayList<>();
+        private int[] companyIds = new int[1024];
+        private long[] entries = new long[1024 * 6];
+        private int entryCount;
+        private boolean truncated;
+
+        void add(int companyId, String name) {
+            String key = CompanyNameMatcher.normalize(name);
+            if (key.isEmpty()) {
+                return;
+            }
+            int position = keys.size();
+            if (position >= MAX_COMPANIES) {
+                if (!truncated) {
+                    truncated = true;
+                    log.warn("登録済み企業が多すぎるため、{}件目以降は類似企業名の照合対象にしません", MAX_COMPANIES);
+                }
+                return;
+            }
+            if (position == companyIds.length) {
+                companyIds = Arrays.copyOf(companyIds, position * 2);
+            }
+            keys.add(key);
+            companyIds[position] = companyId;
+            names.add(name.trim());
+            for (long band : CompanyNameMatcher.bandKeys(key)) {
+                if (entryCount == entries.length) {
+                    entries = Arrays.copyOf(entries, entryCount * 2);
+                }
+                entries[entryCount++] = (band & ~POSITION_MASK) | position;
+            }
+        }
+
+        Snapshot build(long version) {
+            long[] sorted = Arrays.copyOf(entries, entryCount);
+            Arrays.parallelSort(sorted);
+            int size = keys.size();
+            return new Snapshot(version, Arrays.copyOf(companyIds, size), keys.toArray(new String[0]),
+                    names.toArray(new String[0]), sorted);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.company_directory.service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * エクスポートの成果物の保存領域。
+ *
+ * - 成果物は専用ディレクトリ（app.export.artifact.dir）に「キャッシュキー + 拡張子」で保存する
+ * - 作成中は一時ファイルに書き、書き終わってから名前を変えて公開する（作成途中のファイルを配信しない）
+ * - 最後に使われてから保持時間（app.export.artifact.ttl-minutes）を過ぎたファイルは
+ *   ExportArtifactSweepScheduler が定期的に削除する（最終更新日時を最終利用日時として使う）
+ */
+@Component
+public class ExportArtifactStore {
+    private static final Logger log = LoggerFactory.getLogger(ExportArtifactStore.class);
+
+    // 公開する名前の形式（キャッシュキーは SHA-256 の16進）
+    private static final Pattern FILE_NAME_PATTERN = Pattern.compile("[0-9a-f]{64}\\.(xlsx|csv|csv\\.gz)");
+    private static final String TEMP_PREFIX = "export-";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final long ttlMillis;
+    private final Counter evictedCounter;
+
+    public ExportArtifactStore(
+            @Value("${app.export.artifact.dir:}") String dir,
+            @Value("${app.export.artifact.ttl-minutes:60}") long ttlMinutes,
+            MeterRegistry meterRegistry) throws IOException {
+        this.directory = StringUtils.hasText(dir)
+                ? Paths.get(dir)
+                : Paths.get(System.getProperty("java.io.tmpdir"), "company-directory-exports");
+        this.ttlMillis = ttlMinutes * 60 * 1000;
+        Files.createDirectories(directory);
+
+        this.evictedCounter = Counter.builder("export.artifact.evicted")
+                .description("保持期限切れで削除したエクスポートの成果物数")
+                .register(meterRegistry);
+    }
+
+    /** 公開済みの成果物があれば、最終利用日時を更新してそのパスを返す（なければ null） */
+    public Path find(String name) {
+        Path file = resolve(name);
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return file;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            // 日時を更新できなくても配信はできる
+            log.warn("成果物の最終利用日時を更新できませんでした: {}", name, e);
+            return Files.exists(file) ? file : null;
+        }
+    }
+
+    /** 作成用の一時ファイル（publish で公開するか、失敗時は discard で削除する） */
+    public Path createTemp() throws IOException {
+        return Files.createTempFile(directory, TEMP_PREFIX, TEMP_SUFFIX);
+    }
+
+    /** 書き終えた一時ファイルを name で公開する（同じキーの成果物は内容も同じなので、既にあれば置き換える） */
+    public Path publish(Path temp, String name) throws IOException {
+        Path file = resolve(name);
+        try {
+            return Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            discard(temp);
+            throw e;
+        }
+    }
+
+    public void discard(Path temp) {
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            log.warn("一時ファイルの削除に失敗しました: {}", temp, e);
+        }
+    }
+
+    /** 保持期限を過ぎた成果物（と中断で残った一時ファイル）を削除し、削除した件数を返す */
+    public int sweepExpired() {
+        long threshold = System.currentTimeMillis() - ttlMillis;
+        int removed = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                boolean managed = FILE_NAME_PATTERN.matcher(name).matches()
+                        || (name.startsWith(TEMP_PREFIX) && name.endsWith(TEMP_SUFFIX));
+                try {
+                    if (managed && Files.getLastModifiedTime(file).toMillis() < threshold
+                            && Files.deleteIfExists(file)) {
+                        removed++;
+                    }
+                } catch (NoSuchFileException e) {
+                    // 同時に公開・削除されたファイルは対象外
+                } catch (IOException e) {
+                    log.warn("成果物の削除に失敗しました: {}", name, e);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("成果物の保存先を読み込めませんでした: {}", directory, e);
+        }
+        evictedCounter.increment(removed);
+        return removed;
+    }
+
+    /** 名前を検証して保存先のパスにする（形式が違う名前はディレクトリ外の参照を防ぐため拒否する） */
+    private Path resolve(String name) {
+        if (name == null || !FILE_NAME_PATTERN.matcher(name).matches()) {
+            throw new RuntimeException("成果物の名前が不正です。");
+        }
+        return directory.resolve(name);
+    }
+}
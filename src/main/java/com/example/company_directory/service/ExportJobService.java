@@ -0,0 +1,353 @@
+package com.example.company_directory.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import com.example.company_directory.entity.ExportJob;
+import com.example.company_directory.form.ExportForm;
+import com.example.company_directory.repository.CompanyBulkRepository;
+import com.example.company_directory.repository.ExportJobRepository;
+import com.example.company_directory.util.ExportColumn;
+import com.example.company_directory.util.ExportFormat;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * エクスポートをバックグラウンドジョブとして実行し、成果物をファイルとして残す。
+ *
+ * - 成果物は「対象・検索条件・列・並び順・形式・データの版数」の SHA-256（キャッシュキー）で保存し、
+ *   同じ内容の依頼はデータが変わるまで作成済みのファイルをそのまま返す（キャッシュキーは ETag にも使う）
+ * - 同じキーの成果物を作成中に届いた依頼は、作成を1回にまとめて完了を待つ
+ *   （まとめたジョブはすべて、作成の開始時に RUNNING になる）
+ * - 作成は app.export.max-concurrent-jobs 件まで同時に行い、待ちは app.export.queue-capacity 件まで
+ *   （超えた依頼はすぐに失敗として返す）
+ * - 状態は export_jobs に記録し、画面はそれをポーリングする
+ */
+@Service
+public class ExportJobService {
+    private static final Logger log = LoggerFactory.getLogger(ExportJobService.class);
+
+    // ExportJob.errorMessage / fileName のカラム長
+    private static final int MESSAGE_LENGTH = 500;
+    private static final int FILE_NAME_LENGTH = 255;
+
+    private final ExportJobRepository exportJobRepository;
+    private final CompanyService companyService;
+    private final CompanyBulkRepository companyBulkRepository;
+    private final ExportArtifactStore exportArtifactStore;
+    // 状態の記録は作成中の読み取りとは別トランザクションで即時にコミットする
+    private final TransactionTemplate requiresNewTx;
+    // 版数と出力内容が同じ時点のデータになるよう、成果物は REPEATABLE READ の読み取り専用トランザクションで作る
+    private final TransactionTemplate snapshotTx;
+    private final ThreadPoolExecutor executor;
+    // 作成中の成果物（依頼時のキャッシュキー → 作成）
+    private final Map<String, Build> builds = new ConcurrentHashMap<>();
+
+    public ExportJobService(ExportJobRepository exportJobRepository, CompanyService companyService,
+            CompanyBulkRepository companyBulkRepository, ExportArtifactStore exportArtifactStore,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.export.max-concurrent-jobs:2}") int maxConcurrentJobs,
+            @Value("${app.export.queue-capacity:20}") int queueCapacity) {
+        this.exportJobRepository = exportJobRepository;
+        this.companyService = companyService;
+        this.companyBulkRepository = companyBulkRepository;
+        this.exportArtifactStore = exportArtifactStore;
+        this.requiresNewTx = new TransactionTemplate(transactionManager);
+        this.requiresNewTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.snapshotTx = new TransactionTemplate(transactionManager);
+        this.snapshotTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTx.setReadOnly(true);
+        this.executor = new ThreadPoolExecutor(maxConcurrentJobs, maxConcurrentJobs, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), Thread.ofVirtual().name("export-", 0).factory());
+    }
+
+    /** 起動時、前回の実行中に停止したジョブを失敗扱いにする */
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedJobs() {
+        Integer count = requiresNewTx.execute(status -> exportJobRepository.failAll(
+                EnumSet.of(ExportJob.Status.QUEUED, ExportJob.Status.RUNNING),
+                "サーバーの再起動により中断されました。", LocalDateTime.now()));
+        if (count != null && count > 0) {
+            log.warn("中断されたエクスポートジョブを失敗扱いにしました: {}件", count);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public Optional<ExportJob> findJob(String jobId) {
+        return exportJobRepository.findById(jobId);
+    }
+
+    /** 完了したジョブの成果物（保持期限切れで削除済みなら空） */
+    public Optional<Path> findArtifact(ExportJob job) {
+        if (job.getStatus() != ExportJob.Status.SUCCEEDED) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(exportArtifactStore.find(artifactName(job)));
+    }
+
+    /**
+     * エクスポートジョブを登録する。
+     * 同じ内容の成果物が現在のデータの版数で作成済みなら、作成せずに完了したジョブを返す。
+     */
+    public ExportJob submit(ExportForm form) {
+        String key = cacheKey(form, companyBulkRepository.currentDataVersion());
+        ExportJob job = createJob(form, key);
+
+        Path artifact = exportArtifactStore.find(artifactName(job));
+        if (artifact != null) {
+            job.setCached(true);
+            job.setFileSize(sizeOf(artifact));
+            job.setStartedAt(job.getCreatedAt());
+            finish(job, ExportJob.Status.SUCCEEDED, null);
+            return job;
+        }
+
+        Build build;
+        try {
+            build = builds.computeIfAbsent(key, k -> new Build(form, k));
+        } catch (RejectedExecutionException e) {
+            finish(job, ExportJob.Status.FAILED, "エクスポートの実行待ちが上限に達しています。しばらくしてから再度お試しください。");
+            return job;
+        }
+        // 作成が既に始まっていれば、このジョブもその時点から実行中とする
+        LocalDateTime startedAt = build.join(job);
+        if (startedAt != null) {
+            markRunning(job, startedAt);
+        }
+        build.future.whenComplete((actualKey, error) -> {
+            builds.remove(key, build);
+            complete(job, actualKey, error);
+        });
+        return job;
+    }
+
+    /** 1つのキャッシュキーの成果物の作成と、その完了を待つジョブ */
+    private final class Build {
+        private final List<ExportJob> waitingJobs = new ArrayList<>();
+        private LocalDateTime startedAt;
+        // 作成に使ったキャッシュキー（実行待ちの上限を超えていれば RejectedExecutionException）
+        private final CompletableFuture<String> future;
+
+        Build(ExportForm form, String key) {
+            this.future = CompletableFuture.supplyAsync(() -> {
+                LocalDateTime now = LocalDateTime.now();
+                for (ExportJob job : start(now)) {
+                    markRunning(job, now);
+                }
+                return build(form, key);
+            }, executor);
+        }
+
+        /** ジョブを加える（作成が始まっていればその開始日時、まだなら null） */
+        synchronized LocalDateTime join(ExportJob job) {
+            if (startedAt == null) {
+                waitingJobs.add(job);
+            }
+            return startedAt;
+        }
+
+        /** 作成の開始を記録し、それまでに加わったジョブを返す */
+        synchronized List<ExportJob> start(LocalDateTime now) {
+            startedAt = now;
+            List<ExportJob> jobs = List.copyOf(waitingJobs);
+            waitingJobs.clear();
+            return jobs;
+        }
+    }
+
+    private void markRunning(ExportJob job, LocalDateTime startedAt) {
+        job.setStatus(ExportJob.Status.RUNNING);
+        job.setStartedAt(startedAt);
+        save(job);
+    }
+
+    /** 成果物を作成し、作成に使ったキャッシュキーを返す（依頼を受けた後にデータが変わっていれば、その時点の版数のキー） */
+    private String build(ExportForm form, String key) {
+        return snapshotTx.execute(status -> {
+            long start = System.currentTimeMillis();
+            String actualKey = cacheKey(form, companyBulkRepository.currentDataVersion());
+            String name = actualKey + suffixOf(form);
+            if (!actualKey.equals(key) && exportArtifactStore.find(name) != null) {
+                return actualKey;
+            }
+
+            Path temp;
+            try {
+                temp = exportArtifactStore.createTemp();
+            } catch (IOException e) {
+                throw new RuntimeException("エクスポートファイルの作成に失敗しました。", e);
+            }
+            try {
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                    companyService.export(form, out);
+                }
+                exportArtifactStore.publish(temp, name);
+            } catch (IOException e) {
+                exportArtifactStore.discard(temp);
+                throw new RuntimeException("エクスポートファイルの作成に失敗しました。", e);
+            } catch (RuntimeException e) {
+                exportArtifactStore.discard(temp);
+                throw e;
+            }
+            log.info("エクスポートの成果物を作成しました: key = {}, {}ms", actualKey, System.currentTimeMillis() - start);
+            return actualKey;
+        });
+    }
+
+    /** 作成の完了をジョブに記録する */
+    private void complete(ExportJob job, String actualKey, Throwable error) {
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause()
+                    : error;
+            log.warn("エクスポートジョブ失敗: jobId = {}", job.getJobId(), cause);
+            finish(job, ExportJob.Status.FAILED,
+                    cause.getMessage() != null ? cause.getMessage() : "エクスポートに失敗しました。");
+            return;
+        }
+        job.setCacheKey(actualKey);
+        Path artifact = exportArtifactStore.find(artifactName(job));
+        if (artifact == null) {
+            finish(job, ExportJob.Status.FAILED, "エクスポートファイルが見つかりません。再度エクスポートしてください。");
+            return;
+        }
+        job.setFileSize(sizeOf(artifact));
+        finish(job, ExportJob.Status.SUCCEEDED, null);
+    }
+
+    /**
+     * 成果物のキャッシュキー。
+     * 出力内容を決める項目だけを正規化して連結し、SHA-256 の16進にする（ファイル名は含めない）。
+     * 対象・並び順の解釈は CompanyService.export と揃えること。
+     */
+    static String cacheKey(ExportForm form, long dataVersion) {
+        String scope = "SELECTION".equals(form.getScope()) || "SEARCH".equals(form.getScope())
+                ? form.getScope()
+                : "ALL";
+        StringBuilder sb = new StringBuilder();
+        sb.append("scope=").append(scope).append('\n');
+        if ("SELECTION".equals(scope)) {
+            sb.append("ids=").append(form.getSelectedIds() == null ? "" : form.getSelectedIds().stream()
+                    .distinct()
+                    .sorted()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(","))).append('\n');
+        } else if ("SEARCH".equals(scope)) {
+            // 空文字は条件なしとして扱われるため未指定と同じにする
+            sb.append("keyword=").append(text(form.getKeyword())).append('\n');
+            sb.append("companyId=").append(form.getCompanyId() == null ? "" : form.getCompanyId()).append('\n');
+            sb.append("companyName=").append(text(form.getCompanyName())).append('\n');
+            sb.append("address=").append(text(form.getAddress())).append('\n');
+            sb.append("zipCode=").append(text(form.getZipCode())).append('\n');
+            sb.append("dateFrom=").append(date(form.getDateFrom())).append('\n');
+            sb.append("dateTo=").append(date(form.getDateTo())).append('\n');
+        }
+        List<ExportColumn> columns = ExportColumn.select(form.getColumns());
+        sb.append("columns=").append(columns.stream().map(ExportColumn::getKey).collect(Collectors.joining(",")))
+                .append('\n');
+        sb.append("sort=").append(CompanyService.exportSort(form)).append('\n');
+        sb.append("format=").append(form.toExportFormat().name()).append(form.isGzipped() ? "+gzip" : "")
+                .append('\n');
+        sb.append("version=").append(dataVersion);
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(sb.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private ExportJob createJob(ExportForm form, String key) {
+        ExportJob job = new ExportJob();
+        job.setJobId(UUID.randomUUID().toString());
+        job.setStatus(ExportJob.Status.QUEUED);
+        job.setCacheKey(key);
+        job.setFormat(form.toExportFormat().name());
+        job.setGzip(form.isGzipped());
+        job.setFileName(truncate(form.toDownloadFileName(), FILE_NAME_LENGTH));
+        job.setCreatedAt(LocalDateTime.now());
+        save(job);
+        return job;
+    }
+
+    private static String artifactName(ExportJob job) {
+        return job.getCacheKey() + ExportFormat.valueOf(job.getFormat()).suffix(job.isGzip());
+    }
+
+    private static String suffixOf(ExportForm form) {
+        return form.toExportFormat().suffix(form.isGzipped());
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private void finish(ExportJob job, ExportJob.Status status, String errorMessage) {
+        job.setStatus(status);
+        job.setErrorMessage(truncate(errorMessage, MESSAGE_LENGTH));
+        job.setFinishedAt(LocalDateTime.now());
+        save(job);
+    }
+
+    // カラム長に収める
+    private static String truncate(String value, int length) {
+        if (value != null && value.length() > length) {
+            return value.substring(0, length);
+        }
+        return value;
+    }
+
+    private static String text(String value) {
+        return StringUtils.hasText(value) ? value : "";
+    }
+
+    private static String date(LocalDate value) {
+        return value == null ? "" : value.toString();
+    }
+
+    private void save(ExportJob job) {
+        requiresNewTx.executeWithoutResult(status -> exportJobRepository.save(job));
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.company_directory.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.company_directory.dto.ImportCommitResultDto;
+import com.example.company_directory.dto.ImportErrorDto;
+import com.example.company_directory.dto.ImportRowDto;
+import com.example.company_directory.entity.Company;
+import com.example.company_directory.entity.ImportCheckpoint;
+import com.example.company_directory.repository.CompanyBulkRepository;
+import com.example.company_directory.repository.ImportCheckpointRepository;
+
+/**
+ * 確定登録（分割コミット方式 app.import.commit-mode=chunked）
+ *
+ * - app.import.chunk-size 行ごとに1トランザクションで upsert し、同じトランザクションでチェックポイントを進める
+ * - 途中で失敗した場合は、同じアップロードを再度登録するとチェックポイントの次の行から再開する
+ * - 最後まで登録したら、結果を読み出したうえでチェックポイントを削除する
+ *   （再開されずに残ったものは、アップロードの期限切れ時に ImportUploadSweepScheduler が削除する）
+ * - データ起因で登録できない行（制約違反・桁あふれなど）はチャンクを二分して特定し、その行だけを除いて続ける
+ */
+@Service
+public class ImportChunkedCommitService {
+    private static final Logger log = LoggerFactory.getLogger(ImportChunkedCommitService.class);
+
+    // ImportCheckpoint.FailedRow.message のカラム長
+    private static final int MESSAGE_LENGTH = 500;
+
+    private final ExcelImportService excelImportService;
+    private final CompanyBulkRepository companyBulkRepository;
+    private final ImportCheckpointRepository importCheckpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public ImportChunkedCommitService(ExcelImportService excelImportService,
+            CompanyBulkRepository companyBulkRepository, ImportCheckpointRepository importCheckpointRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.import.chunk-size:5000}") int chunkSize) {
+        this.excelImportService = excelImportService;
+        this.companyBulkRepository = companyBulkRepository;
+        this.importCheckpointRepository = importCheckpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /** 登録途中のチェックポイント（なければ null） */
+    public ImportCheckpoint findInProgress(String tempFileName) {
+        return importCheckpointRepository.findById(tempFileName)
+                .filter(c -> c.getStatus() == ImportCheckpoint.Status.IN_PROGRESS)
+                .orElse(null);
+    }
+
+    /**
+     * targetList を分割して登録する（行はExcelの行順に並んでいること）。
+     * 戻り値の件数・失敗行は、再開した場合は前回までの分も含む累計。
+     */
+    public ImportCommitResultDto commit(String tempFileName, String mode, List<ImportRowDto> targetList,
+            ImportProgressListener listener) {
+        ImportCheckpoint checkpoint = startOrResume(tempFileName, mode);
+        int resumeAfter = checkpoint.getLastRowNum();
+        if (resumeAfter > 0) {
+            log.info("分割コミットを再開します: {} （{}行目まで登録済み）", tempFileName, resumeAfter);
+        }
+
+        // 登録済みの行は飛ばす
+        int start = 0;
+        while (start < targetList.size() && targetList.get(start).getRowNum() <= resumeAfter) {
+            start++;
+        }
+        listener.onProgress(start);
+
+        for (int from = start; from < targetList.size(); from += chunkSize) {
+            List<ImportRowDto> chunk = targetList.subList(from, Math.min(from + chunkSize, targetList.size()));
+            List<Company> companies = new ArrayList<>(chunk.size());
+            for (ImportRowDto row : chunk) {
+                companies.add(excelImportService.toCompanyValues(row));
+            }
+            // 新規行の企業IDはチャンクごとに1回だけ確保する（二分してやり直すたびに確保し直さない）
+            companyBulkRepository.assignNewIds(companies);
+            commitSlice(tempFileName, chunk, companies);
+            listener.onProgress(from + chunk.size());
+        }
+
+        return transactionTemplate.execute(status -> {
+            ImportCheckpoint c = importCheckpointRepository.findById(tempFileName).orElseThrow();
+            ImportCommitResultDto result = new ImportCommitResultDto();
+            result.setInsertedCount(c.getInsertedCount());
+            result.setUpdatedCount(c.getUpdatedCount());
+            for (ImportCheckpoint.FailedRow f : c.getFailedRows()) {
+                result.getFailedRows().add(new ImportErrorDto(f.getRowNum(), List.of(f.getMessage())));
+            }
+            importCheckpointRepository.delete(c);
+            return result;
+        });
+    }
+
+    private ImportCheckpoint startOrResume(String tempFileName, String mode) {
+        return transactionTemplate.execute(status -> {
+            ImportCheckpoint c = importCheckpointRepository.findById(tempFileName).orElse(null);
+            if (c != null && c.getStatus() == ImportCheckpoint.Status.IN_PROGRESS) {
+                if (!Objects.equals(c.getMode(), mode)) {
+                    throw new RuntimeException("前回の登録途中とは異なる登録対象が指定されたため、再開できません。");
+                }
+                return c;
+            }
+            c = new ImportCheckpoint();
+            c.setTempFileName(tempFileName);
+            c.setMode(mode);
+            c.setStatus(ImportCheckpoint.Status.IN_PROGRESS);
+            c.setUpdatedAt(LocalDateTime.now());
+            return importCheckpointRepository.save(c);
+        });
+    }
+
+    /**
+     * 行の範囲を1トランザクションで登録する（companies は slice と同じ順の登録値で、新規行は採番済み）。
+     * データ起因で失敗した場合は二分してやり直し、1行まで絞り込んだものを失敗行として記録する。
+     * （DB接続断などデータ起因でない例外はそのまま投げ、チェックポイントから再開させる）
+     */
+    private void commitSlice(String tempFileName, List<ImportRowDto> slice, List<Company> companies) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                int[] counts = companyBulkRepository.upsert(companies);
+                advance(tempFileName, slice.get(slice.size() - 1).getRowNum(), counts[0], counts[1], null);
+            });
+        } catch (DataIntegrityViolationException e) {
+            if (slice.size() > 1) {
+                int mid = slice.size() / 2;
+                commitSlice(tempFileName, slice.subList(0, mid), companies.subList(0, mid));
+                commitSlice(tempFileName, slice.subList(mid, slice.size()), companies.subList(mid, slice.size()));
+                return;
+            }
+            ImportRowDto row = slice.get(0);
+            log.warn("登録できない行を除外しました: {} {}行目", tempFileName, row.getRowNum(), e);
+            transactionTemplate.executeWithoutResult(
+                    status -> advance(tempFileName, row.getRowNum(), 0, 0, failureMessage(e)));
+        }
+    }
+
+    /** チェックポイントを進める（呼び出し元のトランザクション内で実行） */
+    private void advance(String tempFileName, int lastRowNum, int inserted, int updated, String failure) {
+        ImportCheckpoint c = importCheckpointRepository.findById(tempFileName).orElseThrow();
+        c.setLastRowNum(lastRowNum);
+        c.setInsertedCount(c.getInsertedCount() + inserted);
+        c.setUpdatedCount(c.getUpdatedCount() + updated);
+        if (failure != null) {
+            ImportCheckpoint.FailedRow f = new ImportCheckpoint.FailedRow();
+            f.setRowNum(lastRowNum);
+            f.setMessage(failure);
+            c.getFailedRows().add(f);
+            c.setFailedCount(c.getFailedCount() + 1);
+        }
+        c.setUpdatedAt(LocalDateTime.now());
+    }
+
+    private static String failureMessage(DataIntegrityViolationException e) {
+        String detail = e.getMostSpecificCause().getMessage();
+        String message = "エラー：登録できませんでした：" + (detail != null ? detail : "制約違反");
+        return message.length() > MESSAGE_LENGTH ? message.substring(0, MESSAGE_LENGTH) : message;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.company_directory.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Excel 内の行をまたぐチェック結果（同名企業 / 同住所 / 企業ID重複）。
+ * 行ごとの検証より前にまとめて求めておき、検証中は読み取りのみ行う。
+ */
+public class ImportCrossRowFacts {
+
+    // 企業名（前後空白除去）→ その企業名が出てくる行番号（ファイル順）
+    private final Map<String, List<Integer>> nameToRows = new HashMap<>();
+    // 住所（前後空白除去）→ その住所が出てくる行番号（ファイル順）
+    private final Map<String, List<Integer>> addressToRows = new HashMap<>();
+    // 同じ企業IDが前の行に既に出ているか（行リストの位置ごと）
+    private final boolean[] duplicateId;
+
+    public ImportCrossRowFacts(int rowCount) {
+        this.duplicateId = new boolean[rowCount];
+    }
+
+    public Map<String, List<Integer>> getNameToRows() {
+        return nameToRows;
+    }
+
+    public Map<String, List<Integer>> getAddressToRows() {
+        return addressToRows;
+    }
+
+    public boolean isDuplicateId(int index) {
+        return duplicateId[index];
+    }
+
+    public void markDuplicateId(int index) {
+        duplicateId[index] = true;
+    }
+}
@@ -0,0 +1,339 @@
+package com.example.company_directory.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.company_directory.dto.ImportCommitResultDto;
+import com.example.company_directory.dto.ImportResultDto;
+import com.example.company_directory.dto.ImportRowDto;
+import com.example.company_directory.entity.ImportCheckpoint;
+import com.example.company_directory.entity.ImportJob;
+import com.example.company_directory.repository.ImportJobRepository;
+import com.example.company_directory.util.ImportFileType;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * インポートの検証・確定登録をバックグラウンドジョブとして実行する。
+ *
+ * - ジョブは仮想スレッドで実行し、リクエストスレッドはジョブIDを返してすぐに戻る
+ * - 状態と進捗は import_jobs に記録し、画面はそれをポーリングする
+ * - 同時に実行するジョブ数は app.import.max-concurrent-jobs まで（超えた分は QUEUED のまま待つ）
+ */
+@Service
+public class ImportJobService {
+    private static final Logger log = LoggerFactory.getLogger(ImportJobService.class);
+
+    // 進捗をDBへ書き込む最短間隔（ミリ秒）
+    private static final long PROGRESS_INTERVAL_MILLIS = 500;
+    // ImportJob.errorMessage / warningMessage のカラム長
+    private static final int MESSAGE_LENGTH = 500;
+
+    private final ImportJobRepository importJobRepository;
+    private final ExcelImportService excelImportService;
+    private final ImportSessionStore importSessionStore;
+    private final ImportChunkedCommitService importChunkedCommitService;
+    private final ImportUploadStore importUploadStore;
+    private final String commitMode;
+    // 進捗・状態の記録は実行中の登録処理とは別トランザクションで即時にコミットする
+    private final TransactionTemplate requiresNewTx;
+    private final Semaphore jobPermits;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ImportJobService(ImportJobRepository importJobRepository, ExcelImportService excelImportService,
+            ImportSessionStore importSessionStore, ImportChunkedCommitService importChunkedCommitService,
+            ImportUploadStore importUploadStore, PlatformTransactionManager transactionManager,
+            @Value("${app.import.max-concurrent-jobs:2}") int maxConcurrentJobs,
+            @Value("${app.import.commit-mode:upsert}") String commitMode) {
+        this.importJobRepository = importJobRepository;
+        this.excelImportService = excelImportService;
+        this.importSessionStore = importSessionStore;
+        this.importChunkedCommitService = importChunkedCommitService;
+        this.importUploadStore = importUploadStore;
+        this.commitMode = commitMode;
+        this.requiresNewTx = new TransactionTemplate(transactionManager);
+        this.requiresNewTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.jobPermits = new Semaphore(maxConcurrentJobs, true);
+    }
+
+    /** 起動時、前回の実行中に停止したジョブを失敗扱いにする */
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedJobs() {
+        Integer count = requiresNewTx.execute(status -> importJobRepository.failAll(
+                EnumSet.of(ImportJob.Status.QUEUED, ImportJob.Status.RUNNING),
+                "サーバーの再起動により中断されました。", LocalDateTime.now()));
+        if (count != null && count > 0) {
+            log.warn("中断されたインポートジョブを失敗扱いにしました: {}件", count);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public Optional<ImportJob> findJob(String jobId) {
+        return importJobRepository.findById(jobId);
+    }
+
+    /** アップロード済みの一時ファイルの検証ジョブを登録する */
+    public ImportJob submitValidation(String tempFileName) {
+        ImportJob job = createJob(ImportJob.JobType.VALIDATE, tempFileName, null);
+        executor.execute(() -> run(job, this::validate));
+        return job;
+    }
+
+    /**
+     * 検証済みデータの確定登録ジョブを登録する（mode: all = 正常 + 警告 / strict = 正常のみ）。
+     * 同じファイルの確定登録が実行待ち・実行中なら、新しく登録せずにそのジョブを返す
+     * （二重送信や再送で、企業IDのない行が二重に登録されないようにする）。
+     */
+    public synchronized ImportJob submitCommit(String tempFileName, String mode) {
+        Optional<ImportJob> active = importJobRepository.findFirstByTempFileNameAndJobTypeAndStatusIn(
+                tempFileName, ImportJob.JobType.COMMIT, EnumSet.of(ImportJob.Status.QUEUED, ImportJob.Status.RUNNING));
+        if (active.isPresent()) {
+            log.info("確定登録ジョブが実行中のため、既存のジョブを返します: jobId = {}", active.get().getJobId());
+            return active.get();
+        }
+        ImportJob job = createJob(ImportJob.JobType.COMMIT, tempFileName, mode);
+        executor.execute(() -> run(job, this::commit));
+        return job;
+    }
+
+    /**
+     * 一時ファイル名に対応する解析結果を返す。
+     * キャッシュにあればそれを使い、なければ一時ファイルを再解析する（ファイルもなければ null）。
+     */
+    public ImportResultDto loadResult(String tempFileName) throws IOException {
+        ImportResultDto cached = importSessionStore.get(tempFileName);
+        if (cached != null) {
+            return cached;
+        }
+
+        if (!importUploadStore.exists(tempFileName)) {
+            return null;
+        }
+        ImportResultDto result = parseUpload(tempFileName, ImportProgressListener.NONE);
+        importSessionStore.put(tempFileName, result);
+        return result;
+    }
+
+    /**
+     * 一時ファイルを読み込んで検証する。
+     * xlsx はZIPの目次から必要なエントリだけを読めるよう、ストリームではなくファイルとして開く。
+     */
+    private ImportResultDto parseUpload(String tempFileName, ImportProgressListener listener) throws IOException {
+        ImportFileType fileType = fileTypeOf(tempFileName);
+        if (fileType == ImportFileType.XLSX) {
+            return excelImportService.importExcelFile(importUploadStore.path(tempFileName), listener);
+        }
+        try (InputStream is = importUploadStore.open(tempFileName)) {
+            return excelImportService.importFile(is, fileType, listener);
+        }
+    }
+
+    /** 分割コミットが途中で止まっている場合のチェックポイント（なければ null） */
+    public ImportCheckpoint findInProgressCheckpoint(String tempFileName) {
+        return importChunkedCommitService.findInProgress(tempFileName);
+    }
+
+    /** 一時ファイル名の拡張子からファイル形式を判定する（アップロード時に元の形式の拡張子を付けている） */
+    private static ImportFileType fileTypeOf(String tempFileName) {
+        ImportFileType type = ImportFileType.fromFileName(tempFileName);
+        if (type == null) {
+            throw new RuntimeException("対応していないファイル形式です。");
+        }
+        return type;
+    }
+
+    private ImportJob createJob(ImportJob.JobType type, String tempFileName, String mode) {
+        ImportJob job = new ImportJob();
+        job.setJobId(UUID.randomUUID().toString());
+        job.setJobType(type);
+        job.setStatus(ImportJob.Status.QUEUED);
+        job.setTempFileName(tempFileName);
+        job.setMode(mode);
+        job.setCreatedAt(LocalDateTime.now());
+        return importJobRepository.save(job);
+    }
+
+    /** 同時実行数の枠が空くまで待ってから処理を実行し、結果をジョブに記録する */
+    private void run(ImportJob job, Consumer<ImportJob> body) {
+        try {
+            jobPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(job, ImportJob.Status.FAILED, "処理が中断されました。");
+            return;
+        }
+        try {
+            job.setStatus(ImportJob.Status.RUNNING);
+            job.setStartedAt(LocalDateTime.now());
+            save(job);
+
+            body.accept(job);
+            finish(job, ImportJob.Status.SUCCEEDED, null);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("インポートジョブ失敗: jobId = {}", job.getJobId(), e);
+            finish(job, ImportJob.Status.FAILED, "データの重複が検出されました。既に登録されているデータがあります。");
+        } catch (RuntimeException e) {
+            log.warn("インポートジョブ失敗: jobId = {}", job.getJobId(), e);
+            finish(job, ImportJob.Status.FAILED,
+                    e.getMessage() != null ? e.getMessage() : "データの解析に失敗しました。");
+        } catch (Error e) {
+            // OutOfMemoryError など。ジョブが RUNNING のまま残り画面が待ち続けないよう失敗にしてから投げ直す
+            log.error("インポートジョブ失敗: jobId = {}", job.getJobId(), e);
+            try {
+                finish(job, ImportJob.Status.FAILED, "処理中に予期しないエラーが発生しました。");
+            } catch (RuntimeException | Error suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        } finally {
+            jobPermits.release();
+        }
+    }
+
+    private void validate(ImportJob job) {
+        try {
+            ImportResultDto result = parseUpload(job.getTempFileName(), progressRecorder(job));
+            // 確定登録・ダウンロードで再解析しないよう結果を保持しておく
+            importSessionStore.put(job.getTempFileName(), result);
+
+            job.setTotalRows(result.getTotalCount());
+            job.setProcessedRows(result.getTotalCount());
+            job.setFailedCount(result.getErrorCount());
+        } catch (IOException e) {
+            throw new RuntimeException("アップロードしたファイルの読み込みに失敗しました。", e);
+        }
+    }
+
+    private void commit(ImportJob job) {
+        ImportResultDto result;
+        try {
+            result = loadResult(job.getTempFileName());
+        } catch (IOException e) {
+            throw new RuntimeException("ファイルの読み込みに失敗しました。", e);
+        }
+        if (result == null) {
+            throw new RuntimeException("セッションが切れました。再度ファイルをアップロードしてください。");
+        }
+
+        // 登録対象の選定
+        List<ImportRowDto> targetList;
+        if ("strict".equals(job.getMode())) {
+            // 正常データのみ（警告なし）
+            targetList = result.getSuccessList();
+        } else {
+            // 正常 + 警告
+            targetList = result.getTotalList().stream()
+                    .filter(row -> !row.isHasError())
+                    .toList();
+        }
+        if (targetList.isEmpty()) {
+            throw new RuntimeException("登録対象のデータがありません。");
+        }
+        int selectedCount = targetList.size();
+
+        // DBと内容が同じ更新行は登録しても変わらないため送らない
+        // （検証後に既存行が編集されていることがあるため、検証時の判定をDBと照合し直してから除く）
+        excelImportService.recheckUnchanged(targetList);
+        targetList = targetList.stream()
+                .filter(row -> !row.isUnchanged())
+                .toList();
+
+        job.setTotalRows(targetList.size());
+        job.setUnchangedCount(selectedCount - targetList.size());
+        // 警告行を除いた分（strict）とエラー行は分けて記録する
+        job.setSkippedCount(result.getTotalCount() - result.getErrorCount() - selectedCount);
+        job.setFailedCount(result.getErrorCount());
+        save(job);
+
+        ImportCommitResultDto commitResult;
+        if ("chunked".equals(commitMode)) {
+            // チャンクごとにコミットし、失敗時は次回チェックポイントから再開する
+            commitResult = importChunkedCommitService.commit(job.getTempFileName(), job.getMode(), targetList,
+                    progressRecorder(job));
+        } else {
+            commitResult = excelImportService.commit(targetList, progressRecorder(job));
+        }
+        job.setProcessedRows(targetList.size());
+        job.setInsertedCount(commitResult.getInsertedCount());
+        job.setUpdatedCount(commitResult.getUpdatedCount());
+        if (commitResult.getFailedCount() > 0) {
+            job.setFailedCount(job.getFailedCount() + commitResult.getFailedCount());
+            job.setWarningMessage(truncate("登録できなかった行が" + commitResult.getFailedCount() + "件あります（"
+                    + commitResult.getFailedRows().stream()
+                            .map(f -> String.valueOf(f.getRowNum()))
+                            .collect(Collectors.joining(", "))
+                    + "行目）。"));
+        }
+
+        // 後始末（一時ファイルとキャッシュを削除）
+        try {
+            importUploadStore.delete(job.getTempFileName());
+        } catch (IOException e) {
+            log.warn("一時ファイルの削除に失敗しました: {}", job.getTempFileName(), e);
+        }
+        importSessionStore.remove(job.getTempFileName());
+    }
+
+    /** 処理済み行数を一定間隔でジョブに記録するリスナー */
+    private ImportProgressListener progressRecorder(ImportJob job) {
+        return new ImportProgressListener() {
+            private long lastWrite = 0;
+
+            @Override
+            public void onProgress(int processedRows) {
+                job.setProcessedRows(processedRows);
+                long now = System.currentTimeMillis();
+                if (now - lastWrite < PROGRESS_INTERVAL_MILLIS) {
+                    return;
+                }
+                lastWrite = now;
+                requiresNewTx.executeWithoutResult(
+                        status -> importJobRepository.updateProgress(job.getJobId(), processedRows));
+            }
+        };
+    }
+
+    private void finish(ImportJob job, ImportJob.Status status, String errorMessage) {
+        job.setStatus(status);
+        job.setErrorMessage(truncate(errorMessage));
+        job.setFinishedAt(LocalDateTime.now());
+        save(job);
+    }
+
+    // カラム長（500文字）に収める
+    private static String truncate(String message) {
+        if (message != null && message.length() > MESSAGE_LENGTH) {
+            return message.substring(0, MESSAGE_LENGTH);
+        }
+        return message;
+    }
+
+    private void save(ImportJob job) {
+        requiresNewTx.executeWithoutResult(status -> importJobRepository.save(job));
+    }
+}
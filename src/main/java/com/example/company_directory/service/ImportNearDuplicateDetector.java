@@ -0,0 +1,245 @@
+package com.example.company_directory.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.IntFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.company_directory.dto.ImportRowDto;
+import com.example.company_directory.util.CompanyNameMatcher;
+
+/**
+ * インポート行の類似企業名（表記ゆれ）を、ファイル内と登録済み企業から検出する。
+ *
+ * 全組み合わせを比較せず、CompanyNameMatcher.bandKeys の値が一致するもの（同じ候補グループ）だけを比較する。
+ * - ファイル内: 同じグループの行どうしを比較する（前後空白除去で同名の組は同名警告の対象なので除く）
+ * - 登録済み企業: ExistingCompanyNameIndex の索引からグループを引く（新規行のみ。同名は既存同名警告の対象なので除く）。
+ *   索引は作成済みのものを使うため、検証のたびに登録済み企業の全件を読むことはない
+ * 1つのグループで比較する行数には上限を設け、超えるグループは次の段の帯の値（CompanyNameMatcher.bandKeys(key, level)）で
+ * 細かいグループに分けてから比較する。最後の段でも上限を超える（ほぼ同じ名前が大量にある）場合だけ比較を打ち切り、
+ * 該当する行に「確認を一部省略した」ことを残す（黙って候補を落とさない）。
+ */
+@Service
+public class ImportNearDuplicateDetector {
+    private static final Logger log = LoggerFactory.getLogger(ImportNearDuplicateDetector.class);
+
+    // 1つの候補グループで比較する行数の上限
+    private static final int MAX_BUCKET_COMPARE = 64;
+    // 1行あたりに保持する登録済み企業IDの上限（文言が長くなりすぎないようにする）
+    private static final int MAX_EXISTING_IDS = 5;
+
+    private final ExistingCompanyNameIndex existingCompanyNameIndex;
+    private final boolean enabled;
+    private final double threshold;
+
+    public ImportNearDuplicateDetector(ExistingCompanyNameIndex existingCompanyNameIndex,
+            @Value("${app.import.near-duplicate.enabled:true}") boolean enabled,
+            @Value("${app.import.near-duplicate.threshold:0.8}") double threshold) {
+        this.existingCompanyNameIndex = existingCompanyNameIndex;
+        this.enabled = enabled;
+        this.threshold = threshold;
+    }
+
+    public ImportNearDuplicates detect(List<ImportRowDto> rows) {
+        if (!enabled || rows.isEmpty()) {
+            return ImportNearDuplicates.NONE;
+        }
+        long start = System.currentTimeMillis();
+
+        // --- 比較用キーと候補グループ（帯の値 → 行リストの位置） ---
+        int size = rows.size();
+        String[] keys = new String[size];
+        String[] names = new String[size];
+        long[][] bands = new long[size][];
+        Map<Long, List<Integer>> buckets = new HashMap<>(size * 2);
+        boolean hasNewRow = false;
+        for (int i = 0; i < size; i++) {
+            ImportRowDto row = rows.get(i);
+            String name = row.getCompanyName() == null ? "" : row.getCompanyName().trim();
+            String key = CompanyNameMatcher.normalize(name);
+            if (key.isEmpty()) {
+                continue;
+            }
+            keys[i] = key;
+            names[i] = name;
+            bands[i] = CompanyNameMatcher.bandKeys(key);
+            for (long band : bands[i]) {
+                buckets.computeIfAbsent(band, k -> new ArrayList<>(2)).add(i);
+            }
+            hasNewRow |= isNew(row);
+        }
+
+        ImportNearDuplicates result = new ImportNearDuplicates();
+        int fileMatches = matchWithinFile(rows, keys, names, buckets, result);
+        int existingMatches = hasNewRow ? matchExisting(rows, keys, names, bands, result) : 0;
+
+        log.info("類似企業名の検出が完了しました: {}行, ファイル内{}行, 登録済み{}行, 確認を省略{}行, {}ms",
+                size, fileMatches, existingMatches, result.getTruncatedRows().size(),
+                System.currentTimeMillis() - start);
+        return result;
+    }
+
+    /** ファイル内の類似行（該当した行数を返す） */
+    private int matchWithinFile(List<ImportRowDto> rows, String[] keys, String[] names,
+            Map<Long, List<Integer>> buckets, ImportNearDuplicates result) {
+        Map<Integer, Set<Integer>> matches = new HashMap<>();
+        // 複数の帯で同じ組が候補になっても1回だけ比較する
+        Set<Long> compared = new HashSet<>();
+        for (List<Integer> members : buckets.values()) {
+            if (members.size() > 1) {
+                Bucket bucket = new Bucket(members.stream().mapToInt(Integer::intValue).toArray(), 0, i -> keys[i]);
+                compareWithinBucket(bucket, rows, keys, names, compared, matches, result);
+            }
+        }
+        matches.forEach((index, rowNums) -> result.getFileRows().put(index, List.copyOf(rowNums)));
+        return matches.size();
+    }
+
+    private void compareWithinBucket(Bucket bucket, List<ImportRowDto> rows, String[] keys, String[] names,
+            Set<Long> compared, Map<Integer, Set<Integer>> matches, ImportNearDuplicates result) {
+        if (bucket.isOversized() && bucket.isDivisible()) {
+            for (Bucket child : bucket.children().values()) {
+                if (child.members.length > 1) {
+                    compareWithinBucket(child, rows, keys, names, compared, matches, result);
+                }
+            }
+            return;
+        }
+        int[] members = bucket.members;
+        int limit = Math.min(members.length, MAX_BUCKET_COMPARE);
+        if (members.length > limit) {
+            for (int i : members) {
+                result.getTruncatedRows().add(i);
+            }
+        }
+        for (int a = 1; a < limit; a++) {
+            int i = members[a];
+            for (int b = 0; b < a; b++) {
+                int j = members[b];
+                long pair = i < j ? ((long) i << 32) | j : ((long) j << 32) | i;
+                if (!compared.add(pair)) {
+                    continue;
+                }
+                if (!names[i].equals(names[j]) && isSimilar(keys[i], keys[j])) {
+                    matches.computeIfAbsent(i, k -> new TreeSet<>()).add(rows.get(j).getRowNum());
+                    matches.computeIfAbsent(j, k -> new TreeSet<>()).add(rows.get(i).getRowNum());
+                }
+            }
+        }
+    }
+
+    /** 登録済み企業との類似（新規行のみ。該当した行数を返す） */
+    private int matchExisting(List<ImportRowDto> rows, String[] keys, String[] names, long[][] bands,
+            ImportNearDuplicates result) {
+        ExistingCompanyNameIndex.Snapshot index = existingCompanyNameIndex.current();
+        Map<Integer, List<Integer>> matches = result.getExistingIds();
+        // 帯の値 → 索引のグループ（細分した子グループを行の間で使い回す）
+        Map<Long, Bucket> roots = new HashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (keys[i] == null || !isNew(rows.get(i))) {
+                continue;
+            }
+            // 複数の帯で同じ企業が候補になっても1回だけ比較する
+            Set<Integer> compared = new HashSet<>();
+            TreeSet<Integer> ids = new TreeSet<>();
+            boolean truncated = false;
+            for (long band : bands[i]) {
+                Bucket root = roots.computeIfAbsent(band, b -> new Bucket(index.positions(b), 0, index::key));
+                truncated |= collectExisting(root, keys[i], names[i], index, compared, ids);
+            }
+            if (truncated) {
+                result.getTruncatedRows().add(i);
+            }
+            if (!ids.isEmpty()) {
+                // 企業IDの小さいものから上限まで
+                matches.put(i, ids.stream().limit(MAX_EXISTING_IDS).toList());
+            }
+        }
+        return matches.size();
+    }
+
+    /** グループ内の類似企業の企業IDを ids に加える（比較を打ち切った場合は true） */
+    private boolean collectExisting(Bucket bucket, String key, String name, ExistingCompanyNameIndex.Snapshot index,
+            Set<Integer> compared, Set<Integer> ids) {
+        if (bucket.isOversized() && bucket.isDivisible()) {
+            // 行と同じ子グループ（次の段の帯の値が一致するもの）だけをたどる
+            boolean truncated = false;
+            for (long band : CompanyNameMatcher.bandKeys(key, bucket.level + 1)) {
+                Bucket child = bucket.children().get(band);
+                if (child != null) {
+                    truncated |= collectExisting(child, key, name, index, compared, ids);
+                }
+            }
+            return truncated;
+        }
+        int[] members = bucket.members;
+        int limit = Math.min(members.length, MAX_BUCKET_COMPARE);
+        for (int p = 0; p < limit; p++) {
+            int position = members[p];
+            if (!compared.add(position) || index.sameName(position, name)) {
+                continue;
+            }
+            if (isSimilar(key, index.key(position))) {
+                ids.add(index.companyId(position));
+            }
+        }
+        return members.length > limit;
+    }
+
+    private boolean isSimilar(String key1, String key2) {
+        return CompanyNameMatcher.similarity(key1, key2) >= threshold;
+    }
+
+    private static boolean isNew(ImportRowDto row) {
+        return row.getCompanyId() == null || row.getCompanyId().isEmpty();
+    }
+
+    /**
+     * 候補グループ（ファイル内なら行リストの位置、登録済みなら索引内の位置）。
+     * 比較する行数の上限を超える場合は、次の段の帯の値で子グループに分ける（子グループは初回に1回だけ作る）。
+     */
+    private static final class Bucket {
+        final int[] members;
+        final int level;
+        private final IntFunction<String> keyOf;
+        private Map<Long, Bucket> children;
+
+        Bucket(int[] members, int level, IntFunction<String> keyOf) {
+            this.members = members;
+            this.level = level;
+            this.keyOf = keyOf;
+        }
+
+        boolean isOversized() {
+            return members.length > MAX_BUCKET_COMPARE;
+        }
+
+        boolean isDivisible() {
+            return level < CompanyNameMatcher.MAX_LEVEL;
+        }
+
+        Map<Long, Bucket> children() {
+            if (children == null) {
+                Map<Long, List<Integer>> groups = new HashMap<>();
+                for (int m : members) {
+                    for (long band : CompanyNameMatcher.bandKeys(keyOf.apply(m), level + 1)) {
+                        groups.computeIfAbsent(band, k -> new ArrayList<>(2)).add(m);
+                    }
+                }
+                children = new HashMap<>(groups.size() * 2);
+                groups.forEach((band, list) -> children.put(band,
+                        new Bucket(list.stream().mapToInt(Integer::intValue).toArray(), level + 1, keyOf)));
+            }
+            return children;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.company_directory.service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 類似企業名の検出結果（ImportNearDuplicateDetector が求める）。
+ * 該当する行だけを持ち、検証中は読み取りのみ行う。
+ */
+public class ImportNearDuplicates {
+
+    /** 検出を行わなかった場合の結果 */
+    public static final ImportNearDuplicates NONE = new ImportNearDuplicates();
+
+    // 行リストの位置 → 企業名が類似しているファイル内の他の行番号（昇順）
+    private final Map<Integer, List<Integer>> fileRows = new HashMap<>();
+    // 行リストの位置 → 企業名が類似している登録済み企業の企業ID（昇順）
+    private final Map<Integer, List<Integer>> existingIds = new HashMap<>();
+    // 候補が多すぎて比較を打ち切った行（行リストの位置）
+    private final Set<Integer> truncatedRows = new HashSet<>();
+
+    public List<Integer> similarRowsInFile(int index) {
+        return fileRows.getOrDefault(index, Collections.emptyList());
+    }
+
+    public List<Integer> similarExistingIds(int index) {
+        return existingIds.getOrDefault(index, Collections.emptyList());
+    }
+
+    /** 類似する名前が多すぎて、確認を一部省略した行か */
+    public boolean isCheckTruncated(int index) {
+        return truncatedRows.contains(index);
+    }
+
+    Map<Integer, List<Integer>> getFileRows() {
+        return fileRows;
+    }
+
+    Map<Integer, List<Integer>> getExistingIds() {
+        return existingIds;
+    }
+
+    Set<Integer> getTruncatedRows() {
+        return truncatedRows;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.company_directory.service;
+
+import java.util.Set;
+
+import com.example.company_directory.util.ZipMasterTable;
+
+/**
+ * インポート検証で参照するDB上の情報。
+ * ファイル内の企業ID・企業名・住所をまとめて問い合わせた結果と郵便番号マスタを保持し、
+ * 行ごとの検証はすべてメモリ上で行う。
+ */
+public class ImportPrefetch {
+
+    private final Set<Integer> existingIds;
+    private final Set<String> existingNames;
+    private final Set<String> existingAddresses;
+    private final ZipMasterTable zipTable;
+
+    public ImportPrefetch(Set<Integer> existingIds, Set<String> existingNames, Set<String> existingAddresses,
+            ZipMasterTable zipTable) {
+        this.existingIds = existingIds;
+        this.existingNames = existingNames;
+        this.existingAddresses = existingAddresses;
+        this.zipTable = zipTable;
+    }
+
+    /** 企業IDがDBに存在するか（数値でないIDは存在しない扱い） */
+    public boolean existsId(String companyId) {
+        if (companyId == null) {
+            return false;
+        }
+        try {
+            return existingIds.contains(Integer.parseInt(companyId));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    public boolean existsName(String companyName) {
+        return existingNames.contains(companyName);
+    }
+
+    public boolean existsAddress(String address) {
+        return existingAddresses.contains(address);
+    }
+
+    /** 郵便番号マスタ（検証中に差し替わらないよう取得時点の表を保持する） */
+    public ZipMasterTable getZipTable() {
+        return zipTable;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.company_directory.service;
+
+/**
+ * インポート処理の進捗通知（処理済みの行数を受け取る）。
+ * 呼び出しは処理中のスレッドから行われる。
+ */
+@FunctionalInterface
+public interface ImportProgressListener {
+
+    // 進捗を通知しない場合に使う
+    ImportProgressListener NONE = processedRows -> {
+    };
+
+    void onProgress(int processedRows);
+}
@@ -0,0 +1,24 @@
+package com.example.company_directory.service;
+
+import java.util.List;
+
+import com.example.company_directory.dto.ImportIssue;
+import com.example.company_directory.dto.ImportRowDto;
+
+/**
+ * インポート行の検証ルール（1ルール = 1つの観点）。
+ * 該当した問題を issues に追加する（文言は表示時に組み立てるため、ここでは文字列を作らない）。
+ * 行をまたぐ情報・DB参照は Context から読み取るのみとし、複数スレッドから同時に呼ばれても安全であること。
+ */
+@FunctionalInterface
+public interface ImportRule {
+
+    /** 検証中に参照する、ファイル全体に対して求めた情報 */
+    record Context(ImportCrossRowFacts facts, ImportPrefetch prefetch, ImportNearDuplicates nearDuplicates) {
+    }
+
+    /**
+     * @param index 行リスト上の位置（0始まり）
+     */
+    void check(ImportRowDto row, int index, Context context, List<ImportIssue> issues);
+}
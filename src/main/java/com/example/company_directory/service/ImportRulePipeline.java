@@ -0,0 +1,132 @@
+package com.example.company_directory.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+import com.example.company_directory.dto.ImportIssue;
+import com.example.company_directory.dto.ImportRowDto;
+import com.example.company_directory.dto.ImportRuleStatDto;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * インポート行の検証ルールを登録順に実行する。
+ *
+ * エラールールを全件実行し、エラーがなかった行だけ警告ルールを実行する。
+ * ルールごとの実行回数・処理時間を取り込み単位（Stats）で集計し、
+ * 取り込み結果とメトリクス（import.validation.rule.calls / import.validation.rule.time）に出す。
+ * 問題はルールの登録順に並ぶため、順序を入れ替えると出力の並びも変わる。
+ */
+@Component
+public class ImportRulePipeline {
+
+    private static final String PHASE_ERROR = "error";
+    private static final String PHASE_WARNING = "warning";
+
+    private record NamedRule(String phase, String name, ImportRule rule) {
+    }
+
+    private final List<NamedRule> errorRules = List.of(
+            new NamedRule(PHASE_ERROR, "required", ImportValidationRules::required),
+            new NamedRule(PHASE_ERROR, "companyId", ImportValidationRules::companyId),
+            new NamedRule(PHASE_ERROR, "zipFormat", ImportValidationRules::zipFormat),
+            new NamedRule(PHASE_ERROR, "registrationDate", ImportValidationRules::registrationDate),
+            new NamedRule(PHASE_ERROR, "length", ImportValidationRules::length));
+
+    private final List<NamedRule> warningRules = List.of(
+            new NamedRule(PHASE_WARNING, "duplicateNameInFile", ImportValidationRules::duplicateNameInFile),
+            new NamedRule(PHASE_WARNING, "duplicateAddressInFile", ImportValidationRules::duplicateAddressInFile),
+            new NamedRule(PHASE_WARNING, "existingName", ImportValidationRules::existingName),
+            new NamedRule(PHASE_WARNING, "existingAddress", ImportValidationRules::existingAddress),
+            new NamedRule(PHASE_WARNING, "nearDuplicateName", ImportValidationRules::nearDuplicateName),
+            new NamedRule(PHASE_WARNING, "futureDate", ImportValidationRules::futureDate),
+            new NamedRule(PHASE_WARNING, "shortAddress", ImportValidationRules::shortAddress),
+            new NamedRule(PHASE_WARNING, "zipAddressConsistency", ImportValidationRules::zipAddressConsistency));
+
+    private final MeterRegistry meterRegistry;
+
+    public ImportRulePipeline(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /** 1回の取り込み分のルール別集計（並列検証から同時に加算される） */
+    public class Stats {
+        private final LongAdder[] errorCalls = adders(errorRules.size());
+        private final LongAdder[] errorNanos = adders(errorRules.size());
+        private final LongAdder[] warningCalls = adders(warningRules.size());
+        private final LongAdder[] warningNanos = adders(warningRules.size());
+
+        private Stats() {
+        }
+    }
+
+    public Stats newStats() {
+        return new Stats();
+    }
+
+    /** エラールールを実行する（エラーがなければ ImportIssue.NONE） */
+    public ImportIssue[] checkErrors(ImportRowDto row, int index, ImportRule.Context context, Stats stats) {
+        return run(errorRules, row, index, context, stats.errorCalls, stats.errorNanos);
+    }
+
+    /** 警告ルールを実行する（警告がなければ ImportIssue.NONE） */
+    public ImportIssue[] checkWarnings(ImportRowDto row, int index, ImportRule.Context context, Stats stats) {
+        return run(warningRules, row, index, context, stats.warningCalls, stats.warningNanos);
+    }
+
+    private static ImportIssue[] run(List<NamedRule> rules, ImportRowDto row, int index,
+            ImportRule.Context context, LongAdder[] calls, LongAdder[] nanos) {
+        List<ImportIssue> issues = new ArrayList<>(4);
+        for (int i = 0; i < rules.size(); i++) {
+            long start = System.nanoTime();
+            rules.get(i).rule().check(row, index, context, issues);
+            nanos[i].add(System.nanoTime() - start);
+            calls[i].increment();
+        }
+        // 行に持たせるのは必要な長さの配列だけにする
+        return issues.isEmpty() ? ImportIssue.NONE : issues.toArray(ImportIssue.NONE);
+    }
+
+    /** 集計をメトリクスに加算し、取り込み結果用の一覧（ルールの実行順）を返す */
+    public List<ImportRuleStatDto> publish(Stats stats) {
+        List<ImportRuleStatDto> result = new ArrayList<>(errorRules.size() + warningRules.size());
+        collect(errorRules, stats.errorCalls, stats.errorNanos, result);
+        collect(warningRules, stats.warningCalls, stats.warningNanos, result);
+        return result;
+    }
+
+    private void collect(List<NamedRule> rules, LongAdder[] calls, LongAdder[] nanos,
+            List<ImportRuleStatDto> result) {
+        for (int i = 0; i < rules.size(); i++) {
+            NamedRule r = rules.get(i);
+            long count = calls[i].sum();
+            long totalNanos = nanos[i].sum();
+            result.add(new ImportRuleStatDto(r.phase(), r.name(), count, totalNanos));
+
+            Counter.builder("import.validation.rule.calls")
+                    .description("インポート検証ルールの実行回数")
+                    .tag("phase", r.phase()).tag("rule", r.name())
+                    .register(meterRegistry)
+                    .increment(count);
+            Counter.builder("import.validation.rule.time")
+                    .description("インポート検証ルールの累計処理時間")
+                    .baseUnit("seconds")
+                    .tag("phase", r.phase()).tag("rule", r.name())
+                    .register(meterRegistry)
+                    .increment(totalNanos / (double) TimeUnit.SECONDS.toNanos(1));
+        }
+    }
+
+    private static LongAdder[] adders(int size) {
+        LongAdder[] adders = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.company_directory.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.company_directory.dto.ImportIssue;
+import com.example.company_directory.dto.ImportResultDto;
+import com.example.company_directory.dto.ImportRowDto;
+
+/**
+ * インポートのプレビュー結果を一時ファイル名ごとに保持するキャッシュ。
+ * 確定登録・ダウンロードで同じファイルを再解析しないために使う。
+ *
+ * - 最後に参照されてから一定時間（TTL）で破棄
+ * - 推定サイズの合計が上限を超えたら、参照の古いものから破棄
+ */
+@Component
+public class ImportSessionStore {
+
+    private final long ttlMillis;
+    private final long maxBytes;
+
+    // アクセス順（先頭が最も古く参照されたもの）
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes = 0;
+
+    public ImportSessionStore(
+            @Value("${app.import.session-cache.ttl-minutes:30}") long ttlMinutes,
+            @Value("${app.import.session-cache.max-mb:256}") long maxMb) {
+        this.ttlMillis = ttlMinutes * 60 * 1000;
+        this.maxBytes = maxMb * 1024 * 1024;
+    }
+
+    public synchronized void put(String key, ImportResultDto result) {
+        long now = System.currentTimeMillis();
+        remove(key);
+        evictExpired(now);
+
+        long bytes = estimateBytes(result);
+        if (bytes > maxBytes) {
+            // 単体で上限を超える結果はキャッシュしない（必要時に再解析する）
+            return;
+        }
+
+        entries.put(key, new Entry(result, bytes, now));
+        totalBytes += bytes;
+
+        // 上限を超えた分を古い順に破棄
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Entry e = it.next().getValue();
+            it.remove();
+            totalBytes -= e.bytes;
+        }
+    }
+
+    /** キャッシュ済みの結果を返す（なければ null） */
+    public synchronized ImportResultDto get(String key) {
+        long now = System.currentTimeMillis();
+        evictExpired(now);
+
+        Entry e = entries.get(key);
+        if (e == null) {
+            return null;
+        }
+        e.lastAccess = now;
+        return e.result;
+    }
+
+    public synchronized void remove(String key) {
+        Entry e = entries.remove(key);
+        if (e != null) {
+            totalBytes -= e.bytes;
+        }
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void evictExpired(long now) {
+        // アクセス順なので、先頭から期限切れでなくなるまで消せばよい
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Entry e = it.next().getValue();
+            if (now - e.lastAccess < ttlMillis) {
+                break;
+            }
+            it.remove();
+            totalBytes -= e.bytes;
+        }
+    }
+
+    /**
+     * 結果の推定サイズ（バイト）。
+     * 行オブジェクトの固定分 + 文字列（UTF-16換算）+ 問題の配列で見積もる。
+     */
+    static long estimateBytes(ImportResultDto result) {
+        long bytes = 256;
+        for (ImportRowDto row : result.getTotalList()) {
+            bytes += 96;
+            bytes += stringBytes(row.getCompanyId());
+            bytes += stringBytes(row.getCompanyName());
+            bytes += stringBytes(row.getAddress());
+            bytes += stringBytes(row.getZipCode());
+            bytes += stringBytes(row.getRegistrationDate());
+            if (row.getParsedRegistrationDate() != null) {
+                bytes += 24;
+            }
+            bytes += stringBytes(row.getRemarks());
+            bytes += issueBytes(row.getErrorIssues());
+            bytes += issueBytes(row.getWarningIssues());
+        }
+        // successList の参照分
+        bytes += 16L * result.getSuccessList().size();
+        // 行の分類（ImportRowIndex のビットセット11本、1行あたり約11ビット）
+        bytes += 2L * result.getTotalList().size();
+        return bytes;
+    }
+
+    private static long stringBytes(String s) {
+        return s == null ? 0 : 40 + 2L * s.length();
+    }
+
+    /** 問題の配列（引数のない問題は共有インスタンスなので配列の参照分のみ） */
+    private static long issueBytes(ImportIssue[] issues) {
+        if (issues == null || issues.length == 0) {
+            return 0;
+        }
+        long bytes = 16 + 4L * issues.length;
+        for (ImportIssue issue : issues) {
+            if (issue != ImportIssue.of(issue.getCode())) {
+                bytes += 40;
+            }
+        }
+        return bytes;
+    }
+
+    private static class Entry {
+        private final ImportResultDto result;
+        private final long bytes;
+        private long lastAccess;
+
+        Entry(ImportResultDto result, long bytes, long lastAccess) {
+            this.result = result;
+            this.bytes = bytes;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.company_directory.service;
+
+import java.util.AbstractList;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.company_directory.dto.ImportRowDto;
+import com.example.company_directory.repository.ImportValidationRepository;
+import com.example.company_directory.repository.ImportValidationRepository.StagedRow;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 大きなファイル向けの検証エンジン。
+ * 行を一時表に登録し、ファイル内の重複（ウィンドウ関数・GROUP BY）と
+ * companies / zip_master との照合（結合）を、ルールごとに1回のSQLで求める。
+ *
+ * 求めた結果は ExcelImportService のメモリ上の集計と同じ形（ImportCrossRowFacts / ImportPrefetch）で返すので、
+ * メッセージの組み立ては通常の検証と共通になり、出力は同じになる。
+ */
+@Service
+@RequiredArgsConstructor
+public class ImportSqlValidator {
+
+    private final ImportValidationRepository importValidationRepository;
+
+    /** 一時表を使った照合結果 */
+    public static class Result {
+        private final ImportCrossRowFacts facts;
+        private final ImportPrefetch prefetch;
+
+        Result(ImportCrossRowFacts facts, ImportPrefetch prefetch) {
+            this.facts = facts;
+            this.prefetch = prefetch;
+        }
+
+        public ImportCrossRowFacts getFacts() {
+            return facts;
+        }
+
+        public ImportPrefetch getPrefetch() {
+            return prefetch;
+        }
+    }
+
+    // 一時表はコミット時に削除されるため、登録から照合までを1トランザクションで行う
+    @Transactional
+    public Result analyze(List<ImportRowDto> rows) {
+        // 照合キーの正規化は Java 側で行い、通常の検証と判定を揃える
+        importValidationRepository.stage(new AbstractList<StagedRow>() {
+            @Override
+            public StagedRow get(int index) {
+                return toStagedRow(index, rows.get(index));
+            }
+
+            @Override
+            public int size() {
+                return rows.size();
+            }
+        });
+
+        ImportCrossRowFacts facts = new ImportCrossRowFacts(rows.size());
+        importValidationRepository.forEachDuplicateIdLine(facts::markDuplicateId);
+        facts.getNameToRows().putAll(importValidationRepository.findDuplicateNameGroups());
+        facts.getAddressToRows().putAll(importValidationRepository.findDuplicateAddressGroups());
+
+        ImportPrefetch prefetch = new ImportPrefetch(
+                importValidationRepository.findExistingIds(),
+                importValidationRepository.findExistingNames(),
+                importValidationRepository.findExistingAddresses(),
+                importValidationRepository.findZipMasters());
+
+        return new Result(facts, prefetch);
+    }
+
+    private static StagedRow toStagedRow(int index, ImportRowDto row) {
+        boolean hasId = !isBlank(row.getCompanyId());
+        Integer idInt = null;
+        if (hasId) {
+            try {
+                idInt = Integer.parseInt(row.getCompanyId());
+            } catch (NumberFormatException e) {
+                // 形式エラーはバリデーションで検出する
+            }
+        }
+
+        String nameKey = trimToNull(row.getCompanyName());
+        String addressKey = trimToNull(row.getAddress());
+
+        // 住所の整合性チェックは郵便番号・住所の両方がある行のみ
+        String cleanZip = null;
+        if (!isBlank(row.getZipCode()) && !isBlank(row.getAddress())) {
+            cleanZip = row.getZipCode().replace("-", "");
+        }
+
+        return new StagedRow(index, row.getRowNum(),
+                hasId ? row.getCompanyId() : null, idInt, !hasId,
+                nameKey, row.getCompanyName(), addressKey, row.getAddress(), cleanZip);
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.trim().isEmpty();
+    }
+
+    private static String trimToNull(String s) {
+        if (s == null) {
+            return null;
+        }
+        String t = s.trim();
+        return t.isEmpty() ? null : t;
+    }
+}
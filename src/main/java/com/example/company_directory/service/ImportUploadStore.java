@@ -0,0 +1,250 @@
+package com.example.company_directory.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.example.company_directory.util.ImportFileType;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * インポートでアップロードされたファイルの一時保存領域。
+ *
+ * - ファイルは専用ディレクトリ（app.import.upload.dir）に「UUID + 拡張子」で保存する
+ * - 保存中の合計サイズが上限（app.import.upload.max-total-mb）を超えるアップロードは受け付けない
+ * - 最後に使われてから保持時間（app.import.upload.ttl-minutes）を過ぎたファイルは
+ *   ImportUploadSweepScheduler が定期的に削除する（最終更新日時を最終利用日時として使う）
+ * - 再解析時の読み込みはメモリマップで行う（xlsx はパスを渡してファイルとして開く）
+ */
+@Component
+public class ImportUploadStore {
+    private static final Logger log = LoggerFactory.getLogger(ImportUploadStore.class);
+
+    // 保存時に付ける名前の形式（リクエストから渡された名前はこの形式のものだけ受け付ける）
+    private static final Pattern FILE_NAME_PATTERN = Pattern.compile(
+            "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}\\.(xlsx|csv|tsv)");
+
+    private final Path directory;
+    private final long maxTotalBytes;
+    private final long ttlMillis;
+    private final Counter evictedCounter;
+
+    // 保存中のファイル名 → サイズ
+    private final Map<String, Long> sizes = new ConcurrentHashMap<>();
+    // 枠だけ確保して転送が終わっていないファイル名（掃除の対象外）
+    private final Set<String> transferring = ConcurrentHashMap.newKeySet();
+
+    public ImportUploadStore(
+            @Value("${app.import.upload.dir:}") String dir,
+            @Value("${app.import.upload.max-total-mb:1024}") long maxTotalMb,
+            @Value("${app.import.upload.ttl-minutes:120}") long ttlMinutes,
+            MeterRegistry meterRegistry) throws IOException {
+        this.directory = StringUtils.hasText(dir)
+                ? Paths.get(dir)
+                : Paths.get(System.getProperty("java.io.tmpdir"), "company-directory-uploads");
+        this.maxTotalBytes = maxTotalMb * 1024 * 1024;
+        this.ttlMillis = ttlMinutes * 60 * 1000;
+
+        Files.createDirectories(directory);
+        // 再起動前のファイルも引き続き管理する（期限切れなら次回の掃除で消える）
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (FILE_NAME_PATTERN.matcher(name).matches()) {
+                    sizes.put(name, Files.size(file));
+                }
+            }
+        }
+
+        Gauge.builder("import.upload.bytes", this, ImportUploadStore::totalBytes)
+                .description("一時保存中のアップロードファイルの合計サイズ")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("import.upload.files", sizes, Map::size)
+                .description("一時保存中のアップロードファイル数")
+                .register(meterRegistry);
+        this.evictedCounter = Counter.builder("import.upload.evicted")
+                .description("保持期限切れで削除したアップロードファイル数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * アップロードされたファイルを保存し、以降の処理で使う名前を返す。
+     * 受信済みの一時ファイルがあれば transferTo で移動するだけで、内容のコピーは行わない。
+     */
+    public String store(MultipartFile file, ImportFileType fileType) throws IOException {
+        String name = UUID.randomUUID().toString() + fileType.getSuffix();
+        reserve(name, file.getSize());
+        try {
+            file.transferTo(directory.resolve(name));
+        } catch (IOException | RuntimeException e) {
+            sizes.remove(name);
+            throw e;
+        } finally {
+            transferring.remove(name);
+        }
+        return name;
+    }
+
+    /** 合計サイズの上限を確認して枠を確保する */
+    private synchronized void reserve(String name, long bytes) {
+        if (totalBytes() + bytes > maxTotalBytes) {
+            // 期限切れのファイルが残っていれば先に消してから判定し直す
+            sweepExpired();
+            if (totalBytes() + bytes > maxTotalBytes) {
+                throw new RuntimeException("アップロードファイルの保存領域が不足しています。しばらくしてから再度お試しください。");
+            }
+        }
+        sizes.put(name, bytes);
+        transferring.add(name);
+    }
+
+    public boolean exists(String name) {
+        return Files.exists(resolve(name));
+    }
+
+    /**
+     * 保存したファイルを読み込む（メモリマップ）。
+     * 読み込みのたびに最終利用日時を更新し、使用中のファイルが期限切れにならないようにする。
+     */
+    public InputStream open(String name) throws IOException {
+        Path file = resolve(name);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                // 1回でマップできない大きさ（アップロード上限内では起きない）
+                return Files.newInputStream(file);
+            }
+            // マップはチャネルを閉じても有効
+            return new MappedInputStream(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    /**
+     * 保存したファイルのパス（xlsx をファイルとして開く場合に使う）。
+     * open と同じく最終利用日時を更新する。
+     */
+    public Path path(String name) throws IOException {
+        Path file = resolve(name);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        return file;
+    }
+
+    public void delete(String name) throws IOException {
+        Files.deleteIfExists(resolve(name));
+        sizes.remove(name);
+    }
+
+    /**
+     * 保持期限を過ぎたファイルを削除し、管理から外したファイル名を返す。
+     * 手動での削除など delete 以外で消えたファイルも、サイズの枠を解放するため管理から外す。
+     */
+    public synchronized List<String> sweepExpired() {
+        long threshold = System.currentTimeMillis() - ttlMillis;
+        List<String> removed = new ArrayList<>();
+        int expired = 0;
+        for (String name : List.copyOf(sizes.keySet())) {
+            if (transferring.contains(name)) {
+                continue;
+            }
+            Path file = directory.resolve(name);
+            try {
+                if (Files.getLastModifiedTime(file).toMillis() < threshold) {
+                    Files.deleteIfExists(file);
+                    sizes.remove(name);
+                    removed.add(name);
+                    expired++;
+                }
+            } catch (NoSuchFileException e) {
+                log.info("アップロードファイルが見つからないため管理から外します: {}", name);
+                sizes.remove(name);
+                removed.add(name);
+            } catch (IOException e) {
+                log.warn("アップロードファイルの削除に失敗しました: {}", name, e);
+            }
+        }
+        evictedCounter.increment(expired);
+        return removed;
+    }
+
+    /** 名前を検証して保存先のパスにする（形式が違う名前はディレクトリ外の参照を防ぐため拒否する） */
+    private Path resolve(String name) {
+        if (name == null || !FILE_NAME_PATTERN.matcher(name).matches()) {
+            throw new RuntimeException("ファイル名が不正です。再度ファイルをアップロードしてください。");
+        }
+        return directory.resolve(name);
+    }
+
+    private long totalBytes() {
+        long total = 0;
+        for (long size : sizes.values()) {
+            total += size;
+        }
+        return total;
+    }
+
+    /** メモリマップしたファイルを読む InputStream */
+    private static final class MappedInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        MappedInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
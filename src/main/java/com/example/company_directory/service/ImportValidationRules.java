@@ -0,0 +1,298 @@
+package com.example.company_directory.service;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+import com.example.company_directory.dto.ImportIssue;
+import com.example.company_directory.dto.ImportIssueCode;
+import com.example.company_directory.dto.ImportRowDto;
+import com.example.company_directory.util.DateHelper;
+import com.example.company_directory.util.ZipMasterTable;
+
+/**
+ * インポート行の検証ルールの実装。
+ * 正規表現は使わず、1文字ずつの判定で行う。
+ * 問題は種類（ImportIssueCode）で追加し、文言は ImportIssueCode / ImportIssue 側で持つ。
+ * 問題の順序は各ルールの登録順（ImportRulePipeline）で決まる。
+ */
+final class ImportValidationRules {
+
+    private ImportValidationRules() {
+    }
+
+    // ======== エラー ========
+
+    /** 必須項目（企業名・郵便番号・住所） */
+    static void required(ImportRowDto row, int index, ImportRule.Context ctx, List<ImportIssue> errors) {
+        if (isBlank(row.getCompanyName())) {
+            errors.add(ImportIssue.of(ImportIssueCode.REQUIRED_COMPANY_NAME));
+        }
+        if (isBlank(row.getZipCode())) {
+            errors.add(ImportIssue.of(ImportIssueCode.REQUIRED_ZIP_CODE));
+        }
+        if (isBlank(row.getAddress())) {
+            errors.add(ImportIssue.of(ImportIssueCode.REQUIRED_ADDRESS));
+        }
+    }
+
+    /** 企業ID（形式・ファイル内重複・DB存在・範囲） */
+    static void companyId(ImportRowDto row, int index, ImportRule.Context ctx, List<ImportIssue> errors) {
+        String companyId = row.getCompanyId();
+        if (isBlank(companyId)) {
+            return;
+        }
+
+        // 半角数字のみ
+        boolean digitsOnly = isAsciiDigits(companyId, 0, companyId.length());
+        if (!digitsOnly) {
+            errors.add(ImportIssue.of(ImportIssueCode.COMPANY_ID_NOT_DIGITS));
+        }
+
+        // Excel内で重複しているか？（前の行に同じIDがある）
+        if (ctx.facts().isDuplicateId(index)) {
+            errors.add(ImportIssue.of(ImportIssueCode.COMPANY_ID_DUPLICATE_IN_FILE));
+        }
+
+        // DB上に存在しないID（更新モードの場合）
+        if (!ctx.prefetch().existsId(companyId)) {
+            errors.add(ImportIssue.of(ImportIssueCode.COMPANY_ID_NOT_FOUND));
+        }
+
+        // 数値変換できるか、Integerの最大値を超えていないか、1以上か
+        long id = digitsOnly ? parseNonNegative(companyId) : parseSigned(companyId);
+        if (id == Long.MIN_VALUE) {
+            errors.add(ImportIssue.of(ImportIssueCode.COMPANY_ID_NOT_INTEGER));
+        } else if (id < 1) {
+            errors.add(ImportIssue.of(ImportIssueCode.COMPANY_ID_NOT_POSITIVE));
+        }
+    }
+
+    /** 郵便番号の形式（123-4567） */
+    static void zipFormat(ImportRowDto row, int index, ImportRule.Context ctx, List<ImportIssue> errors) {
+        String zip = row.getZipCode();
+        if (isBlank(zip)) {
+            return;
+        }
+        boolean valid = zip.length() == 8
+                && isAsciiDigits(zip, 0, 3)
+                && zip.charAt(3) == '-'
+                && isAsciiDigits(zip, 4, 8);
+        if (!valid) {
+            errors.add(ImportIssue.of(ImportIssueCode.ZIP_CODE_FORMAT));
+        }
+    }
+
+    /** 登録日の形式（解釈した日付は行に保持し、警告チェック・登録時に再解釈しない） */
+    static void registrationDate(ImportRowDto row, int index, ImportRule.Context ctx, List<ImportIssue> errors) {
+        row.setParsedRegistrationDate(DateHelper.parseFlexible(row.getRegistrationDate()));
+        if (!isBlank(row.getRegistrationDate()) && row.getParsedRegistrationDate() == null) {
+            errors.add(ImportIssue.of(ImportIssueCode.REGISTRATION_DATE_FORMAT));
+        }
+    }
+
+    /** 文字数の上限 */
+    static void length(ImportRowDto row, int index, ImportRule.Context ctx, List<ImportIssue> errors) {
+        // 企業名
+        if (!isBlank(row.getCompanyName()) && row.getCompanyName().length() > 100) {
+            errors.add(ImportIssue.of(ImportIssueCode.COMPANY_NAME_TOO_LONG));
+        }
+
+        // 住所
+        if (!isBlank(row.getAddress()) && row.getAddress().length() > 200) {
+            errors.add(ImportIssue.of(ImportIssueCode.ADDRESS_TOO_LONG));
+        }
+
+        // 郵便番号
+        if (!isBlank(row.getZipCode()) && row.getZipCode().length() > 8) {
+            errors.add(ImportIssue.of(ImportIssueCode.ZIP_CODE_TOO_LONG));
+        }
+
+        // 備考
+        if (!isBlank(row.getRemarks()) && row.getRemarks().length() > 1000) {
+            errors.add(ImportIssue.of(ImportIssueCode.REMARKS_TOO_LONG));
+        }
+    }
+
+    // ======== 警告 ========
+
+    /** Excel内：同名企業（自分以外の行がある場合） */
+    static void duplicateNameInFile(ImportRowDto row, int index, ImportRule.Context ctx, List<ImportIssue> warnings) {
+        String name = normalizeString(row.getCompanyName());
+        if (name == null) {
+            return;
+        }
+        List<Integer> lines = ctx.facts().getNameToRows().getOrDefault(name, Collections.emptyList());
+        if (hasOtherLine(lines, row.getRowNum())) {
+            // 行番号リストはグループ内の行で共有する
+            warnings.add(ImportIssue.duplicate(ImportIssueCode.DUPLICATE_NAME_IN_FILE, lines));
+        }
+    }
+
+    /** Excel内：同住所（自分以外） */
+    static void duplicateAddressInFile(ImportRowDto row, int index, ImportRule.Context ctx,
+            List<ImportIssue> warnings) {
+        String addr = normalizeString(row.getAddress());
+        if (addr == null) {
+            return;
+        }
+        List<Integer> lines = ctx.facts().getAddressToRows().getOrDefault(addr, Collections.emptyList());
+        if (hasOtherLine(lines, row.getRowNum())) {
+            warnings.add(ImportIssue.duplicate(ImportIssueCode.DUPLICATE_ADDRESS_IN_FILE, lines));
+        }
+    }
+
+    /** DBとのチェック（新規かつ既存同名） */
+    static void existingName(ImportRowDto row, int index, ImportRule.Context ctx, List<ImportIssue> warnings) {
+        if (isNewWithoutId(row) && normalizeString(row.getCompanyName()) != null
+                && ctx.prefetch().existsName(row.getCompanyName())) {
+            warnings.add(ImportIssue.of(ImportIssueCode.EXISTING_NAME));
+        }
+    }
+
+    /** 新規かつ DB で住所一致 */
+    static void existingAddress(ImportRowDto row, int index, ImportRule.Context ctx, List<ImportIssue> warnings) {
+        if (isNewWithoutId(row) && normalizeString(row.getAddress()) != null
+                && ctx.prefetch().existsAddress(row.getAddress())) {
+            warnings.add(ImportIssue.of(ImportIssueCode.EXISTING_ADDRESS));
+        }
+    }
+
+    /** 表記ゆれを除くと似ている企業名（ファイル内 / 登録済み。完全一致は同名警告の対象なので含まない） */
+    static void nearDuplicateName(ImportRowDto row, int index, ImportRule.Context ctx, List<ImportIssue> warnings) {
+        List<Integer> lines = ctx.nearDuplicates().similarRowsInFile(index);
+        if (!lines.isEmpty()) {
+            warnings.add(ImportIssue.duplicate(ImportIssueCode.NEAR_DUPLICATE_NAME_IN_FILE, lines));
+        }
+        List<Integer> ids = ctx.nearDuplicates().similarExistingIds(index);
+        if (!ids.isEmpty()) {
+            warnings.add(ImportIssue.companyIds(ImportIssueCode.NEAR_DUPLICATE_NAME_EXISTING, ids));
+        }
+        if (ctx.nearDuplicates().isCheckTruncated(index)) {
+            warnings.add(ImportIssue.of(ImportIssueCode.NEAR_DUPLICATE_CHECK_TRUNCATED));
+        }
+    }
+
+    /** 登録日が未来日か */
+    static void futureDate(ImportRowDto row, int index, ImportRule.Context ctx, List<ImportIssue> warnings) {
+        LocalDate d = row.getParsedRegistrationDate();
+        if (d != null && d.isAfter(LocalDate.now())) {
+            warnings.add(ImportIssue.of(ImportIssueCode.FUTURE_REGISTRATION_DATE));
+        }
+    }
+
+    /** 住所が極端に短い */
+    static void shortAddress(ImportRowDto row, int index, ImportRule.Context ctx, List<ImportIssue> warnings) {
+        if (!isBlank(row.getAddress()) && row.getAddress().length() <= 5) {
+            warnings.add(ImportIssue.of(ImportIssueCode.SHORT_ADDRESS));
+        }
+    }
+
+    /** 郵便番号と住所の不整合 */
+    static void zipAddressConsistency(ImportRowDto row, int index, ImportRule.Context ctx,
+            List<ImportIssue> warnings) {
+        String inputZip = row.getZipCode();
+        String inputAddress = row.getAddress();
+
+        if (isBlank(inputZip) || isBlank(inputAddress))
+            return;
+
+        // 1. 郵便番号の正規化（ハイフン除去）
+        String cleanZip = inputZip.replace("-", "");
+
+        // 2. マスタ検索（メモリ上のインデックス）
+        ZipMasterTable zipTable = ctx.prefetch().getZipTable();
+        int idx = zipTable.indexOf(cleanZip);
+
+        // マスタにない郵便番号の場合はスキップ（または「郵便番号が存在しません」と警告）
+        if (idx < 0) {
+            warnings.add(ImportIssue.of(ImportIssueCode.ZIP_CODE_NOT_FOUND));
+            return;
+        }
+
+        // --- ① 市区町村まで ---
+        String expectedBase = zipTable.city(idx) + zipTable.prefecture(idx);
+        String masterTown = zipTable.town(idx);
+        if (!inputAddress.startsWith(expectedBase)) {
+            warnings.add(ImportIssue.zip(ImportIssueCode.ZIP_CITY_MISMATCH, zipTable, idx));
+            return; // 市区町村ズレは強めなのでここで止める
+        }
+
+        // 4. 町名チェック（町名が書かれている場合のみ）
+        if (!isBlank(masterTown)) {
+
+            // 入力住所に「町名っぽい情報」が含まれているか
+            boolean townWritten = inputAddress.contains("町")
+                    || inputAddress.contains("丁目")
+                    || inputAddress.contains(masterTown);
+
+            // 町名が書かれているのに、マスタ町名と一致しない場合だけ警告
+            if (townWritten && !inputAddress.contains(masterTown)) {
+                warnings.add(ImportIssue.of(ImportIssueCode.ZIP_TOWN_MISMATCH));
+            }
+        }
+
+        // 丁目と番地チェックを余裕があれば追加
+    }
+
+    // ======== 共通 ========
+
+    private static boolean isNewWithoutId(ImportRowDto row) {
+        return row.getCompanyId() == null || row.getCompanyId().isEmpty();
+    }
+
+    /** 自分以外の行番号があるか */
+    private static boolean hasOtherLine(List<Integer> lines, int ownRowNum) {
+        for (Integer rn : lines) {
+            if (rn != ownRowNum) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAsciiDigits(String s, int from, int to) {
+        if (from >= to) {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** 半角数字のみの文字列を int の範囲で数値にする（範囲外は Long.MIN_VALUE） */
+    private static long parseNonNegative(String s) {
+        long value = 0;
+        for (int i = 0; i < s.length(); i++) {
+            value = value * 10 + (s.charAt(i) - '0');
+            if (value > Integer.MAX_VALUE) {
+                return Long.MIN_VALUE;
+            }
+        }
+        return value;
+    }
+
+    /** 符号付きなど半角数字以外を含む場合（Integer.parseInt と同じ判定。数値でなければ Long.MIN_VALUE） */
+    private static long parseSigned(String s) {
+        try {
+            return Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.trim().isEmpty();
+    }
+
+    private static String normalizeString(String s) {
+        if (s == null)
+            return null;
+        String t = s.trim();
+        return t.isEmpty() ? null : t;
+    }
+}
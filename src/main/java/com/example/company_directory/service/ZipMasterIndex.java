@@ -0,0 +1,80 @@
+package com.example.company_directory.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import com.example.company_directory.util.ZipMasterTable;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 郵便番号マスタのメモリ上インデックス。
+ * 起動時に zip_master を全件読み込み、インポート検証と郵便番号APIで共有する。
+ * 再読み込みは新しい表を組み立ててから参照を差し替えるため、検索中の処理には影響しない。
+ */
+@Service
+public class ZipMasterIndex {
+    private static final Logger log = LoggerFactory.getLogger(ZipMasterIndex.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile ZipMasterTable table;
+
+    public ZipMasterIndex(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+
+        Gauge.builder("zip.master.index.entries", this, idx -> idx.current().size())
+                .description("郵便番号インデックスの件数")
+                .register(meterRegistry);
+        Gauge.builder("zip.master.index.bytes", this, idx -> idx.current().estimatedBytes())
+                .description("郵便番号インデックスの推定メモリ使用量")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        refresh();
+    }
+
+    /** 現在の表を返す（未読み込みならその場で読み込む） */
+    public ZipMasterTable table() {
+        ZipMasterTable t = table;
+        if (t == null) {
+            synchronized (this) {
+                t = table;
+                if (t == null) {
+                    t = refresh();
+                }
+            }
+        }
+        return t;
+    }
+
+    /** zip_master から表を作り直して差し替える */
+    public synchronized ZipMasterTable refresh() {
+        long start = System.currentTimeMillis();
+
+        ZipMasterTable.Builder builder = new ZipMasterTable.Builder();
+        jdbcTemplate.query("SELECT zip_code, prefecture, city, town FROM zip_master ORDER BY zip_code",
+                (RowCallbackHandler) rs -> builder.add(
+                        rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4)));
+        ZipMasterTable newTable = builder.build();
+        table = newTable;
+
+        log.info("郵便番号インデックス読み込み完了: 件数 = {}, 辞書 = {}, 推定サイズ = {} bytes, {} ms",
+                newTable.size(), newTable.dictionarySize(), newTable.estimatedBytes(),
+                System.currentTimeMillis() - start);
+        return newTable;
+    }
+
+    private ZipMasterTable current() {
+        ZipMasterTable t = table;
+        return t != null ? t : ZipMasterTable.EMPTY;
+    }
+}
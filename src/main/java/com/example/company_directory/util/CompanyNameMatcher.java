@@ -0,0 +1,182 @@
+package com.example.company_directory.util;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * 企業名の表記ゆれを吸収した比較（類似企業名の検出用）。
+ *
+ * - normalize: NFKC（全角英数・㈱ などを統一）→ 小文字化 → 法人格の表記（株式会社・(株)・Inc. など）と
+ *   空白・記号を除いた比較用のキーにする
+ * - bandKeys: キーの2文字組（bigram）の MinHash を帯（band）ごとにまとめた値。
+ *   帯の値が1つでも一致するものだけを比較候補にすることで、全組み合わせの比較を避ける。
+ *   候補が多すぎる帯は、別の MinHash（level 1〜MAX_LEVEL）の帯でさらに細かく分ける
+ * - similarity: 2文字組の集合の Jaccard 係数
+ */
+public class CompanyNameMatcher {
+
+    // MinHash の関数の数 = 帯の数 × 帯あたりの行数（類似度 0.8 の組が候補に入る確率は約 0.97）
+    private static final int BANDS = 6;
+    private static final int ROWS_PER_BAND = 2;
+    private static final int HASHES = BANDS * ROWS_PER_BAND;
+
+    /** 帯を細分する段数の上限（0 が通常の帯） */
+    public static final int MAX_LEVEL = 3;
+    private static final long[][] SEEDS = new long[MAX_LEVEL + 1][HASHES];
+
+    static {
+        for (int level = 0; level <= MAX_LEVEL; level++) {
+            long seed = 0x9E3779B97F4A7C15L + level;
+            for (int i = 0; i < HASHES; i++) {
+                seed = mix(seed + i);
+                SEEDS[level][i] = seed;
+            }
+        }
+    }
+
+    // 法人格の表記（長いものから順に除く。NFKC・小文字化した後の形）
+    private static final String[] LEGAL_FORMS = {
+            "特定非営利活動法人", "一般社団法人", "一般財団法人", "公益社団法人", "公益財団法人",
+            "社会福祉法人", "株式会社", "有限会社", "合同会社", "合資会社", "合名会社", "医療法人", "学校法人",
+            "npo法人", "(株)", "(有)", "(合)", "(資)", "(名)", "(社)", "(財)", "(医)",
+            "corporation", "company", "co.,ltd.", "co.,ltd", "co.ltd.", "co.ltd", "corp.", "inc.", "ltd.",
+            "k.k." };
+
+    private CompanyNameMatcher() {
+    }
+
+    /** 比較用のキー（空白・記号・法人格のみの名前は空文字） */
+    public static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        String s = Normalizer.normalize(name, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        // 空白を先に除いておく（「株式 会社」「Co., Ltd.」などの表記ゆれ）
+        s = removeSpaces(s);
+        for (String form : LEGAL_FORMS) {
+            s = s.replace(form, "");
+        }
+        return keepLettersAndDigits(s);
+    }
+
+    /** 候補抽出に使う帯ごとの値（キーが空なら空配列） */
+    public static long[] bandKeys(String key) {
+        return bandKeys(key, 0);
+    }
+
+    /** 段ごとに別の MinHash で求めた帯の値（level 0 は bandKeys(key) と同じ） */
+    public static long[] bandKeys(String key, int level) {
+        if (key.isEmpty()) {
+            return new long[0];
+        }
+        long[] seeds = SEEDS[level];
+        long[] minHashes = new long[HASHES];
+        Arrays.fill(minHashes, Long.MAX_VALUE);
+        forEachShingle(key, shingle -> {
+            for (int h = 0; h < HASHES; h++) {
+                long v = mix(shingle ^ seeds[h]);
+                if (v < minHashes[h]) {
+                    minHashes[h] = v;
+                }
+            }
+        });
+
+        long[] bands = new long[BANDS];
+        for (int b = 0; b < BANDS; b++) {
+            long v = b;
+            for (int r = 0; r < ROWS_PER_BAND; r++) {
+                v = mix(v * 31 + minHashes[b * ROWS_PER_BAND + r]);
+            }
+            bands[b] = v;
+        }
+        return bands;
+    }
+
+    /** 2文字組の集合の Jaccard 係数（0〜1） */
+    public static double similarity(String key1, String key2) {
+        if (key1.equals(key2)) {
+            return 1.0;
+        }
+        if (key1.isEmpty() || key2.isEmpty()) {
+            return 0.0;
+        }
+        long[] s1 = shingles(key1);
+        long[] s2 = shingles(key2);
+        int i = 0;
+        int j = 0;
+        int common = 0;
+        while (i < s1.length && j < s2.length) {
+            if (s1[i] == s2[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (s1[i] < s2[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) common / (s1.length + s2.length - common);
+    }
+
+    private static String removeSpaces(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (!Character.isWhitespace(c) && !Character.isSpaceChar(c)) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String keepLettersAndDigits(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); ) {
+            int cp = s.codePointAt(i);
+            if (Character.isLetterOrDigit(cp)) {
+                sb.appendCodePoint(cp);
+            }
+            i += Character.charCount(cp);
+        }
+        return sb.toString();
+    }
+
+    private interface ShingleConsumer {
+        void accept(long shingle);
+    }
+
+    /** 2文字組（1文字だけのキーはその1文字）を数値にして渡す */
+    private static void forEachShingle(String key, ShingleConsumer consumer) {
+        if (key.length() == 1) {
+            consumer.accept(key.charAt(0));
+            return;
+        }
+        for (int i = 0; i + 1 < key.length(); i++) {
+            consumer.accept(((long) key.charAt(i) << 16) | key.charAt(i + 1));
+        }
+    }
+
+    /** 2文字組の集合（昇順・重複なし） */
+    private static long[] shingles(String key) {
+        long[] values = new long[Math.max(1, key.length() - 1)];
+        int[] n = { 0 };
+        forEachShingle(key, shingle -> values[n[0]++] = shingle);
+        Arrays.sort(values, 0, n[0]);
+        int unique = 0;
+        for (int i = 0; i < n[0]; i++) {
+            if (unique == 0 || values[unique - 1] != values[i]) {
+                values[unique++] = values[i];
+            }
+        }
+        return Arrays.copyOf(values, unique);
+    }
+
+    /** 64ビットのハッシュ混合（splitmix64） */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
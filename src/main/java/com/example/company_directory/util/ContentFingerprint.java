@@ -0,0 +1,38 @@
+package com.example.company_directory.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * 企業データの内容フィンガープリント（企業名・住所・郵便番号・備考の MD5）。
+ *
+ * DB側は CompanyBulkRepository.findFingerprints で同じ値を SQL の md5() で求める。
+ * 項目は制御文字 US(0x1F) で区切り、備考の null は空文字として扱う。
+ * 両方の計算方法は必ず揃えること。
+ */
+public class ContentFingerprint {
+
+    private static final char SEPARATOR = '\u001f';
+
+    private ContentFingerprint() {
+    }
+
+    public static String of(String companyName, String address, String zipCode, String remarks) {
+        String content = nullToEmpty(companyName) + SEPARATOR
+                + nullToEmpty(address) + SEPARATOR
+                + nullToEmpty(zipCode) + SEPARATOR
+                + nullToEmpty(remarks);
+        try {
+            MessageDigest md5 = MessageDigest.getInstance("MD5");
+            return HexFormat.of().formatHex(md5.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String nullToEmpty(String s) {
+        return s != null ? s : "";
+    }
+}
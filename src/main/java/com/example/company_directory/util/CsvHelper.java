@@ -0,0 +1,230 @@
+package com.example.company_directory.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import com.example.company_directory.dto.ImportRowDto;
+
+/**
+ * CSV / TSV のインポート読み取りと、CSV のエクスポート書き出し。
+ *
+ * - 列の並び・必須列・空行の扱い・行番号は Excel（ExcelHelper.parseExcel）と同じ
+ * - 文字コードは BOM 付き UTF-8 / UTF-8 / Shift_JIS（Windows-31J）を先頭部分から判定する
+ * - gzip 圧縮されたファイルはそのまま展開しながら読む
+ */
+public class CsvHelper {
+
+    private static final Charset SHIFT_JIS = Charset.forName("windows-31j");
+
+    /** 文字コード判定に使う先頭部分のバイト数 */
+    private static final int DETECT_BYTES = 64 * 1024;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * ストリーミング読み取り。
+     * 1行ずつ解析して consumer へ通知する（ファイル全体をメモリに読み込まない）。
+     */
+    public static void parseDelimited(InputStream inputStream, char delimiter, Consumer<ImportRowDto> consumer) {
+        try (Reader reader = openReader(inputStream)) {
+            DelimitedReader records = new DelimitedReader(reader, delimiter);
+
+            // --- ヘッダー行 ---
+            String[] header = records.next();
+            if (header == null) {
+                throw new RuntimeException("ファイルにデータがありません。");
+            }
+            if (ExcelHelper.isAllEmpty(header)) {
+                throw new RuntimeException("ヘッダー行が空です。テンプレートを確認してください。");
+            }
+            Map<String, Integer> columnIndex = ExcelHelper.buildColumnIndex(Arrays.asList(header));
+            ExcelHelper.checkRequiredColumns(columnIndex);
+
+            // --- データ行（行番号はヘッダーの次の行を1とする） ---
+            int rowNum = 0;
+            String[] values;
+            while ((values = records.next()) != null) {
+                rowNum++;
+                if (rowNum > ExcelHelper.MAX_IMPORT_ROWS) {
+                    throw new RuntimeException("データ量が大きすぎて読み込めません。ファイルを分割してください。");
+                }
+                if (ExcelHelper.isAllEmpty(values)) {
+                    continue;
+                }
+                consumer.accept(ExcelHelper.toRowDto(rowNum, values, columnIndex));
+            }
+
+            if (rowNum == 0) {
+                throw new RuntimeException("ファイルにデータがありません。");
+            }
+
+        } catch (Exception e) {
+            throw new RuntimeException("CSV読み取り中にエラーが発生しました: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * エクスポート。列ごとの値の配列（columns と同じ並び）を CSV（RFC 4180、改行は CRLF）として out に書き出す。
+     * 見出し行・No. 列は Excel のエクスポートと同じ。UTF-8 の場合は先頭に BOM を付ける。
+     * 1行ずつバッファに書くだけなので、件数によらず使用メモリは一定。out は閉じない。
+     * 文字コードで表せない文字（Shift_JIS の機種依存の異体字・絵文字など）は ? に置き換えず、
+     * 行と列を示して RuntimeException にする。
+     */
+    public static void writeRows(List<ExportColumn> columns, Iterable<Object[]> rows, OutputStream out,
+            Charset charset) throws IOException {
+        ExportColumn[] cols = columns.toArray(new ExportColumn[0]);
+        // 判定漏れがあっても置き換えずにエラーにする
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT)), BUFFER_SIZE);
+        // UTF-8 はすべての文字を表せるため判定しない
+        CharsetEncoder checker = StandardCharsets.UTF_8.equals(charset) ? null : charset.newEncoder();
+
+        if (StandardCharsets.UTF_8.equals(charset)) {
+            writer.write('\uFEFF');
+        }
+
+        // ----- ヘッダー行 -----
+        writer.write("No.");
+        for (ExportColumn col : cols) {
+            writer.write(',');
+            writeField(writer, col.getHeader());
+        }
+        writer.write("\r\n");
+
+        // ----- データ行 -----
+        int rNum = 1;
+        for (Object[] values : rows) {
+            writer.write(Integer.toString(rNum));
+            for (int c = 0; c < cols.length; c++) {
+                writer.write(',');
+                if (values[c] != null) {
+                    String value = values[c].toString();
+                    if (checker != null) {
+                        String unmappable = findUnmappable(checker, value);
+                        if (unmappable != null) {
+                            throw new RuntimeException("No." + rNum + " の「" + cols[c].getHeader()
+                                    + "」に Shift_JIS で出力できない文字（" + unmappable
+                                    + "）があります。UTF-8 で出力してください。");
+                        }
+                    }
+                    writeField(writer, value);
+                }
+            }
+            writer.write("\r\n");
+            rNum++;
+        }
+        writer.flush();
+    }
+
+    /** 文字コードで表せない最初の文字（すべて表せれば null。ASCII は判定しない） */
+    private static String findUnmappable(CharsetEncoder encoder, String value) {
+        for (int i = 0; i < value.length();) {
+            int cp = value.codePointAt(i);
+            int next = i + Character.charCount(cp);
+            if (cp >= 0x80 && !encoder.canEncode(value.substring(i, next))) {
+                return value.substring(i, next);
+            }
+            i = next;
+        }
+        return null;
+    }
+
+    /** 区切り文字・改行・ダブルクォートを含む値はクォートで囲む（" は "" にする） */
+    private static void writeField(Writer writer, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                quote = true;
+                break;
+            }
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    /** gzip の展開と文字コードの判定を行い、Reader を返す */
+    private static Reader openReader(InputStream inputStream) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(inputStream, BUFFER_SIZE);
+
+        // gzip（先頭2バイトが 1f 8b）
+        in.mark(2);
+        int b1 = in.read();
+        int b2 = in.read();
+        in.reset();
+        if (b1 == 0x1f && b2 == 0x8b) {
+            in = new BufferedInputStream(new GZIPInputStream(in, BUFFER_SIZE), BUFFER_SIZE);
+        }
+
+        // 先頭部分を読み、BOM の有無と UTF-8 として正しいかで文字コードを決める
+        in.mark(DETECT_BYTES);
+        byte[] head = in.readNBytes(DETECT_BYTES);
+        in.reset();
+
+        Charset charset;
+        if (head.length >= 3 && (head[0] & 0xff) == 0xef && (head[1] & 0xff) == 0xbb && (head[2] & 0xff) == 0xbf) {
+            in.skipNBytes(3);
+            charset = StandardCharsets.UTF_8;
+        } else {
+            charset = isUtf8(head, head.length == DETECT_BYTES) ? StandardCharsets.UTF_8 : SHIFT_JIS;
+        }
+        return new InputStreamReader(in, charset);
+    }
+
+    /**
+     * UTF-8 として不正なバイト列がないか。
+     * truncated が true の場合、末尾で途切れた文字は不正とみなさない。
+     */
+    private static boolean isUtf8(byte[] bytes, boolean truncated) {
+        int length = bytes.length;
+        if (truncated) {
+            // 途中で切った多バイト文字の先頭まで戻す（UTF-8 の文字は最大4バイト）
+            int i = length - 1;
+            while (i >= 0 && i >= length - 4 && (bytes[i] & 0xc0) == 0x80) {
+                i--;
+            }
+            if (i >= 0 && (bytes[i] & 0x80) != 0) {
+                length = i;
+            }
+        }
+        try {
+            StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(bytes, 0, length));
+            return true;
+        } catch (CharacterCodingException e) {
+            return false;
+        }
+    }
+}
@@ -1,5 +1,177 @@
 package com.example.company_directory.util;
 
-public class DateHelper {
-    
+import java.time.LocalDate;
+
+/**
+ * 日付文字列の解釈。
+ * DateTimeFormatter を使わず1文字ずつ読み取るため、解釈できない入力でも例外は発生しない。
+ */
+public final class DateHelper {
+
+    private DateHelper() {
+    }
+
+    /**
+     * インポートの登録日として受け付ける形式の日付を解釈する（前後の空白は無視）。
+     *
+     * - yyyy-MM-dd / yyyy-M-d / yyyy/MM/dd / yyyy/M/d
+     * - yyyy年MM月dd日（月・日は2桁）
+     * - M/d/yy / M/d/yyyy（米国式、2桁の年は 2000年代）
+     *
+     * 月は1～12、日は1～31 の範囲で受け付け、月の日数を超える日は月末に丸める
+     * （従来の DateTimeFormatter（ResolverStyle.SMART）と同じ扱い）。
+     *
+     * @return 解釈できなければ null
+     */
+    public static LocalDate parseFlexible(String text) {
+        if (text == null) {
+            return null;
+        }
+
+        // 前後の空白を除いた範囲 [start, end)
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return null;
+        }
+
+        // 1つ目の数字の並び
+        int pos = start;
+        int first = 0;
+        int firstDigits = 0;
+        while (pos < end && isDigit(text.charAt(pos)) && firstDigits < 5) {
+            first = first * 10 + (text.charAt(pos) - '0');
+            firstDigits++;
+            pos++;
+        }
+        if (pos == end || firstDigits == 0) {
+            return null;
+        }
+        char sep = text.charAt(pos);
+
+        if (firstDigits == 4) {
+            // 年が先頭の形式
+            if (sep == '-' || sep == '/') {
+                return parseYearFirst(text, pos + 1, end, first, sep);
+            }
+            if (sep == '年') {
+                return parseKanji(text, pos + 1, end, first);
+            }
+            return null;
+        }
+        if (firstDigits <= 2 && sep == '/') {
+            return parseUs(text, pos + 1, end, first);
+        }
+        return null;
+    }
+
+    /** yyyy-M-d / yyyy/M/d（区切り文字は2か所とも同じ） */
+    private static LocalDate parseYearFirst(String text, int pos, int end, int year, char sep) {
+        int month = 0;
+        int monthDigits = 0;
+        while (pos < end && isDigit(text.charAt(pos))) {
+            if (++monthDigits > 2) {
+                return null;
+            }
+            month = month * 10 + (text.charAt(pos++) - '0');
+        }
+        if (monthDigits == 0 || pos == end || text.charAt(pos) != sep) {
+            return null;
+        }
+        pos++;
+
+        int day = 0;
+        int dayDigits = 0;
+        while (pos < end && isDigit(text.charAt(pos))) {
+            if (++dayDigits > 2) {
+                return null;
+            }
+            day = day * 10 + (text.charAt(pos++) - '0');
+        }
+        if (dayDigits == 0 || pos != end) {
+            return null;
+        }
+        return resolve(year, month, day);
+    }
+
+    /** yyyy年MM月dd日 */
+    private static LocalDate parseKanji(String text, int pos, int end, int year) {
+        // 残りは「MM月dd日」の6文字ちょうど
+        if (end - pos != 6
+                || !isDigit(text.charAt(pos)) || !isDigit(text.charAt(pos + 1)) || text.charAt(pos + 2) != '月'
+                || !isDigit(text.charAt(pos + 3)) || !isDigit(text.charAt(pos + 4)) || text.charAt(pos + 5) != '日') {
+            return null;
+        }
+        int month = (text.charAt(pos) - '0') * 10 + (text.charAt(pos + 1) - '0');
+        int day = (text.charAt(pos + 3) - '0') * 10 + (text.charAt(pos + 4) - '0');
+        return resolve(year, month, day);
+    }
+
+    /** M/d/yy / M/d/yyyy（月は読み取り済み） */
+    private static LocalDate parseUs(String text, int pos, int end, int month) {
+        int day = 0;
+        int dayDigits = 0;
+        while (pos < end && isDigit(text.charAt(pos))) {
+            if (++dayDigits > 2) {
+                return null;
+            }
+            day = day * 10 + (text.charAt(pos++) - '0');
+        }
+        if (dayDigits == 0 || pos == end || text.charAt(pos) != '/') {
+            return null;
+        }
+        pos++;
+
+        int year = 0;
+        int yearDigits = 0;
+        while (pos < end && isDigit(text.charAt(pos))) {
+            if (++yearDigits > 4) {
+                return null;
+            }
+            year = year * 10 + (text.charAt(pos++) - '0');
+        }
+        if (pos != end) {
+            return null;
+        }
+        if (yearDigits == 2) {
+            year += 2000;
+        } else if (yearDigits != 4) {
+            return null;
+        }
+        return resolve(year, month, day);
+    }
+
+    private static LocalDate resolve(int year, int month, int day) {
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return null;
+        }
+        int lastDay = lengthOfMonth(year, month);
+        return LocalDate.of(year, month, Math.min(day, lastDay));
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    // 半角数字のみ（全角数字は受け付けない）
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
 }
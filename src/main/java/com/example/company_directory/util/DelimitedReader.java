@@ -0,0 +1,122 @@
+package com.example.company_directory.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV / TSV を1レコードずつ読み取る（RFC 4180 準拠）。
+ *
+ * - ダブルクォートで囲んだ項目は区切り文字・改行を含められる（"" はクォート1文字）
+ * - 改行は CRLF / LF / CR のいずれも可
+ * - 読み取りは内部バッファ単位で行い、ファイル全体を保持しない
+ */
+class DelimitedReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final char delimiter;
+    private final char[] buf = new char[BUFFER_SIZE];
+    private int pos = 0;
+    private int limit = 0;
+    private boolean eof = false;
+
+    private final List<String> fields = new ArrayList<>();
+    private final StringBuilder field = new StringBuilder();
+
+    DelimitedReader(Reader reader, char delimiter) {
+        this.reader = reader;
+        this.delimiter = delimiter;
+    }
+
+    /** 次のレコードを返す（ファイルの終わりなら null） */
+    String[] next() throws IOException {
+        int c = read();
+        if (c < 0) {
+            return null;
+        }
+
+        fields.clear();
+        field.setLength(0);
+
+        while (true) {
+            if (c == '"' && field.length() == 0) {
+                c = readQuoted();
+            }
+
+            if (c < 0) {
+                fields.add(field.toString());
+                break;
+            }
+            if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+                c = read();
+                continue;
+            }
+            if (c == '\n' || c == '\r') {
+                fields.add(field.toString());
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                break;
+            }
+            field.append((char) c);
+            c = read();
+        }
+        return fields.toArray(new String[0]);
+    }
+
+    /**
+     * クォートで囲まれた部分を読み取って field に追加する。
+     * 閉じクォートの次の文字を返す（閉じクォートがないままファイルが終われば -1）。
+     */
+    private int readQuoted() throws IOException {
+        while (true) {
+            int c = read();
+            if (c < 0) {
+                return -1;
+            }
+            if (c == '"') {
+                if (peek() == '"') {
+                    read();
+                    field.append('"');
+                    continue;
+                }
+                // 閉じクォート（続く文字は通常どおり扱う）
+                return read();
+            }
+            field.append((char) c);
+        }
+    }
+
+    private int read() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buf[pos++];
+    }
+
+    private int peek() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buf[pos];
+    }
+
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        int n = reader.read(buf, 0, buf.length);
+        if (n <= 0) {
+            eof = true;
+            return false;
+        }
+        pos = 0;
+        limit = n;
+        return true;
+    }
+}
@@ -2,234 +2,195 @@ package com.example.company_directory.util;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.time.LocalDate;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.ss.usermodel.DateUtil;
 import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.usermodel.WorkbookFactory;
-import org.apache.poi.xssf.usermodel.XSSFRow;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
 
 import com.example.company_directory.dto.ImportRowDto;
 import com.example.company_directory.entity.Company;
 
 public class ExcelHelper {
 
+    /** インポートで受け付ける最大データ行数 */
+    public static final int MAX_IMPORT_ROWS = 500_000;
+
+    // エクスポートでメモリ上に保持する行数（これより前の行は一時ファイルに書き出す）
+    private static final int EXPORT_ROW_WINDOW = 100;
+
     public static ByteArrayInputStream companiesToExcel(List<Company> companies) {
         return companiesToExcel(companies, null);
     }
 
     public static ByteArrayInputStream companiesToExcel(List<Company> companies, List<String> columnKeys) {
-        XSSFWorkbook workbook = new XSSFWorkbook();
-        XSSFSheet sheet = workbook.createSheet("Companies");
-
-        // Column Definitions (Order matters)
-        Map<String, String> headersMap = new LinkedHashMap<>();
-        headersMap.put("companyId", "企業ID");
-        headersMap.put("companyName", "企業名");
-        headersMap.put("address", "住所");
-        headersMap.put("zipCode", "郵便番号");
-        headersMap.put("registrationDate", "登録日");
-        headersMap.put("remarks", "備考");
-
-        // Determine active columns
-        List<String> activeKeys = new ArrayList<>();
-        if (columnKeys == null || columnKeys.isEmpty()) {
-            activeKeys.addAll(headersMap.keySet());
-        } else {
-            // Keep definition order but filter by selected
-            for (String key : headersMap.keySet()) {
-                if (columnKeys.contains(key)) {
-                    activeKeys.add(key);
+        try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
+            writeCompanies(companies, columnKeys, bos);
+            return new ByteArrayInputStream(bos.toByteArray());
+        } catch (IOException e) {
+            throw new RuntimeException("Excel作成でエラーが発生", e);
+        }
+    }
+
+    /** 取得済みの企業を xlsx として out に書き出す（列は columnKeys で選択。out は閉じない） */
+    public static void writeCompanies(Iterable<Company> companies, List<String> columnKeys, OutputStream out)
+            throws IOException {
+        List<ExportColumn> columns = ExportColumn.select(columnKeys);
+        Object[] values = new Object[columns.size()];
+        Iterator<Company> it = companies.iterator();
+        writeRows(columns, () -> new Iterator<Object[]>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public Object[] next() {
+                Company company = it.next();
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = columns.get(i).valueOf(company);
                 }
+                return values;
             }
-        }
+        }, out);
+    }
 
-        // ----- ヘッダー行 -----
-        XSSFRow hRow = sheet.createRow(0);
-        int colIdx = 0;
-        hRow.createCell(colIdx++).setCellValue("No.");
-        for (String key : activeKeys) {
-            hRow.createCell(colIdx++).setCellValue(headersMap.get(key));
-        }
+    /**
+     * 列ごとの値の配列（columns と同じ並び）を xlsx として out に書き出す（SXSSF）。
+     * メモリ上に保持する行は直近 EXPORT_ROW_WINDOW 行だけで、それより前の行は圧縮した一時ファイルに退避するため、
+     * 件数によらず使用メモリはほぼ一定になる。out は閉じない。
+     */
+    public static void writeRows(List<ExportColumn> columns, Iterable<Object[]> rows, OutputStream out)
+            throws IOException {
+        ExportColumn[] cols = columns.toArray(new ExportColumn[0]);
+
+        SXSSFWorkbook workbook = new SXSSFWorkbook(EXPORT_ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            SXSSFSheet sheet = workbook.createSheet("Companies");
+
+            // ----- ヘッダー行 -----
+            Row hRow = sheet.createRow(0);
+            hRow.createCell(0).setCellValue("No.");
+            for (int c = 0; c < cols.length; c++) {
+                hRow.createCell(c + 1).setCellValue(cols[c].getHeader());
+            }
 
-        // ----- データ行 -----
-        int rNum = 1;
-        for (Company company : companies) {
-            XSSFRow row = sheet.createRow(rNum);
-            colIdx = 0;
-            row.createCell(colIdx++).setCellValue(rNum); // No.列
-
-            for (String key : activeKeys) {
-                Cell cell = row.createCell(colIdx++);
-                switch (key) {
-                    case "companyId":
-                        cell.setCellValue(company.getCompanyId());
-                        break;
-                    case "companyName":
-                        cell.setCellValue(company.getCompanyName());
-                        break;
-                    case "address":
-                        cell.setCellValue(company.getAddress());
-                        break;
-                    case "zipCode":
-                        cell.setCellValue(company.getZipCode());
-                        break;
-                    case "registrationDate":
-                        cell.setCellValue(company.getRegistrationDate().toString());
-                        break;
-                    case "remarks":
-                        cell.setCellValue(company.getRemarks());
-                        break;
+            // ----- データ行 -----
+            int rNum = 1;
+            for (Object[] values : rows) {
+                Row row = sheet.createRow(rNum);
+                row.createCell(0).setCellValue(rNum); // No.列
+                for (int c = 0; c < cols.length; c++) {
+                    Cell cell = row.createCell(c + 1);
+                    if (values[c] != null) {
+                        cols[c].write(cell, values[c]);
+                    }
                 }
+                rNum++;
             }
-            rNum++;
-        }
 
-        // ----- Excelファイルを ByteArray に書き込む -----
-        try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-            workbook.write(bos);
+            workbook.write(out);
+        } finally {
             workbook.close();
-
-            return new ByteArrayInputStream(bos.toByteArray());
-        } catch (IOException e) {
-            throw new RuntimeException("Excel作成でエラーが発生", e);
+            // 一時ファイルを削除する
+            workbook.dispose();
         }
     }
 
     public static List<ImportRowDto> parseExcel(InputStream inputStream) {
-        Workbook workbook;
+        List<ImportRowDto> rows = new ArrayList<>();
+        parseExcel(inputStream, rows::add);
+        return rows;
+    }
+
+    /**
+     * ストリーミング読み取り（InputStream）。
+     * ZIP を先頭から展開するため、各エントリは展開後の内容をメモリに保持する。
+     * 保存済みのファイルは parseExcel(File, Consumer) で読むこと。
+     */
+    public static void parseExcel(InputStream inputStream, Consumer<ImportRowDto> consumer) {
+        OPCPackage pkg;
         try {
-            workbook = WorkbookFactory.create(inputStream);
+            pkg = OPCPackage.open(inputStream);
         } catch (Exception e) {
             throw new RuntimeException(analyzeWorkbookCreationError(e), e);
         }
+        parsePackage(pkg, consumer);
+    }
 
-        List<ImportRowDto> rows = new ArrayList<>();
+    /**
+     * ストリーミング読み取り（ファイル）。
+     * ZIP の目次から必要なエントリだけをランダムアクセスで読み、展開した内容をまとめて保持しない。
+     */
+    public static void parseExcel(File file, Consumer<ImportRowDto> consumer) {
+        OPCPackage pkg;
+        try {
+            pkg = OPCPackage.open(file, PackageAccess.READ);
+        } catch (Exception e) {
+            throw new RuntimeException(analyzeWorkbookCreationError(e), e);
+        }
+        parsePackage(pkg, consumer);
+    }
 
-        try (workbook) {
+    /**
+     * POIのイベントモデル(XSSFReader + SAX)で先頭シートを1行ずつ解析し、行ごとに consumer へ通知する。
+     * シートの行はワークブック全体を展開せずに読むが、共有文字列（ReadOnlySharedStringsTable）は
+     * 全件をヒープに保持するため、一意な文字列が多いファイルではその分メモリを使う。
+     */
+    private static void parsePackage(OPCPackage pkg, Consumer<ImportRowDto> consumer) {
+        try {
+            XSSFReader reader = new XSSFReader(pkg);
 
             // --- シート存在チェック ---
-            if (workbook.getNumberOfSheets() == 0) {
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
                 throw new RuntimeException("シートが存在しません。正しいテンプレートを使用してください。");
             }
 
-            Sheet sheet = workbook.getSheetAt(0);
-            if (sheet == null) {
-                throw new RuntimeException("指定のシートが見つかりません。");
-            }
-
-            // --- シート空チェック ---
-            if (sheet.getPhysicalNumberOfRows() <= 1) {
-                throw new RuntimeException("シートにデータがありません。");
-            }
-
-            // --- 行数制限（メモリ保護） ---
-            if (sheet.getLastRowNum() > 50000) {
-                throw new RuntimeException("データ量が大きすぎて読み込めません。ファイルを分割してください。");
-            }
-
-            DataFormatter formatter = new DataFormatter();
-
-            Iterator<Row> rowIterator = sheet.iterator();
-            if (!rowIterator.hasNext()) {
-                throw new RuntimeException("ヘッダー行が存在しません。テンプレートを使用してください。");
-            }
-
-            // --- ヘッダー読み取り ---
-            Row header = rowIterator.next();
-            Map<String, Integer> columnIndex = new HashMap<>();
-
-            short lastCellNum = header.getLastCellNum();
-            if (lastCellNum <= 0) {
-                throw new RuntimeException("ヘッダー行が空です。テンプレートを確認してください。");
-            }
-
-            for (int i = 0; i < header.getLastCellNum(); i++) {
-                // BOM除去と全角スペース対応（Java 11以降はstrip()推奨）
-                String rawValue = formatter.formatCellValue(header.getCell(i));
-                String colName = rawValue.replace("\uFEFF", "").strip();
-
-                if (!colName.isEmpty()) {
-                    columnIndex.put(colName, i);
-                }
-            }
-
-            // --- 必須列チェック ---
-            String[] requiredColumns = { "企業名", "住所", "郵便番号" };
-
-            List<String> missingColumns = new ArrayList<>();
-
-            for (String col : requiredColumns) {
-                if (!columnIndex.containsKey(col)) {
-                    missingColumns.add(col);
-                }
-            }
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+            ExcelStreamReader handler = new ExcelStreamReader(consumer, MAX_IMPORT_ROWS);
 
-            if (!missingColumns.isEmpty()) {
-                throw new RuntimeException(
-                        "必須列が不足しています：" + String.join("、", missingColumns) +
-                                " (検出された列名: " + String.join(", ", columnIndex.keySet()) + ")");
+            // 先頭シートのみ読み取る
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(
+                        new XSSFSheetXMLHandler(styles, null, strings, handler, new IsoDateFormatter(), false));
+                parser.parse(new InputSource(sheet));
             }
 
-            int rowNum = 0;
-
-            while (rowIterator.hasNext()) {
-                Row row = rowIterator.next();
-                rowNum++;
-
-                if (row == null)
-                    continue;
-
-                // --- 空行判定 ---
-                boolean allEmpty = true;
-                for (int i = 0; i < header.getLastCellNum(); i++) {
-                    String v = safeFormatCell(row, i, formatter);
-                    if (v != null && !v.trim().isEmpty()) {
-                        allEmpty = false;
-                        break;
-                    }
-                }
-                if (allEmpty)
-                    continue;
-
-                // --- DTO 作成 ---
-                ImportRowDto dto = new ImportRowDto();
-                dto.setRowNum(rowNum);
-
-                dto.setCompanyId(getValue(row, columnIndex, "企業ID", formatter));
-                dto.setCompanyName(getValue(row, columnIndex, "企業名", formatter));
-                dto.setAddress(getValue(row, columnIndex, "住所", formatter));
-
-                // 郵便番号の正規化（全角ハイフン対応）
-                String rawZip = getValue(row, columnIndex, "郵便番号", formatter);
-                dto.setZipCode(normalizeZipCode(rawZip));
-
-                dto.setRegistrationDate(getValue(row, columnIndex, "登録日", formatter));
-                dto.setRemarks(getValue(row, columnIndex, "備考", formatter));
-
-                rows.add(dto);
-            }
+            handler.finish();
 
         } catch (Exception e) {
             throw new RuntimeException("Excel読み取り中にエラーが発生しました: " + e.getMessage(), e);
+        } finally {
+            // 読み取り専用なので保存せずに閉じる
+            pkg.revert();
         }
-
-        return rows;
     }
 
     private static String analyzeWorkbookCreationError(Exception e) {
@@ -248,44 +209,94 @@ public class ExcelHelper {
         }
     }
 
-    /** セル値を安全に取得（セル結合・破損対策） */
-    private static String safeFormatCell(Row row, int index, DataFormatter formatter) {
-        try {
-            Cell cell = row.getCell(index, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-
-            if (cell == null) {
-                return "";
+    /** ヘッダー行の値から「列名 → 列番号」の対応表を作る */
+    static Map<String, Integer> buildColumnIndex(List<String> headerValues) {
+        Map<String, Integer> columnIndex = new HashMap<>();
+        for (int i = 0; i < headerValues.size(); i++) {
+            String rawValue = headerValues.get(i);
+            if (rawValue == null) {
+                continue;
             }
+            // BOM除去と全角スペース対応（Java 11以降はstrip()推奨）
+            String colName = rawValue.replace("\uFEFF", "").strip();
 
-            // ★ 修正ポイント：セルが日付の場合は LocalDate に変換して統一
-            if (cell.getCellType() == CellType.NUMERIC && DateUtil.isCellDateFormatted(cell)) {
-                LocalDate date = cell.getLocalDateTimeCellValue().toLocalDate();
-                return date.toString(); // 例: "2020-05-26"
+            if (!colName.isEmpty()) {
+                columnIndex.put(colName, i);
             }
+        }
+        return columnIndex;
+    }
 
-            // 数値セル（整数、小数）もズレを避けるため専用処理
-            if (cell.getCellType() == CellType.NUMERIC) {
-                return formatter.formatCellValue(cell);
-            }
+    /** 必須列チェック */
+    static void checkRequiredColumns(Map<String, Integer> columnIndex) {
+        String[] requiredColumns = { "企業名", "住所", "郵便番号" };
+
+        List<String> missingColumns = new ArrayList<>();
 
-            // 文字列は従来通り
-            return formatter.formatCellValue(cell);
+        for (String col : requiredColumns) {
+            if (!columnIndex.containsKey(col)) {
+                missingColumns.add(col);
+            }
+        }
 
-        } catch (Exception ex) {
+        if (!missingColumns.isEmpty()) {
             throw new RuntimeException(
-                    String.format("セル書式が破損しています。（行: %d, 列: %d）セル結合の解除や再保存を試してください。",
-                            row.getRowNum() + 1, index + 1));
+                    "必須列が不足しています：" + String.join("、", missingColumns) +
+                            " (検出された列名: " + String.join(", ", columnIndex.keySet()) + ")");
         }
     }
 
-    /** 列名が存在すれば取得 */
-    private static String getValue(Row row, Map<String, Integer> columnIndex,
-            String columnName, DataFormatter formatter) {
-        if (!columnIndex.containsKey(columnName)) {
+    /** 空行判定 */
+    static boolean isAllEmpty(String[] values) {
+        for (String v : values) {
+            if (v != null && !v.trim().isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** 1行分のセル値から DTO を作成 */
+    static ImportRowDto toRowDto(int rowNum, String[] values, Map<String, Integer> columnIndex) {
+        ImportRowDto dto = new ImportRowDto();
+        dto.setRowNum(rowNum);
+
+        dto.setCompanyId(getValue(values, columnIndex, "企業ID"));
+        dto.setCompanyName(getValue(values, columnIndex, "企業名"));
+        dto.setAddress(getValue(values, columnIndex, "住所"));
+
+        // 郵便番号の正規化（全角ハイフン対応）
+        String rawZip = getValue(values, columnIndex, "郵便番号");
+        dto.setZipCode(normalizeZipCode(rawZip));
+
+        dto.setRegistrationDate(getValue(values, columnIndex, "登録日"));
+        dto.setRemarks(getValue(values, columnIndex, "備考"));
+        return dto;
+    }
+
+    /** 列名が存在すれば取得（列はあるがセルが無い場合は空文字） */
+    private static String getValue(String[] values, Map<String, Integer> columnIndex, String columnName) {
+        Integer idx = columnIndex.get(columnName);
+        if (idx == null) {
             return null;
         }
-        int idx = columnIndex.get(columnName);
-        return safeFormatCell(row, idx, formatter);
+        String v = idx < values.length ? values[idx] : null;
+        return v != null ? v : "";
+    }
+
+    /**
+     * 日付書式の数値セルを "yyyy-MM-dd" 形式で返すフォーマッタ。
+     * （従来のDOM読み取りで日付セルを LocalDate に変換していた挙動と合わせる）
+     */
+    private static final class IsoDateFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString,
+                boolean use1904Windowing) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return DateUtil.getLocalDateTime(value, use1904Windowing).toLocalDate().toString();
+            }
+            return super.formatRawCellContents(value, formatIndex, formatString, use1904Windowing);
+        }
     }
 
     // ExcelHelper.java
@@ -366,7 +377,7 @@ public class ExcelHelper {
     }
 
     /** 郵便番号の正規化（全角ハイフンを半角に、全角数字を半角に） */
-    private static String normalizeZipCode(String input) {
+    static String normalizeZipCode(String input) {
         if (input == null)
             return null;
 
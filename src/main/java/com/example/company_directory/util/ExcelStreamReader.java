@@ -0,0 +1,114 @@
+package com.example.company_directory.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+
+import com.example.company_directory.dto.ImportRowDto;
+
+/**
+ * SAX(イベントモデル)でシートを1行ずつ読み取り、ImportRowDto を順次通知するハンドラ。
+ * ワークブック全体のDOMを構築しないため、シートの読み取りに使うメモリは行数によらない
+ * （共有文字列表は別に全件保持する。ExcelHelper.parsePackage を参照）。
+ */
+class ExcelStreamReader implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+    private final Consumer<ImportRowDto> consumer;
+    private final int maxRows;
+
+    // ヘッダー
+    private final List<String> headerCells = new ArrayList<>();
+    private Map<String, Integer> columnIndex;
+    private int headerWidth;
+
+    // 読み取り中の行
+    private String[] current;
+    private int lastCol = -1;
+
+    private int rowNum = 0; // ヘッダーを除いた物理行の通番（従来の行番号と同じ数え方）
+
+    ExcelStreamReader(Consumer<ImportRowDto> consumer, int maxRows) {
+        this.consumer = consumer;
+        this.maxRows = maxRows;
+    }
+
+    @Override
+    public void startRow(int excelRowNum) {
+        lastCol = -1;
+        if (columnIndex == null) {
+            headerCells.clear();
+        } else {
+            Arrays.fill(current, null);
+        }
+    }
+
+    @Override
+    public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+        // r属性が省略されたセルは直前の列の次とみなす
+        int col = cellReference != null ? columnOf(cellReference) : lastCol + 1;
+        lastCol = col;
+
+        if (columnIndex == null) {
+            while (headerCells.size() <= col) {
+                headerCells.add("");
+            }
+            headerCells.set(col, formattedValue);
+        } else if (col < headerWidth) {
+            current[col] = formattedValue;
+        }
+    }
+
+    @Override
+    public void endRow(int excelRowNum) {
+        // --- ヘッダー読み取り ---
+        if (columnIndex == null) {
+            if (headerCells.isEmpty()) {
+                throw new RuntimeException("ヘッダー行が空です。テンプレートを確認してください。");
+            }
+            columnIndex = ExcelHelper.buildColumnIndex(headerCells);
+            ExcelHelper.checkRequiredColumns(columnIndex);
+            headerWidth = headerCells.size();
+            current = new String[headerWidth];
+            return;
+        }
+
+        rowNum++;
+
+        // --- 行数制限 ---
+        if (rowNum > maxRows) {
+            throw new RuntimeException("データ量が大きすぎて読み込めません。ファイルを分割してください。");
+        }
+
+        // --- 空行判定 ---
+        if (ExcelHelper.isAllEmpty(current)) {
+            return;
+        }
+
+        consumer.accept(ExcelHelper.toRowDto(rowNum, current, columnIndex));
+    }
+
+    /** シート読み取り後の構造チェック */
+    void finish() {
+        if (columnIndex == null || rowNum == 0) {
+            throw new RuntimeException("シートにデータがありません。");
+        }
+    }
+
+    /** セル参照（例: "AB12"）から0始まりの列番号を求める */
+    private static int columnOf(String cellReference) {
+        int col = 0;
+        for (int i = 0; i < cellReference.length(); i++) {
+            char c = cellReference.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            col = col * 26 + (c - 'A' + 1);
+        }
+        return col - 1;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.company_directory.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.apache.poi.ss.usermodel.Cell;
+
+import com.example.company_directory.entity.Company;
+
+/**
+ * エクスポートの列（定義順に出力する）。
+ * 列ごとに見出し・DBから取得する属性・セルへの書き込み方を持ち、出力時は選択された列の配列を1回作るだけで、
+ * セルごとに列名で分岐しない。
+ */
+public enum ExportColumn {
+
+    COMPANY_ID("companyId", "企業ID", Company::getCompanyId) {
+        @Override
+        void write(Cell cell, Object value) {
+            cell.setCellValue(((Number) value).doubleValue());
+        }
+    },
+    COMPANY_NAME("companyName", "企業名", Company::getCompanyName),
+    ADDRESS("address", "住所", Company::getAddress),
+    ZIP_CODE("zipCode", "郵便番号", Company::getZipCode),
+    REGISTRATION_DATE("registrationDate", "登録日", Company::getRegistrationDate) {
+        @Override
+        void write(Cell cell, Object value) {
+            // 日付型ではなく yyyy-MM-dd の文字列で出力する
+            cell.setCellValue(value.toString());
+        }
+    },
+    REMARKS("remarks", "備考", Company::getRemarks);
+
+    private final String key;
+    private final String header;
+    private final Function<Company, Object> accessor;
+
+    ExportColumn(String key, String header, Function<Company, Object> accessor) {
+        this.key = key;
+        this.header = header;
+        this.accessor = accessor;
+    }
+
+    /** 画面から送られる列のキー（Company の属性名と同じ） */
+    public String getKey() {
+        return key;
+    }
+
+    public String getHeader() {
+        return header;
+    }
+
+    /** 取得済みの企業から値を取り出す */
+    Object valueOf(Company company) {
+        return accessor.apply(company);
+    }
+
+    /** 値をセルに書き込む（null の場合は呼ばない） */
+    void write(Cell cell, Object value) {
+        cell.setCellValue((String) value);
+    }
+
+    /** 選択された列（定義順。指定がなければ全列、該当するキーがなければ空） */
+    public static List<ExportColumn> select(List<String> keys) {
+        List<ExportColumn> columns = new ArrayList<>();
+        for (ExportColumn column : values()) {
+            if (keys == null || keys.isEmpty() || keys.contains(column.key)) {
+                columns.add(column);
+            }
+        }
+        return columns;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.company_directory.util;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * エクスポートの出力形式。
+ * CSV は文字コードごとに分け、UTF-8 は Excel で文字化けしないよう BOM を付ける。
+ */
+public enum ExportFormat {
+
+    XLSX(".xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", null),
+    CSV_UTF8(".csv", "text/csv; charset=UTF-8", StandardCharsets.UTF_8),
+    CSV_SHIFT_JIS(".csv", "text/csv; charset=Shift_JIS", Charset.forName("windows-31j"));
+
+    private static final String GZIP_CONTENT_TYPE = "application/gzip";
+
+    private final String suffix;
+    private final String contentType;
+    private final Charset charset;
+
+    ExportFormat(String suffix, String contentType, Charset charset) {
+        this.suffix = suffix;
+        this.contentType = contentType;
+        this.charset = charset;
+    }
+
+    /** 画面の指定（format: xlsx / csv、encoding: UTF-8 / Shift_JIS）から求める。不明な値は xlsx / UTF-8 */
+    public static ExportFormat of(String format, String encoding) {
+        if (!"csv".equalsIgnoreCase(format)) {
+            return XLSX;
+        }
+        return "Shift_JIS".equalsIgnoreCase(encoding) ? CSV_SHIFT_JIS : CSV_UTF8;
+    }
+
+    public boolean isCsv() {
+        return charset != null;
+    }
+
+    /** CSV の文字コード（xlsx は null） */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /** ファイル名の拡張子（gzip 圧縮する場合は .gz を付ける） */
+    public String suffix(boolean gzip) {
+        return gzip ? suffix + ".gz" : suffix;
+    }
+
+    public String contentType(boolean gzip) {
+        return gzip ? GZIP_CONTENT_TYPE : contentType;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.company_directory.util;
+
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+import com.example.company_directory.dto.ImportRowDto;
+
+/**
+ * インポートで受け付けるファイル形式。
+ * CSV / TSV は gzip 圧縮したもの（.csv.gz / .tsv.gz）も受け付ける。
+ */
+public enum ImportFileType {
+    XLSX(".xlsx"),
+    CSV(".csv"),
+    TSV(".tsv");
+
+    private static final String GZIP_SUFFIX = ".gz";
+
+    private final String suffix;
+
+    ImportFileType(String suffix) {
+        this.suffix = suffix;
+    }
+
+    /** ファイル名（拡張子）から形式を判定する（対応していなければ null） */
+    public static ImportFileType fromFileName(String fileName) {
+        if (fileName == null) {
+            return null;
+        }
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(XLSX.suffix)) {
+            return XLSX;
+        }
+        if (name.endsWith(GZIP_SUFFIX)) {
+            name = name.substring(0, name.length() - GZIP_SUFFIX.length());
+        }
+        if (name.endsWith(CSV.suffix)) {
+            return CSV;
+        }
+        if (name.endsWith(TSV.suffix)) {
+            return TSV;
+        }
+        return null;
+    }
+
+    /** 一時ファイル名に付ける拡張子（gzip 圧縮の有無は中身で判定するため付けない） */
+    public String getSuffix() {
+        return suffix;
+    }
+
+    /** 先頭シート（CSV / TSV はファイル全体）を1行ずつ読み取り、consumer へ通知する */
+    public void parse(InputStream inputStream, Consumer<ImportRowDto> consumer) {
+        switch (this) {
+            case XLSX -> ExcelHelper.parseExcel(inputStream, consumer);
+            case CSV -> CsvHelper.parseDelimited(inputStream, ',', consumer);
+            case TSV -> CsvHelper.parseDelimited(inputStream, '\t', consumer);
+        }
+    }
+}
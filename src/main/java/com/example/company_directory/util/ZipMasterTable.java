@@ -0,0 +1,170 @@
+package com.example.company_directory.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.example.company_directory.entity.ZipMaster;
+
+/**
+ * 郵便番号マスタのメモリ上のコンパクトな表（不変）。
+ * 7桁の郵便番号を int に変換して昇順配列に持ち、都道府県・市区町村・町域は
+ * 辞書番号（同じ文字列は1つだけ保持）で参照する。
+ * 検索は二分探索のみで、オブジェクトを生成しない。
+ */
+public final class ZipMasterTable {
+
+    public static final ZipMasterTable EMPTY = new Builder().build();
+
+    private final int[] codes; // 昇順
+    private final int[] prefectures;
+    private final int[] cities;
+    private final int[] towns;
+    private final String[] dictionary;
+
+    private ZipMasterTable(int[] codes, int[] prefectures, int[] cities, int[] towns, String[] dictionary) {
+        this.codes = codes;
+        this.prefectures = prefectures;
+        this.cities = cities;
+        this.towns = towns;
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * ハイフンなし7桁の郵便番号の位置を返す（見つからなければ -1）。
+     * 同じ郵便番号が複数あれば、Builder に先に追加したものを返す（二分探索で当たった位置からは決めない）。
+     */
+    public int indexOf(String zipCode) {
+        int key = toKey(zipCode);
+        if (key < 0) {
+            return -1;
+        }
+        int idx = Arrays.binarySearch(codes, key);
+        if (idx < 0) {
+            return -1;
+        }
+        while (idx > 0 && codes[idx - 1] == key) {
+            idx--;
+        }
+        return idx;
+    }
+
+    public String prefecture(int index) {
+        return dictionary[prefectures[index]];
+    }
+
+    public String city(int index) {
+        return dictionary[cities[index]];
+    }
+
+    public String town(int index) {
+        return dictionary[towns[index]];
+    }
+
+    /** API応答用にエンティティへ詰め替える */
+    public ZipMaster toZipMaster(int index) {
+        ZipMaster master = new ZipMaster();
+        master.setZipCode(String.format("%07d", codes[index]));
+        master.setPrefecture(prefecture(index));
+        master.setCity(city(index));
+        master.setTown(town(index));
+        return master;
+    }
+
+    public int size() {
+        return codes.length;
+    }
+
+    public int dictionarySize() {
+        return dictionary.length;
+    }
+
+    /**
+     * おおよそのメモリ使用量（バイト）。
+     * int配列4本 + 辞書の文字列（ヘッダー + UTF-16相当の文字データ）で見積もる。
+     */
+    public long estimatedBytes() {
+        long bytes = 4L * (16 + 4L * codes.length);
+        bytes += 16 + 4L * dictionary.length;
+        for (String s : dictionary) {
+            bytes += s == null ? 0 : 40 + 2L * s.length();
+        }
+        return bytes;
+    }
+
+    /** 7桁の数字を int に変換（形式が違えば -1） */
+    private static int toKey(String zipCode) {
+        if (zipCode == null || zipCode.length() != 7) {
+            return -1;
+        }
+        int key = 0;
+        for (int i = 0; i < 7; i++) {
+            char c = zipCode.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            key = key * 10 + (c - '0');
+        }
+        return key;
+    }
+
+    public static class Builder {
+        private int size = 0;
+        private int[] codes = new int[1024];
+        private int[] prefectures = new int[1024];
+        private int[] cities = new int[1024];
+        private int[] towns = new int[1024];
+        private final Map<String, Integer> dictionaryIndex = new HashMap<>();
+
+        /** 1件追加（郵便番号が7桁の数字でなければ無視する） */
+        public Builder add(String zipCode, String prefecture, String city, String town) {
+            int key = toKey(zipCode);
+            if (key < 0) {
+                return this;
+            }
+            if (size == codes.length) {
+                int newLength = size * 2;
+                codes = Arrays.copyOf(codes, newLength);
+                prefectures = Arrays.copyOf(prefectures, newLength);
+                cities = Arrays.copyOf(cities, newLength);
+                towns = Arrays.copyOf(towns, newLength);
+            }
+            codes[size] = key;
+            prefectures[size] = encode(prefecture);
+            cities[size] = encode(city);
+            towns[size] = encode(town);
+            size++;
+            return this;
+        }
+
+        private int encode(String value) {
+            return dictionaryIndex.computeIfAbsent(value, v -> dictionaryIndex.size());
+        }
+
+        public ZipMasterTable build() {
+            // 郵便番号順に並べ替える（「郵便番号 << 32 | 元の位置」をソートして並び順を求める）
+            long[] order = new long[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = ((long) codes[i] << 32) | i;
+            }
+            Arrays.sort(order);
+
+            int[] sortedCodes = new int[size];
+            int[] sortedPrefectures = new int[size];
+            int[] sortedCities = new int[size];
+            int[] sortedTowns = new int[size];
+            for (int i = 0; i < size; i++) {
+                int src = (int) order[i];
+                sortedCodes[i] = codes[src];
+                sortedPrefectures[i] = prefectures[src];
+                sortedCities[i] = cities[src];
+                sortedTowns[i] = towns[src];
+            }
+
+            String[] dictionary = new String[dictionaryIndex.size()];
+            dictionaryIndex.forEach((value, idx) -> dictionary[idx] = value);
+
+            return new ZipMasterTable(sortedCodes, sortedPrefectures, sortedCities, sortedTowns, dictionary);
+        }
+    }
+}
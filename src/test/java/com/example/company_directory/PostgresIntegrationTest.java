@@ -0,0 +1,29 @@
+package com.example.company_directory;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+/**
+ * PostgreSQL 固有の処理（COPY・ON CONFLICT・一時表など）を実際のDBで確かめるテストの基底クラス。
+ * Testcontainers でテストクラス間で共有するコンテナを1つ起動し、接続先をそれに差し替える（Docker が必要）。
+ */
+public abstract class PostgresIntegrationTest {
+
+    private static final PostgreSQLContainer POSTGRES = new PostgreSQLContainer("postgres:16-alpine");
+
+    static {
+        POSTGRES.start();
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        // application.properties は Hikari にも環境変数の値を設定しているため、こちらも差し替える
+        registry.add("spring.datasource.hikari.jdbc-url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.hikari.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.hikari.password", POSTGRES::getPassword);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.company_directory.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+
+class ImportRowIndexTest {
+
+    @Test
+    void countsAndRowNumbersMatchRowFlags() {
+        List<ImportRowDto> rows = rows(5_000, new Random(1L));
+        ImportRowIndex index = ImportRowIndex.of(rows);
+
+        for (ImportRowFilter filter : ImportRowFilter.values()) {
+            List<ImportRowDto> expected = filter(rows, filter);
+            assertEquals(expected.size(), index.count(filter), filter.name());
+            assertEquals(expected.stream().map(ImportRowDto::getRowNum).toList(), index.rowNums(filter),
+                    filter.name());
+        }
+
+        Predicate<ImportRowDto> strict = r -> r.isValid() && !r.isHasWarning();
+        assertEquals(rowNums(rows, strict.and(r -> !r.isUpdate())), index.strictInsertRows());
+        assertEquals(rowNums(rows, strict.and(r -> r.isUpdate() && !r.isUnchanged())), index.strictUpdateRows());
+        assertEquals(rows.stream().filter(strict.and(r -> r.isUpdate() && r.isUnchanged())).count(),
+                index.strictUnchangedCount());
+        assertEquals(rowNums(rows, r -> r.isHasError() || r.isHasWarning()), index.strictExcludedRows());
+    }
+
+    @Test
+    void pagesMatchFilteredList() {
+        // 目印（1024件ごと）を複数またぐ件数で、境界の前後のページも確認する
+        List<ImportRowDto> rows = rows(20_000, new Random(2L));
+        ImportRowIndex index = ImportRowIndex.of(rows);
+
+        for (ImportRowFilter filter : ImportRowFilter.values()) {
+            List<ImportRowDto> expected = filter(rows, filter);
+            for (int size : new int[] { 1, 7, 50, 1023, 1024, 1025, 5000 }) {
+                int pages = (expected.size() + size - 1) / size;
+                for (int page = 0; page <= pages; page++) {
+                    int from = Math.min(page * size, expected.size());
+                    int to = Math.min(from + size, expected.size());
+                    assertEquals(expected.subList(from, to), index.page(filter, page, size),
+                            filter + " page " + page + " size " + size);
+                }
+            }
+        }
+    }
+
+    @Test
+    void pageBeyondEndIsEmpty() {
+        ImportRowIndex index = ImportRowIndex.of(rows(3_000, new Random(3L)));
+        assertTrue(index.page(ImportRowFilter.ALL, 3, 1_000).isEmpty());
+        assertTrue(index.page(ImportRowFilter.ALL, 1_000_000, 1_000).isEmpty());
+        assertEquals(3_000, index.page(ImportRowFilter.ALL, 0, Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    void emptyRows() {
+        ImportRowIndex index = ImportRowIndex.of(List.of());
+        for (ImportRowFilter filter : ImportRowFilter.values()) {
+            assertEquals(0, index.count(filter));
+            assertTrue(index.page(filter, 0, 100).isEmpty());
+        }
+    }
+
+    /** 検証後の行と同じ組み合わせのフラグを持つ行 */
+    private static List<ImportRowDto> rows(int count, Random random) {
+        List<ImportRowDto> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ImportRowDto row = new ImportRowDto();
+            row.setRowNum(i + 1);
+            if (random.nextInt(5) == 0) {
+                row.setHasError(true);
+                row.setValid(false);
+            } else {
+                row.setValid(true);
+                row.setHasWarning(random.nextInt(4) == 0);
+                row.setUpdate(random.nextBoolean());
+                row.setUnchanged(row.isUpdate() && random.nextInt(3) == 0);
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static List<ImportRowDto> filter(List<ImportRowDto> rows, ImportRowFilter filter) {
+        Predicate<ImportRowDto> p = switch (filter) {
+            case ALL -> r -> true;
+            case SUCCESS -> r -> !r.isHasError() && !r.isHasWarning();
+            case WARNING -> r -> !r.isHasError() && r.isHasWarning();
+            case ERROR -> ImportRowDto::isHasError;
+            case INSERT -> r -> r.isValid() && !r.isUpdate();
+            case UPDATE -> r -> r.isValid() && r.isUpdate() && !r.isUnchanged();
+            case UNCHANGED -> r -> r.isValid() && r.isUpdate() && r.isUnchanged();
+        };
+        return rows.stream().filter(p).toList();
+    }
+
+    private static List<Integer> rowNums(List<ImportRowDto> rows, Predicate<ImportRowDto> p) {
+        return rows.stream().filter(p).map(ImportRowDto::getRowNum).toList();
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.company_directory.repository;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.company_directory.PostgresIntegrationTest;
+import com.example.company_directory.config.CompanyImportStagingInitializer;
+import com.example.company_directory.entity.Company;
+
+/**
+ * COPY + ステージング表での一括登録（copyLoad）が、INSERT ... ON CONFLICT での登録（upsert）と
+ * 同じ件数・企業ID・登録日になることを PostgreSQL で確かめる。
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ CompanyBulkRepository.class, CompanyImportStagingInitializer.class })
+class CompanyBulkRepositoryTest extends PostgresIntegrationTest {
+
+    // 両方の方式で同じ企業IDのブロック (1000, 1050] から採番されるよう、毎回ここに戻す
+    private static final long SEQUENCE_START = 1000;
+    private static final LocalDate EXISTING_DATE = LocalDate.of(2020, 1, 1);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CompanyBulkRepository companyBulkRepository;
+
+    @Test
+    void copyLoadMatchesUpsert() {
+        int[] upsertCounts = load(companyBulkRepository::upsert);
+        List<String> upserted = snapshot();
+        int[] copyCounts = load(companyBulkRepository::copyLoad);
+        List<String> copied = snapshot();
+
+        assertArrayEquals(new int[] { 3, 2 }, upsertCounts);
+        assertArrayEquals(upsertCounts, copyCounts);
+        assertEquals(upserted, copied);
+
+        // 新規行は確保したブロックの先頭から行順に採番する
+        assertEquals(List.of(1001, 1002, 1003), jdbcTemplate.queryForList(
+                "SELECT company_id FROM companies WHERE company_id > 2 ORDER BY company_id", Integer.class));
+        assertEquals("新規商事", companyName(1001));
+        assertEquals("株式会社\"引用\",カンマ", companyName(1002));
+        // 登録日が空欄なら、既存は元の登録日、新規は本日
+        assertEquals(EXISTING_DATE, registrationDate(1));
+        assertEquals(LocalDate.of(2024, 4, 1), registrationDate(2));
+        assertEquals(jdbcTemplate.queryForObject("SELECT CURRENT_DATE", LocalDate.class), registrationDate(1001));
+        assertEquals(LocalDate.of(2023, 1, 15), registrationDate(1002));
+    }
+
+    /** 登録前の状態に戻してから、同じ入力を load で登録する */
+    private int[] load(Function<List<Company>, int[]> loader) {
+        jdbcTemplate.update("DELETE FROM companies");
+        jdbcTemplate.update("INSERT INTO companies "
+                + "(company_id, company_name, address, zip_code, registration_date, is_deleted) VALUES "
+                + "(1, '既存商事', '千代田区東京都丸の内1-1', '100-0005', ?, false), "
+                + "(2, '株式会社B', '大阪市北区大阪府梅田1-1', '530-0001', ?, true)",
+                EXISTING_DATE, EXISTING_DATE);
+        jdbcTemplate.queryForObject("SELECT setval('company_id_seq', ?)", Long.class, SEQUENCE_START);
+
+        // upsert は企業IDを設定するため、毎回新しく作る
+        List<Company> companies = new ArrayList<>();
+        companies.add(company(1, "既存商事（更新）", null, null));
+        companies.add(company(null, "新規商事", null, null));
+        companies.add(company(2, "株式会社B", "", LocalDate.of(2024, 4, 1)));
+        companies.add(company(null, "株式会社\"引用\",カンマ", "1行目\n2行目", LocalDate.of(2023, 1, 15)));
+        companies.add(company(null, "新規商事3", "備考", null));
+        return loader.apply(companies);
+    }
+
+    private static Company company(Integer companyId, String companyName, String remarks,
+            LocalDate registrationDate) {
+        Company company = new Company();
+        company.setCompanyId(companyId);
+        company.setCompanyName(companyName);
+        company.setAddress("千代田区東京都丸の内1-1");
+        company.setZipCode("100-0005");
+        company.setRemarks(remarks);
+        company.setRegistrationDate(registrationDate);
+        return company;
+    }
+
+    private List<String> snapshot() {
+        return jdbcTemplate.query("SELECT company_id, company_name, address, zip_code, remarks, "
+                + "registration_date, is_deleted FROM companies ORDER BY company_id",
+                (rs, rowNum) -> String.join("|", rs.getString(1), rs.getString(2), rs.getString(3),
+                        rs.getString(4), String.valueOf(rs.getString(5)), rs.getString(6), rs.getString(7)));
+    }
+
+    private String companyName(int companyId) {
+        return jdbcTemplate.queryForObject("SELECT company_name FROM companies WHERE company_id = ?", String.class,
+                companyId);
+    }
+
+    private LocalDate registrationDate(int companyId) {
+        return jdbcTemplate.queryForObject("SELECT registration_date FROM companies WHERE company_id = ?",
+                LocalDate.class, companyId);
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.company_directory.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.company_directory.entity.ExportJob;
+import com.example.company_directory.form.ExportForm;
+import com.example.company_directory.repository.CompanyBulkRepository;
+import com.example.company_directory.repository.ExportJobRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ExportJobServiceTest {
+
+    @TempDir
+    private Path artifactDir;
+
+    private ExportJobRepository exportJobRepository;
+    private CompanyService companyService;
+    private CompanyBulkRepository companyBulkRepository;
+    private ExportJobService exportJobService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        exportJobRepository = mock(ExportJobRepository.class);
+        companyService = mock(CompanyService.class);
+        companyBulkRepository = mock(CompanyBulkRepository.class);
+        when(companyBulkRepository.currentDataVersion()).thenReturn(7L);
+
+        ExportArtifactStore store = new ExportArtifactStore(artifactDir.toString(), 60, new SimpleMeterRegistry());
+        // 状態の記録・成果物の作成はモックのリポジトリに対して行うため、トランザクションは実際には張らない
+        exportJobService = new ExportJobService(exportJobRepository, companyService, companyBulkRepository, store,
+                mock(PlatformTransactionManager.class), 2, 20);
+    }
+
+    @AfterEach
+    void tearDown() {
+        exportJobService.shutdown();
+    }
+
+    @Test
+    void cacheKeyTreatsUnknownScopeAsAll() {
+        String all = ExportJobService.cacheKey(form("ALL"), 1);
+
+        assertEquals(all, ExportJobService.cacheKey(form(null), 1));
+        assertEquals(all, ExportJobService.cacheKey(form("all"), 1));
+        assertEquals(all, ExportJobService.cacheKey(form("UNKNOWN"), 1));
+
+        // 全件出力では選択・検索条件とファイル名は内容に影響しない
+        ExportForm withConditions = form("ALL");
+        withConditions.setSelectedIds(List.of(1, 2));
+        withConditions.setKeyword("商事");
+        withConditions.setFileName("report");
+        assertEquals(all, ExportJobService.cacheKey(withConditions, 1));
+    }
+
+    @Test
+    void cacheKeyIgnoresSelectionOrderAndDuplicates() {
+        ExportForm sorted = form("SELECTION");
+        sorted.setSelectedIds(List.of(1, 2, 3));
+        ExportForm shuffled = form("SELECTION");
+        shuffled.setSelectedIds(List.of(3, 1, 2, 2));
+        ExportForm fewer = form("SELECTION");
+        fewer.setSelectedIds(List.of(1, 2));
+
+        assertEquals(ExportJobService.cacheKey(sorted, 1), ExportJobService.cacheKey(shuffled, 1));
+        assertNotEquals(ExportJobService.cacheKey(sorted, 1), ExportJobService.cacheKey(fewer, 1));
+    }
+
+    @Test
+    void cacheKeyTreatsBlankSearchFieldsAsUnset() {
+        ExportForm unset = form("SEARCH");
+        ExportForm blank = form("SEARCH");
+        blank.setKeyword("");
+        blank.setCompanyName("   ");
+        blank.setAddress("");
+        blank.setZipCode("");
+        ExportForm keyword = form("SEARCH");
+        keyword.setKeyword("商事");
+        ExportForm dated = form("SEARCH");
+        dated.setDateFrom(LocalDate.of(2024, 4, 1));
+
+        String key = ExportJobService.cacheKey(unset, 1);
+        assertEquals(key, ExportJobService.cacheKey(blank, 1));
+        assertNotEquals(key, ExportJobService.cacheKey(keyword, 1));
+        assertNotEquals(key, ExportJobService.cacheKey(dated, 1));
+        assertNotEquals(key, ExportJobService.cacheKey(form("ALL"), 1));
+    }
+
+    @Test
+    void cacheKeyChangesWithDataVersionAndFormat() {
+        ExportForm csv = form("ALL");
+        csv.setFormat("csv");
+        ExportForm gzip = form("ALL");
+        gzip.setFormat("csv");
+        gzip.setGzip(true);
+        // xlsx は圧縮しないため gzip の指定は無視される
+        ExportForm xlsxGzip = form("ALL");
+        xlsxGzip.setGzip(true);
+
+        String key = ExportJobService.cacheKey(form("ALL"), 1);
+        assertNotEquals(key, ExportJobService.cacheKey(form("ALL"), 2));
+        assertNotEquals(key, ExportJobService.cacheKey(csv, 1));
+        assertNotEquals(ExportJobService.cacheKey(csv, 1), ExportJobService.cacheKey(gzip, 1));
+        assertEquals(key, ExportJobService.cacheKey(xlsxGzip, 1));
+    }
+
+    @Test
+    void coalescesSubmitsForSameKeyIntoOneBuild() throws Exception {
+        // 完了（SUCCEEDED / FAILED）を記録したジョブの数
+        CountDownLatch finished = new CountDownLatch(2);
+        when(exportJobRepository.save(any())).thenAnswer(invocation -> {
+            ExportJob job = invocation.getArgument(0);
+            if (job.getFinishedAt() != null) {
+                finished.countDown();
+            }
+            return job;
+        });
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            started.countDown();
+            // 2件目の依頼が届くまで作成を終えない
+            assertTrue(release.await(10, TimeUnit.SECONDS));
+            OutputStream out = invocation.getArgument(1);
+            out.write("companyId\n1\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(companyService).export(any(), any());
+
+        ExportForm form = form("ALL");
+        form.setFormat("csv");
+        ExportJob first = exportJobService.submit(form);
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        ExportJob second = exportJobService.submit(form);
+        release.countDown();
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+
+        verify(companyService, times(1)).export(any(), any());
+        assertNotEquals(first.getJobId(), second.getJobId());
+        assertEquals(ExportJob.Status.SUCCEEDED, first.getStatus());
+        assertEquals(ExportJob.Status.SUCCEEDED, second.getStatus());
+        // ETag にはキャッシュキーを使うため、同じ成果物を指すジョブは同じ ETag になる
+        assertEquals(ExportJobService.cacheKey(form, 7L), first.getCacheKey());
+        assertEquals(first.getCacheKey(), second.getCacheKey());
+        assertEquals(first.getFileSize(), second.getFileSize());
+        assertNotNull(exportJobService.findArtifact(second).orElse(null));
+    }
+
+    private static ExportForm form(String scope) {
+        ExportForm form = new ExportForm();
+        form.setScope(scope);
+        form.setColumns(List.of("companyId", "companyName"));
+        return form;
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.company_directory.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.company_directory.PostgresIntegrationTest;
+import com.example.company_directory.dto.ImportCommitResultDto;
+import com.example.company_directory.dto.ImportErrorDto;
+import com.example.company_directory.dto.ImportRowDto;
+import com.example.company_directory.entity.Company;
+import com.example.company_directory.entity.ImportCheckpoint;
+import com.example.company_directory.repository.CompanyBulkRepository;
+import com.example.company_directory.repository.ImportCheckpointRepository;
+
+/**
+ * 分割コミット（ImportChunkedCommitService）の再開と、登録できない行の切り分けを PostgreSQL で確かめる。
+ * チャンクごとのコミットを確かめるため、テスト自体はトランザクションで囲まない（前後で表を空にする）。
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ImportChunkedCommitServiceTest extends PostgresIntegrationTest {
+
+    private static final String FILE = "chunked-commit-test.xlsx";
+    private static final int CHUNK_SIZE = 10;
+    private static final long SEQUENCE_START = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ImportCheckpointRepository importCheckpointRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private CompanyBulkRepository companyBulkRepository;
+
+    @BeforeEach
+    void setUp() {
+        clean();
+        // 採番の回数を確かめられるよう、シーケンスを最初のブロック（1件分）より先に進めておく
+        jdbcTemplate.queryForObject("SELECT setval('company_id_seq', ?)", Long.class, SEQUENCE_START);
+        companyBulkRepository = new CompanyBulkRepository(jdbcTemplate, dataSource);
+    }
+
+    @AfterEach
+    void clean() {
+        importCheckpointRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM companies");
+    }
+
+    @Test
+    void resumesFromCheckpointAfterPartialRun() {
+        List<ImportRowDto> rows = newRows(35);
+        // 3つ目のチャンクの途中で、データ起因でない失敗（接続断など）が起きたものとする
+        int failingRowNum = rows.get(24).getRowNum();
+        ExcelImportService failing = new ExcelImportService(null, null, null, null, null, null,
+                5000, 500, "chunked", 50000, 100000) {
+            @Override
+            Company toCompanyValues(ImportRowDto row) {
+                if (row.getRowNum() == failingRowNum) {
+                    throw new IllegalStateException("接続が切断されました");
+                }
+                return super.toCompanyValues(row);
+            }
+        };
+
+        assertThrows(IllegalStateException.class,
+                () -> service(failing).commit(FILE, "all", rows, ImportProgressListener.NONE));
+
+        ImportCheckpoint checkpoint = importCheckpointRepository.findById(FILE).orElseThrow();
+        assertEquals(ImportCheckpoint.Status.IN_PROGRESS, checkpoint.getStatus());
+        assertEquals(rows.get(19).getRowNum(), checkpoint.getLastRowNum());
+        assertEquals(20, checkpoint.getInsertedCount());
+        assertEquals(20, countCompanies());
+
+        List<Integer> progress = new ArrayList<>();
+        ImportCommitResultDto result = service(excelImportService())
+                .commit(FILE, "all", rows, progress::add);
+
+        // 件数は前回の分を含む累計で、登録済みの行を二重に登録しない
+        assertEquals(35, result.getInsertedCount());
+        assertEquals(0, result.getUpdatedCount());
+        assertTrue(result.getFailedRows().isEmpty());
+        assertEquals(35, countCompanies());
+        assertEquals(35, jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT company_name) FROM companies", Integer.class));
+        assertEquals(List.of(20, 30, 35), progress);
+        assertTrue(importCheckpointRepository.findById(FILE).isEmpty());
+    }
+
+    @Test
+    void isolatesBadRowAndCommitsTheRest() {
+        List<ImportRowDto> rows = newRows(40);
+        // 住所は NOT NULL のため、この行だけが制約違反になる
+        ImportRowDto bad = rows.get(16);
+        bad.setAddress(null);
+
+        ImportCommitResultDto result = service(excelImportService())
+                .commit(FILE, "all", rows, ImportProgressListener.NONE);
+
+        assertEquals(39, result.getInsertedCount());
+        assertEquals(1, result.getFailedRows().size());
+        ImportErrorDto failed = result.getFailedRows().get(0);
+        assertEquals(bad.getRowNum(), failed.getRowNum());
+        assertTrue(failed.getMessages().get(0).startsWith("エラー：登録できませんでした："),
+                failed.getMessages().get(0));
+
+        assertEquals(39, countCompanies());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM companies WHERE company_name = ?", Integer.class, bad.getCompanyName()));
+        // 企業IDはチャンクごとに1ブロックだけ確保する（二分してやり直しても確保し直さない）
+        assertEquals(SEQUENCE_START + 4 * Company.ID_ALLOCATION_SIZE,
+                jdbcTemplate.queryForObject("SELECT last_value FROM company_id_seq", Long.class));
+        assertTrue(importCheckpointRepository.findById(FILE).isEmpty());
+    }
+
+    private ImportChunkedCommitService service(ExcelImportService excelImportService) {
+        return new ImportChunkedCommitService(excelImportService, companyBulkRepository, importCheckpointRepository,
+                transactionManager, CHUNK_SIZE);
+    }
+
+    // 分割コミットでは toCompanyValues だけを使う
+    private static ExcelImportService excelImportService() {
+        return new ExcelImportService(null, null, null, null, null, null, 5000, 500, "chunked", 50000, 100000);
+    }
+
+    private static List<ImportRowDto> newRows(int count) {
+        List<ImportRowDto> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ImportRowDto row = new ImportRowDto();
+            row.setRowNum(i + 2);
+            row.setCompanyName("分割商事" + (i + 1));
+            row.setAddress("千代田区東京都丸の内1-" + (i + 1));
+            row.setZipCode("100-0005");
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private int countCompanies() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM companies", Integer.class);
+    }
+}
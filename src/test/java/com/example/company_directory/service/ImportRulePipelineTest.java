@@ -0,0 +1,289 @@
+package com.example.company_directory.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.company_directory.dto.ImportIssue;
+import com.example.company_directory.dto.ImportRowDto;
+import com.example.company_directory.util.DateHelper;
+import com.example.company_directory.util.ZipMasterTable;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ImportRulePipelineTest {
+
+    private static final String[] IDS = { null, "", " ", "1", "2", "3", "999", "abc", "-5", "0", "00", "+7",
+            "2147483648", "１" };
+    private static final String[] NAMES = { null, "", "  ", "株式会社A", " 株式会社A ", "株式会社B", "既存商事",
+            "x".repeat(101) };
+    private static final String[] ADDRESSES = { null, "", "東京都", "千代田区東京都丸の内1-1", "千代田区東京都大手町1-1",
+            "千代田区東京都一番地", "渋谷区東京都神宮前1-2-3", "大阪府大阪市北区梅田1-1", "a".repeat(201) };
+    private static final String[] ZIPS = { null, "", "100-0005", "1000005", "150-0001", "100-000５", "999-9999",
+            "123-45678" };
+    private static final String[] DATES = { null, "", "2023-04-05", "2999-01-01", "bad", "2/30/2023", "2023年04月05日" };
+    private static final String[] REMARKS = { null, "memo", "x".repeat(1001) };
+
+    private final ImportRulePipeline pipeline = new ImportRulePipeline(new SimpleMeterRegistry());
+
+    @Test
+    void producesSameMessagesAsInlineValidation() {
+        Random random = new Random(12L);
+        List<ImportRowDto> rows = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            ImportRowDto row = new ImportRowDto();
+            row.setRowNum(i + 2);
+            row.setCompanyId(pick(random, IDS));
+            row.setCompanyName(pick(random, NAMES));
+            row.setAddress(pick(random, ADDRESSES));
+            row.setZipCode(pick(random, ZIPS));
+            row.setRegistrationDate(pick(random, DATES));
+            row.setRemarks(pick(random, REMARKS));
+            rows.add(row);
+        }
+
+        ImportCrossRowFacts facts = collectFacts(rows);
+        ZipMasterTable zipTable = new ZipMasterTable.Builder()
+                .add("1000005", "東京都", "千代田区", "丸の内")
+                .add("1500001", "東京都", "渋谷区", "神宮前")
+                .build();
+        ImportPrefetch prefetch = new ImportPrefetch(Set.of(1, 2, 3), Set.of("既存商事"),
+                Set.of("千代田区東京都丸の内1-1"), zipTable);
+        ImportRule.Context context = new ImportRule.Context(facts, prefetch, ImportNearDuplicates.NONE);
+        ImportRulePipeline.Stats stats = pipeline.newStats();
+
+        for (int i = 0; i < rows.size(); i++) {
+            ImportRowDto row = rows.get(i);
+            List<String> expectedErrors = validateRow(row, facts.isDuplicateId(i), prefetch);
+            ImportIssue[] errors = pipeline.checkErrors(row, i, context, stats);
+            assertEquals(expectedErrors, ImportIssue.messages(errors, row), "errors of row " + row.getRowNum());
+            if (errors.length > 0) {
+                continue;
+            }
+            List<String> expectedWarnings = checkWarning(row, facts.getNameToRows(), facts.getAddressToRows(),
+                    prefetch);
+            ImportIssue[] warnings = pipeline.checkWarnings(row, i, context, stats);
+            assertEquals(expectedWarnings, ImportIssue.messages(warnings, row), "warnings of row " + row.getRowNum());
+        }
+    }
+
+    @Test
+    void countsEveryRuleCall() {
+        ImportRowDto row = new ImportRowDto();
+        row.setRowNum(2);
+        row.setCompanyName("株式会社A");
+        row.setAddress("千代田区東京都丸の内1-1");
+        row.setZipCode("100-0005");
+        ImportRule.Context context = new ImportRule.Context(collectFacts(List.of(row)),
+                new ImportPrefetch(Set.of(), Set.of(), Set.of(), ZipMasterTable.EMPTY), ImportNearDuplicates.NONE);
+        ImportRulePipeline.Stats stats = pipeline.newStats();
+
+        pipeline.checkErrors(row, 0, context, stats);
+        pipeline.checkWarnings(row, 0, context, stats);
+
+        pipeline.publish(stats).forEach(s -> assertEquals(1L, s.getInvocations(), s.getRuleName()));
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    /** ExcelImportService.collectCrossRowFacts と同じ集計 */
+    private static ImportCrossRowFacts collectFacts(List<ImportRowDto> rows) {
+        ImportCrossRowFacts facts = new ImportCrossRowFacts(rows.size());
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < rows.size(); i++) {
+            ImportRowDto r = rows.get(i);
+            String name = normalizeString(r.getCompanyName());
+            String addr = normalizeString(r.getAddress());
+            if (name != null) {
+                facts.getNameToRows().computeIfAbsent(name, k -> new ArrayList<>()).add(r.getRowNum());
+            }
+            if (addr != null) {
+                facts.getAddressToRows().computeIfAbsent(addr, k -> new ArrayList<>()).add(r.getRowNum());
+            }
+            if (!isBlank(r.getCompanyId()) && !ids.add(r.getCompanyId())) {
+                facts.markDuplicateId(i);
+            }
+        }
+        return facts;
+    }
+
+    // ======== ImportRulePipeline 導入前の ExcelImportService の検証（比較用） ========
+
+    private static List<String> validateRow(ImportRowDto row, boolean duplicateId, ImportPrefetch prefetch) {
+        List<String> errors = new ArrayList<>();
+
+        if (isBlank(row.getCompanyName())) {
+            errors.add("エラー：必須項目が空欄です：企業名を入力してください。");
+        }
+        if (isBlank(row.getZipCode())) {
+            errors.add("エラー：必須項目が空欄です：郵便番号を入力してください。");
+        }
+        if (isBlank(row.getAddress())) {
+            errors.add("エラー：必須項目が空欄です：住所を入力してください。");
+        }
+
+        if (row.getCompanyId() != null && !isBlank(row.getCompanyId())) {
+            if (!row.getCompanyId().matches("\\d+")) {
+                errors.add("エラー：企業IDが正しい形式ではありません（半角数字のみ）。");
+            }
+            if (duplicateId) {
+                errors.add("エラー：同一ファイル内で企業IDが重複しています。");
+            }
+            if (!prefetch.existsId(row.getCompanyId())) {
+                errors.add("エラー：企業IDが未登録のため更新できません。");
+            }
+            try {
+                int id = Integer.parseInt(row.getCompanyId());
+                if (id < 1) {
+                    errors.add("エラー：企業IDは1以上の数値を指定してください。");
+                }
+            } catch (NumberFormatException e) {
+                errors.add("エラー：企業IDは数値（整数）で入力してください。");
+            }
+        }
+
+        if (!isBlank(row.getZipCode())) {
+            if (!row.getZipCode().matches("\\d{3}-\\d{4}")) {
+                errors.add("エラー：郵便番号の形式が不正です（例：123-4567）。");
+            }
+        }
+
+        // ルール側で解釈済みの登録日を上書きしないよう、ここでは判定だけ行う
+        if (!isBlank(row.getRegistrationDate())
+                && DateHelper.parseFlexible(row.getRegistrationDate()) == null) {
+            errors.add("エラー：データ形式が不正です：日付として認識できません。");
+        }
+
+        if (!isBlank(row.getCompanyName()) && row.getCompanyName().length() > 100) {
+            errors.add("エラー：企業名の文字数が上限（100文字）を超えています。");
+        }
+        if (!isBlank(row.getAddress()) && row.getAddress().length() > 200) {
+            errors.add("エラー：住所の文字数が上限（200文字）を超えています。");
+        }
+        if (!isBlank(row.getZipCode()) && row.getZipCode().length() > 8) {
+            errors.add("エラー：郵便番号の文字数が上限（8文字）を超えています。");
+        }
+        if (!isBlank(row.getRemarks()) && row.getRemarks().length() > 1000) {
+            errors.add("エラー：項目の文字数が上限を超えています（備考は1000文字まで）。");
+        }
+        return errors;
+    }
+
+    private static List<String> checkWarning(ImportRowDto row, Map<String, List<Integer>> excelNameToRows,
+            Map<String, List<Integer>> excelAddressToRows, ImportPrefetch prefetch) {
+        List<String> warnings = new ArrayList<>();
+
+        String name = normalizeString(row.getCompanyName());
+        String addr = normalizeString(row.getAddress());
+
+        if (name != null && !name.isEmpty()) {
+            List<Integer> otherLines = excelNameToRows.getOrDefault(name, Collections.emptyList()).stream()
+                    .filter(rn -> rn != row.getRowNum())
+                    .collect(Collectors.toList());
+            if (!otherLines.isEmpty()) {
+                warnings.add("警告：" + buildDuplicateMessage("アップロードデータ内で同名の企業が複数あります。", otherLines));
+            }
+        }
+
+        if (addr != null && !addr.isEmpty()) {
+            List<Integer> otherLines = excelAddressToRows.getOrDefault(addr, Collections.emptyList()).stream()
+                    .filter(rn -> rn != row.getRowNum())
+                    .collect(Collectors.toList());
+            if (!otherLines.isEmpty()) {
+                warnings.add("警告：" + buildDuplicateMessage("アップロードデータ内で同じ住所が複数あります。", otherLines));
+            }
+        }
+
+        if ((row.getCompanyId() == null || row.getCompanyId().isEmpty())
+                && name != null && !name.isEmpty()) {
+            if (prefetch.existsName(row.getCompanyName())) {
+                warnings.add("警告：同名の企業が既に登録されています。");
+            }
+        }
+
+        if ((row.getCompanyId() == null || row.getCompanyId().isEmpty())
+                && addr != null && !addr.isEmpty()) {
+            if (prefetch.existsAddress(row.getAddress())) {
+                warnings.add("警告：既存企業と住所が一致しています。登録済みデータの可能性があります。");
+            }
+        }
+
+        if (!isBlank(row.getRegistrationDate())) {
+            LocalDate d = row.getParsedRegistrationDate();
+            if (d != null && d.isAfter(LocalDate.now())) {
+                warnings.add("警告：登録日が未来の日付になっています。");
+            }
+        }
+
+        if (!isBlank(row.getAddress()) && row.getAddress().length() <= 5) {
+            warnings.add("警告：住所が極端に短いため、番地などの入力漏れの可能性があります。");
+        }
+
+        checkAddressConsistency(row, warnings, prefetch);
+        return warnings;
+    }
+
+    private static String buildDuplicateMessage(String base, List<Integer> lines) {
+        String joined = lines.stream()
+                .map(Object::toString)
+                .collect(Collectors.joining(", "));
+        return base + "（" + joined + "行目）";
+    }
+
+    private static void checkAddressConsistency(ImportRowDto row, List<String> warnings, ImportPrefetch prefetch) {
+        String inputZip = row.getZipCode();
+        String inputAddress = row.getAddress();
+        if (isBlank(inputZip) || isBlank(inputAddress)) {
+            return;
+        }
+
+        ZipMasterTable zipTable = prefetch.getZipTable();
+        int idx = zipTable.indexOf(inputZip.replace("-", ""));
+        if (idx < 0) {
+            warnings.add("警告：郵便番号が存在しません ");
+            return;
+        }
+
+        String expectedBase = zipTable.city(idx) + zipTable.prefecture(idx);
+        String masterTown = zipTable.town(idx);
+        if (!inputAddress.startsWith(expectedBase)) {
+            warnings.add(String.format(
+                    "警告：住所と郵便番号が一致しない可能性があります（郵便番号 %s は %s%s です）。",
+                    inputZip, expectedBase, masterTown));
+            return;
+        }
+
+        if (!isBlank(masterTown)) {
+            boolean townWritten = inputAddress.contains("町")
+                    || inputAddress.contains("丁目")
+                    || inputAddress.contains(masterTown);
+            if (townWritten && !inputAddress.contains(masterTown)) {
+                warnings.add("警告：町名が郵便番号の情報と一致していません。");
+            }
+        }
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.trim().isEmpty();
+    }
+
+    private static String normalizeString(String s) {
+        if (s == null) {
+            return null;
+        }
+        String t = s.trim();
+        return t.isEmpty() ? null : t;
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.company_directory.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.company_directory.PostgresIntegrationTest;
+import com.example.company_directory.dto.ImportRowDto;
+import com.example.company_directory.repository.CompanyRepository;
+import com.example.company_directory.repository.ImportValidationRepository;
+import com.example.company_directory.util.ZipMasterTable;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 一時表を使った検証（ImportSqlValidator）が、メモリ上の集計（ExcelImportService.collectCrossRowFacts / prefetch）と
+ * 同じ結果になることを PostgreSQL で確かめる。
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ImportSqlValidatorTest extends PostgresIntegrationTest {
+
+    // 登録済みの企業ID・企業名・住所と、ファイル内での重複・前後空白の違いを含める
+    private static final String[] IDS = { null, "", " ", "1", "2", "3", "999", "abc", "-5", "0", "+7",
+            "2147483648", "１" };
+    private static final String[] NAMES = { null, "", "  ", "既存商事", " 既存商事 ", "株式会社A", " 株式会社A ",
+            "株式会社B", "新規商事" };
+    private static final String[] ADDRESSES = { null, "", " ", "千代田区東京都丸の内1-1", " 千代田区東京都丸の内1-1",
+            "大阪市北区大阪府梅田1-1", "渋谷区東京都神宮前1-2-3" };
+    private static final String[] ZIPS = { null, "", "100-0005", "1000005", "150-0001", "530-0001", "999-9999" };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    private ExcelImportService excelImportService;
+    private ImportSqlValidator importSqlValidator;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM companies");
+        jdbcTemplate.update("DELETE FROM zip_master");
+        jdbcTemplate.update("INSERT INTO companies "
+                + "(company_id, company_name, address, zip_code, registration_date, is_deleted) VALUES "
+                + "(1, '既存商事', '千代田区東京都丸の内1-1', '100-0005', DATE '2020-01-01', false), "
+                + "(2, '株式会社B', '大阪市北区大阪府梅田1-1', '530-0001', DATE '2020-01-01', false), "
+                + "(3, ' 株式会社A ', '渋谷区東京都神宮前1-2-3', '150-0001', DATE '2020-01-01', true)");
+        jdbcTemplate.update("INSERT INTO zip_master (zip_code, prefecture, city, town) VALUES "
+                + "('1000005', '東京都', '千代田区', '丸の内'), "
+                + "('1500001', '東京都', '渋谷区', '神宮前'), "
+                + "('5300001', '大阪府', '大阪市北区', '梅田')");
+
+        excelImportService = new ExcelImportService(companyRepository, null,
+                new ZipMasterIndex(jdbcTemplate, new SimpleMeterRegistry()), null, null, null,
+                5000, 500, "upsert", 50000, Integer.MAX_VALUE);
+        importSqlValidator = new ImportSqlValidator(new ImportValidationRepository(jdbcTemplate, dataSource));
+    }
+
+    @Test
+    void matchesInMemoryFactsAndPrefetch() {
+        Random random = new Random(9L);
+        List<ImportRowDto> rows = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            ImportRowDto row = new ImportRowDto();
+            row.setRowNum(i + 2);
+            row.setCompanyId(pick(random, IDS));
+            row.setCompanyName(pick(random, NAMES));
+            row.setAddress(pick(random, ADDRESSES));
+            row.setZipCode(pick(random, ZIPS));
+            rows.add(row);
+        }
+
+        ImportCrossRowFacts expectedFacts = excelImportService.collectCrossRowFacts(rows);
+        ImportPrefetch expectedPrefetch = excelImportService.prefetch(rows);
+        ImportSqlValidator.Result actual = importSqlValidator.analyze(rows);
+        ImportCrossRowFacts actualFacts = actual.getFacts();
+        ImportPrefetch actualPrefetch = actual.getPrefetch();
+
+        // ファイル内の重複（メモリ上の集計は1行だけの企業名・住所も持つため、複数行のものだけを比べる）
+        assertEquals(duplicatesOnly(expectedFacts.getNameToRows()), actualFacts.getNameToRows());
+        assertEquals(duplicatesOnly(expectedFacts.getAddressToRows()), actualFacts.getAddressToRows());
+        assertTrue(actualFacts.getNameToRows().containsKey("既存商事"), "前後空白を除いて同じ企業名");
+        for (int i = 0; i < rows.size(); i++) {
+            ImportRowDto row = rows.get(i);
+            assertEquals(expectedFacts.isDuplicateId(i), actualFacts.isDuplicateId(i),
+                    "duplicate id of row " + row.getRowNum());
+        }
+
+        // 登録済みの企業ID・企業名・住所と郵便番号マスタ
+        for (ImportRowDto row : rows) {
+            String at = " of row " + row.getRowNum();
+            assertEquals(expectedPrefetch.existsId(row.getCompanyId()), actualPrefetch.existsId(row.getCompanyId()),
+                    "existing id" + at);
+            assertEquals(expectedPrefetch.existsName(row.getCompanyName()),
+                    actualPrefetch.existsName(row.getCompanyName()), "existing name" + at);
+            assertEquals(expectedPrefetch.existsAddress(row.getAddress()),
+                    actualPrefetch.existsAddress(row.getAddress()), "existing address" + at);
+            // 郵便番号マスタは、郵便番号・住所の両方がある行（住所の整合性チェックの対象）だけを比べる
+            if (!isBlank(row.getZipCode()) && !isBlank(row.getAddress())) {
+                assertEquals(zipEntry(expectedPrefetch.getZipTable(), row.getZipCode()),
+                        zipEntry(actualPrefetch.getZipTable(), row.getZipCode()), "zip master" + at);
+            }
+        }
+        assertTrue(rows.stream().anyMatch(r -> actualPrefetch.existsId(r.getCompanyId())));
+        assertTrue(rows.stream().anyMatch(r -> isBlank(r.getCompanyId())
+                && actualPrefetch.existsName(r.getCompanyName())));
+        assertTrue(rows.stream().anyMatch(r -> isBlank(r.getCompanyId())
+                && actualPrefetch.existsAddress(r.getAddress())));
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static Map<String, List<Integer>> duplicatesOnly(Map<String, List<Integer>> groups) {
+        return groups.entrySet().stream()
+                .filter(e -> e.getValue().size() > 1)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    private static String zipEntry(ZipMasterTable table, String zipCode) {
+        int idx = table.indexOf(zipCode.replace("-", ""));
+        return idx < 0 ? null : table.prefecture(idx) + "/" + table.city(idx) + "/" + table.town(idx);
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.trim().isEmpty();
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.company_directory.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class CompanyNameMatcherTest {
+
+    @Test
+    void normalizeRemovesLegalFormsSpacesAndSymbols() {
+        assertEquals("テスト", CompanyNameMatcher.normalize("株式会社テスト"));
+        assertEquals("テスト", CompanyNameMatcher.normalize("テスト 株式会社"));
+        assertEquals("テスト", CompanyNameMatcher.normalize("(株)テスト"));
+        assertEquals("テスト", CompanyNameMatcher.normalize("㈱テスト"));
+        assertEquals("テスト", CompanyNameMatcher.normalize("（株）テスト"));
+        assertEquals("テスト", CompanyNameMatcher.normalize("株式　会社　テスト"));
+        assertEquals("abc", CompanyNameMatcher.normalize("ＡＢＣ Co., Ltd."));
+        assertEquals("abc", CompanyNameMatcher.normalize("ABC Inc."));
+        assertEquals("abc", CompanyNameMatcher.normalize("A・B-C!"));
+        assertEquals("テスト2", CompanyNameMatcher.normalize("テスト２"));
+    }
+
+    @Test
+    void normalizeOfEmptyNames() {
+        assertEquals("", CompanyNameMatcher.normalize(null));
+        assertEquals("", CompanyNameMatcher.normalize(""));
+        assertEquals("", CompanyNameMatcher.normalize("　 "));
+        assertEquals("", CompanyNameMatcher.normalize("株式会社"));
+        assertEquals("", CompanyNameMatcher.normalize("(株) ・"));
+    }
+
+    @Test
+    void similarityIsJaccardOfBigrams() {
+        assertEquals(1.0, CompanyNameMatcher.similarity("テスト", "テスト"), 0.0);
+        assertEquals(0.0, CompanyNameMatcher.similarity("", "テスト"), 0.0);
+        assertEquals(0.0, CompanyNameMatcher.similarity("テスト", ""), 0.0);
+        // {ab, bc, cd} と {ab, bc, ce}
+        assertEquals(0.5, CompanyNameMatcher.similarity("abcd", "abce"), 1e-9);
+        assertEquals(0.5, CompanyNameMatcher.similarity("abce", "abcd"), 1e-9);
+        // 重複する2文字組は1つとして数える
+        assertEquals(1.0, CompanyNameMatcher.similarity("aaa", "aa"), 0.0);
+        // 1文字のキーはその1文字で比べる
+        assertEquals(0.0, CompanyNameMatcher.similarity("a", "b"), 0.0);
+        assertEquals(0.0, CompanyNameMatcher.similarity("abc", "xyz"), 0.0);
+    }
+
+    @Test
+    void bandKeysAreStablePerKeyAndLevel() {
+        String key = CompanyNameMatcher.normalize("株式会社サンプル商事");
+        long[] bands = CompanyNameMatcher.bandKeys(key);
+        assertEquals(6, bands.length);
+        assertArrayEquals(bands, CompanyNameMatcher.bandKeys(key, 0));
+        assertArrayEquals(bands, CompanyNameMatcher.bandKeys(CompanyNameMatcher.normalize("サンプル商事(株)")));
+        assertEquals(0, CompanyNameMatcher.bandKeys("").length);
+
+        // 段ごとに別の MinHash
+        for (int level = 1; level <= CompanyNameMatcher.MAX_LEVEL; level++) {
+            long[] other = CompanyNameMatcher.bandKeys(key, level);
+            assertEquals(6, other.length);
+            assertFalse(Arrays.equals(bands, other), "level " + level);
+        }
+    }
+
+    @Test
+    void similarKeysUsuallyShareABand() {
+        // 12文字のうち末尾1文字だけ違うキー（Jaccard 10/12 ≒ 0.83）は、ほぼ必ず帯の値が1つ以上一致する
+        Random random = new Random(19L);
+        int shared = 0;
+        int disjointShared = 0;
+        int trials = 2_000;
+        for (int n = 0; n < trials; n++) {
+            String base = randomKana(random, 11);
+            String a = base + randomKana(random, 1);
+            String b = base + randomKana(random, 1);
+            if (a.equals(b)) {
+                b = base + "ン";
+            }
+            if (shareBand(CompanyNameMatcher.bandKeys(a), CompanyNameMatcher.bandKeys(b))) {
+                shared++;
+            }
+            if (shareBand(CompanyNameMatcher.bandKeys(a), CompanyNameMatcher.bandKeys(randomKana(random, 12)))) {
+                disjointShared++;
+            }
+        }
+        assertTrue(shared >= trials * 0.95, "shared " + shared);
+        assertTrue(disjointShared <= trials * 0.01, "disjoint shared " + disjointShared);
+    }
+
+    private static boolean shareBand(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 全角カタカナ（ァ〜ン）のランダムな文字列
+    private static String randomKana(Random random, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('ァ' + random.nextInt('ン' - 'ァ' + 1)));
+        }
+        return sb.toString();
+    }
+}
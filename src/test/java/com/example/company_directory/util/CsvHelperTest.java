@@ -0,0 +1,155 @@
+package com.example.company_directory.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.company_directory.dto.ImportRowDto;
+
+class CsvHelperTest {
+
+    private static final Charset SHIFT_JIS = Charset.forName("windows-31j");
+    private static final String HEADER = "企業ID,企業名,住所,郵便番号,登録日,備考\r\n";
+
+    @Test
+    void readsUtf8WithBom() {
+        byte[] body = (HEADER + "1,株式会社テスト,東京都千代田区,100-0005,2023/04/05,メモ\r\n")
+                .getBytes(StandardCharsets.UTF_8);
+        byte[] bytes = new byte[body.length + 3];
+        bytes[0] = (byte) 0xef;
+        bytes[1] = (byte) 0xbb;
+        bytes[2] = (byte) 0xbf;
+        System.arraycopy(body, 0, bytes, 3, body.length);
+
+        List<ImportRowDto> rows = parse(bytes, ',');
+        assertEquals(1, rows.size());
+        ImportRowDto row = rows.get(0);
+        assertEquals(1, row.getRowNum());
+        assertEquals("1", row.getCompanyId());
+        assertEquals("株式会社テスト", row.getCompanyName());
+        assertEquals("東京都千代田区", row.getAddress());
+        assertEquals("100-0005", row.getZipCode());
+        assertEquals("2023/04/05", row.getRegistrationDate());
+        assertEquals("メモ", row.getRemarks());
+    }
+
+    @Test
+    void detectsUtf8WithoutBomAndShiftJis() {
+        String text = HEADER + ",株式会社髙橋,大阪府大阪市,530-0001,,\r\n";
+        for (Charset charset : List.of(StandardCharsets.UTF_8, SHIFT_JIS)) {
+            List<ImportRowDto> rows = parse(text.getBytes(charset), ',');
+            assertEquals(1, rows.size(), charset.name());
+            assertEquals("株式会社髙橋", rows.get(0).getCompanyName(), charset.name());
+            assertEquals("大阪府大阪市", rows.get(0).getAddress(), charset.name());
+        }
+    }
+
+    @Test
+    void detectsUtf8WhenDetectionBlockEndsMidCharacter() {
+        // 判定に使う先頭 64KB の末尾で多バイト文字が切れても、Shift_JIS と誤判定しないこと
+        int block = 64 * 1024;
+        StringBuilder padding = new StringBuilder();
+        byte[] bytes;
+        do {
+            padding.append('x');
+            StringBuilder text = new StringBuilder(HEADER).append(",株式会社,東京都港区,105-0011,,").append(padding)
+                    .append("\r\n");
+            while (text.length() < block) {
+                text.append(",株式会社あいうえお,東京都港区,105-0011,,\r\n");
+            }
+            bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        } while ((bytes[block] & 0xc0) != 0x80);
+
+        List<ImportRowDto> rows = parse(bytes, ',');
+        assertEquals("株式会社あいうえお", rows.get(rows.size() - 1).getCompanyName());
+        assertEquals("東京都港区", rows.get(rows.size() - 1).getAddress());
+    }
+
+    @Test
+    void readsGzipCompressedInput() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write((HEADER.replace(',', '\t') + "\t株式会社A\t東京都\t100-0001\t\t\r\n").getBytes(SHIFT_JIS));
+        }
+        List<ImportRowDto> rows = parse(compressed.toByteArray(), '\t');
+        assertEquals(1, rows.size());
+        assertEquals("株式会社A", rows.get(0).getCompanyName());
+    }
+
+    @Test
+    void skipsBlankLinesButKeepsRowNumbers() {
+        String text = HEADER + ",A,東京都,100-0001,,\r\n,,,,,\r\n\r\n,\"B\r\nC\",東京都,100-0002,,\r\n";
+        List<ImportRowDto> rows = parse(text.getBytes(StandardCharsets.UTF_8), ',');
+        assertEquals(2, rows.size());
+        assertEquals(1, rows.get(0).getRowNum());
+        assertEquals(4, rows.get(1).getRowNum());
+        assertEquals("", rows.get(1).getCompanyId());
+        assertEquals("B\r\nC", rows.get(1).getCompanyName());
+    }
+
+    @Test
+    void rejectsMissingRequiredColumns() {
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> parse("企業名,住所\r\nA,東京都\r\n".getBytes(StandardCharsets.UTF_8), ','));
+        assertTrue(e.getMessage().contains("必須列が不足しています：郵便番号"), e.getMessage());
+    }
+
+    @Test
+    void writesUtf8WithBomCrLfAndQuoting() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<Object[]> rows = List.of(
+                new Object[] { "株式会社\"A\"", "東京都,港区", null },
+                new Object[] { "B", "1行目\n2行目", "メモ" });
+        CsvHelper.writeRows(List.of(ExportColumn.COMPANY_NAME, ExportColumn.ADDRESS, ExportColumn.REMARKS), rows,
+                out, StandardCharsets.UTF_8);
+
+        byte[] bytes = out.toByteArray();
+        assertArrayEquals(new byte[] { (byte) 0xef, (byte) 0xbb, (byte) 0xbf },
+                new byte[] { bytes[0], bytes[1], bytes[2] });
+        assertEquals("No.,企業名,住所,備考\r\n"
+                + "1,\"株式会社\"\"A\"\"\",\"東京都,港区\",\r\n"
+                + "2,B,\"1行目\n2行目\",メモ\r\n",
+                new String(bytes, 3, bytes.length - 3, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void writtenCsvReadsBack() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<Object[]> rows = List.<Object[]>of(new Object[] { "株式会社\"A\"", "東京都,港区\r\n1-1", "100-0001" });
+        CsvHelper.writeRows(List.of(ExportColumn.COMPANY_NAME, ExportColumn.ADDRESS, ExportColumn.ZIP_CODE), rows,
+                out, SHIFT_JIS);
+
+        List<ImportRowDto> read = parse(out.toByteArray(), ',');
+        assertEquals(1, read.size());
+        assertEquals("株式会社\"A\"", read.get(0).getCompanyName());
+        assertEquals("東京都,港区\r\n1-1", read.get(0).getAddress());
+    }
+
+    @Test
+    void failsOnCharactersShiftJisCannotEncode() {
+        List<Object[]> rows = List.of(new Object[] { "株式会社A" }, new Object[] { "株式会社😀" });
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> CsvHelper.writeRows(List.of(ExportColumn.COMPANY_NAME), rows, new ByteArrayOutputStream(),
+                        SHIFT_JIS));
+        assertEquals("No.2 の「企業名」に Shift_JIS で出力できない文字（😀）があります。UTF-8 で出力してください。",
+                e.getMessage());
+    }
+
+    private static List<ImportRowDto> parse(byte[] bytes, char delimiter) {
+        List<ImportRowDto> rows = new ArrayList<>();
+        CsvHelper.parseDelimited(new ByteArrayInputStream(bytes), delimiter, rows::add);
+        return rows;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.company_directory.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class DateHelperTest {
+
+    @Test
+    void parsesAcceptedFormats() {
+        assertEquals(LocalDate.of(2023, 4, 5), DateHelper.parseFlexible("2023-04-05"));
+        assertEquals(LocalDate.of(2023, 4, 5), DateHelper.parseFlexible("2023-4-5"));
+        assertEquals(LocalDate.of(2023, 4, 5), DateHelper.parseFlexible("2023/04/05"));
+        assertEquals(LocalDate.of(2023, 4, 5), DateHelper.parseFlexible("2023/4/5"));
+        assertEquals(LocalDate.of(2023, 4, 5), DateHelper.parseFlexible("2023年04月05日"));
+        assertEquals(LocalDate.of(2023, 4, 5), DateHelper.parseFlexible("4/5/23"));
+        assertEquals(LocalDate.of(2023, 4, 5), DateHelper.parseFlexible("04/05/2023"));
+        assertEquals(LocalDate.of(2023, 4, 5), DateHelper.parseFlexible("  2023-04-05\t"));
+    }
+
+    @Test
+    void clampsDayToMonthEnd() {
+        assertEquals(LocalDate.of(2023, 2, 28), DateHelper.parseFlexible("2023/2/30"));
+        assertEquals(LocalDate.of(2024, 2, 29), DateHelper.parseFlexible("2024-02-31"));
+        assertEquals(LocalDate.of(2023, 4, 30), DateHelper.parseFlexible("4/31/2023"));
+    }
+
+    @Test
+    void rejectsInvalidInput() {
+        assertNull(DateHelper.parseFlexible(null));
+        assertNull(DateHelper.parseFlexible(""));
+        assertNull(DateHelper.parseFlexible("   "));
+        assertNull(DateHelper.parseFlexible("2023-13-01"));
+        assertNull(DateHelper.parseFlexible("2023-00-01"));
+        assertNull(DateHelper.parseFlexible("2023-01-32"));
+        assertNull(DateHelper.parseFlexible("2023-01/01"));
+        assertNull(DateHelper.parseFlexible("2023年4月5日"));
+        assertNull(DateHelper.parseFlexible("２０２３-04-05"));
+        assertNull(DateHelper.parseFlexible("2023-04-05x"));
+        assertNull(DateHelper.parseFlexible("abc"));
+    }
+
+    @Test
+    void rejectsFiveDigitYears() {
+        // 従来の yyyy は5桁以上の年も受け付けていたが、登録日としては扱わない
+        assertNull(DateHelper.parseFlexible("12023-04-05"));
+        assertNull(DateHelper.parseFlexible("12023/4/5"));
+        assertNull(DateHelper.parseFlexible("4/5/12023"));
+    }
+
+    @Test
+    void rejectsPaddedMonthDayAndYearZero() {
+        assertNull(DateHelper.parseFlexible("2023-004-05"));
+        assertNull(DateHelper.parseFlexible("2023/4/005"));
+        assertNull(DateHelper.parseFlexible("0000-04-05"));
+        // 従来は 0埋めの年を米国式の月として読んでいた（0002/5/00 → 2000-02-05）
+        assertNull(DateHelper.parseFlexible("0002/5/00"));
+    }
+
+    @Test
+    void matchesFormatterParsingOnGeneratedInputs() {
+        Random random = new Random(20231017L);
+        String[] separators = { "-", "/" };
+        for (int n = 0; n < 200_000; n++) {
+            String text;
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    String sep = separators[random.nextInt(2)];
+                    String sep2 = random.nextInt(10) == 0 ? separators[random.nextInt(2)] : sep;
+                    text = year(random) + sep + number(random, 0, 13) + sep2 + number(random, 0, 32);
+                }
+                case 1 -> text = year(random) + "年" + number(random, 0, 13) + "月" + number(random, 0, 32) + "日";
+                default -> {
+                    String year = random.nextBoolean()
+                            ? String.format("%02d", random.nextInt(100))
+                            : year(random);
+                    text = number(random, 0, 13) + "/" + number(random, 0, 32) + "/" + year;
+                }
+            }
+            if (random.nextInt(20) == 0) {
+                text = " " + text + " ";
+            }
+            assertEquals(parseWithFormatters(text), DateHelper.parseFlexible(text), text);
+        }
+    }
+
+    // 1～4桁の年（0埋めなし。0埋めの扱いは rejectsPaddedMonthDayAndYearZero で確認する）
+    private static String year(Random random) {
+        int digits = 1 + random.nextInt(4);
+        if (digits == 4) {
+            return String.valueOf(1000 + random.nextInt(9000));
+        }
+        return String.valueOf(random.nextInt((int) Math.pow(10, digits)));
+    }
+
+    // 1～2桁の数（1桁の値は半分の確率で0埋め）
+    private static String number(Random random, int min, int max) {
+        int value = min + random.nextInt(max - min + 1);
+        return value < 10 && random.nextBoolean() ? "0" + value : String.valueOf(value);
+    }
+
+    /** DateHelper 導入前の解釈（DateTimeFormatter を順に試す） */
+    private static LocalDate parseWithFormatters(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        String t = text.trim();
+        String[] patterns = {
+                "yyyy-MM-dd", "yyyy/MM/dd", "yyyy-M-d", "yyyy/M/d", "yyyy年MM月dd日",
+                "M/d/yy", "MM/dd/yy", "M/d/yyyy", "MM/dd/yyyy"
+        };
+        for (String p : patterns) {
+            try {
+                return LocalDate.parse(t, DateTimeFormatter.ofPattern(p));
+            } catch (DateTimeParseException ex) {
+                // 次の形式を試す
+            }
+        }
+        try {
+            return LocalDate.parse(t);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.company_directory.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+
+class DelimitedReaderTest {
+
+    @Test
+    void splitsFieldsAndKeepsEmptyOnes() throws IOException {
+        DelimitedReader reader = reader("a,b,,d,\n,\n", ',');
+        assertArrayEquals(new String[] { "a", "b", "", "d", "" }, reader.next());
+        assertArrayEquals(new String[] { "", "" }, reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void acceptsCrLfLfAndCrLineEnds() throws IOException {
+        DelimitedReader reader = reader("a,b\r\nc,d\ne,f\rg,h", ',');
+        assertArrayEquals(new String[] { "a", "b" }, reader.next());
+        assertArrayEquals(new String[] { "c", "d" }, reader.next());
+        assertArrayEquals(new String[] { "e", "f" }, reader.next());
+        assertArrayEquals(new String[] { "g", "h" }, reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void emptyLineIsOneEmptyField() throws IOException {
+        DelimitedReader reader = reader("a\r\n\r\nb\r\n", ',');
+        assertArrayEquals(new String[] { "a" }, reader.next());
+        assertArrayEquals(new String[] { "" }, reader.next());
+        assertArrayEquals(new String[] { "b" }, reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void quotedFieldsMayContainDelimitersLineBreaksAndQuotes() throws IOException {
+        DelimitedReader reader = reader("\"a,b\",\"line1\r\nline2\",\"say \"\"hi\"\"\",\"\"\r\nx,y\r\n", ',');
+        assertArrayEquals(new String[] { "a,b", "line1\r\nline2", "say \"hi\"", "" }, reader.next());
+        assertArrayEquals(new String[] { "x", "y" }, reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void quoteInsideUnquotedFieldIsLiteral() throws IOException {
+        DelimitedReader reader = reader("ab\"c,d\n", ',');
+        assertArrayEquals(new String[] { "ab\"c", "d" }, reader.next());
+    }
+
+    @Test
+    void unterminatedQuoteRunsToEndOfInput() throws IOException {
+        DelimitedReader reader = reader("a,\"b\nc", ',');
+        assertArrayEquals(new String[] { "a", "b\nc" }, reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void usesGivenDelimiter() throws IOException {
+        DelimitedReader reader = reader("a,b\tc\t\"d\te\"\n", '\t');
+        assertArrayEquals(new String[] { "a,b", "c", "d\te" }, reader.next());
+    }
+
+    @Test
+    void readsFieldsAcrossBufferBoundaries() throws IOException {
+        // 内部バッファ（64K文字）をまたぐ長い項目と、CR と LF の間にバッファの境界がある行
+        String longField = "x".repeat(100_000);
+        String padding = "p".repeat(64 * 1024 - 1);
+        DelimitedReader reader = reader(padding + "\r\n\"" + longField + "\",z\r\n", ',');
+        assertArrayEquals(new String[] { padding }, reader.next());
+        assertArrayEquals(new String[] { longField, "z" }, reader.next());
+        assertNull(reader.next());
+    }
+
+    private static DelimitedReader reader(String text, char delimiter) {
+        return new DelimitedReader(new StringReader(text), delimiter);
+    }
+}
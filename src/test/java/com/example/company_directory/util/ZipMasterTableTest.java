@@ -0,0 +1,69 @@
+package com.example.company_directory.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class ZipMasterTableTest {
+
+    @Test
+    void findsEntriesAddedInAnyOrder() {
+        ZipMasterTable table = new ZipMasterTable.Builder()
+                .add("1500001", "東京都", "渋谷区", "神宮前")
+                .add("0600000", "北海道", "札幌市中央区", "")
+                .add("1000005", "東京都", "千代田区", "丸の内")
+                .build();
+
+        assertEquals(3, table.size());
+        int idx = table.indexOf("1000005");
+        assertEquals("東京都", table.prefecture(idx));
+        assertEquals("千代田区", table.city(idx));
+        assertEquals("丸の内", table.town(idx));
+        assertEquals("札幌市中央区", table.city(table.indexOf("0600000")));
+        assertEquals("", table.town(table.indexOf("0600000")));
+        assertEquals("渋谷区", table.city(table.indexOf("1500001")));
+    }
+
+    @Test
+    void missingOrMalformedZipCodesAreNotFound() {
+        ZipMasterTable table = new ZipMasterTable.Builder()
+                .add("1000005", "東京都", "千代田区", "丸の内")
+                .add("100-0006", "東京都", "千代田区", "有楽町")
+                .build();
+
+        assertEquals(1, table.size());
+        assertEquals(-1, table.indexOf("1000006"));
+        assertEquals(-1, table.indexOf("100-0005"));
+        assertEquals(-1, table.indexOf("100000"));
+        assertEquals(-1, table.indexOf("１０００００５"));
+        assertEquals(-1, table.indexOf(null));
+        assertEquals(-1, ZipMasterTable.EMPTY.indexOf("1000005"));
+    }
+
+    @Test
+    void duplicateZipCodesResolveToFirstAdded() {
+        // 二分探索がどの位置に当たっても、先に追加したものを返す
+        for (int count = 2; count <= 9; count++) {
+            ZipMasterTable.Builder builder = new ZipMasterTable.Builder()
+                    .add("0010000", "北海道", "札幌市北区", "");
+            for (int i = 0; i < count; i++) {
+                builder.add("1000005", "東京都", "千代田区", "町域" + i);
+            }
+            ZipMasterTable table = builder.add("9999999", "沖縄県", "与那国町", "").build();
+
+            assertEquals(count + 2, table.size());
+            assertEquals("町域0", table.town(table.indexOf("1000005")), "count " + count);
+        }
+    }
+
+    @Test
+    void sharesDictionaryEntries() {
+        ZipMasterTable table = new ZipMasterTable.Builder()
+                .add("1000005", "東京都", "千代田区", "丸の内")
+                .add("1000006", "東京都", "千代田区", "有楽町")
+                .build();
+
+        // 東京都・千代田区・丸の内・有楽町
+        assertEquals(4, table.dictionarySize());
+    }
+}